@@ -0,0 +1,60 @@
+package com.tradin.common.generator;
+
+import com.tradin.common.secret.BinanceCredential;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+//주문 1건 서명 처리량(ops/s)과 주문당 할당 바이트(gc.alloc.rate.norm, ./gradlew jmh 시 gc 프로파일러로 측정)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureGeneratorBenchmark {
+    private static final String SECRET_KEY = "ebf63090b614608d051d0dfca05c1c117a362be9a5b80f28027fd27bc48de797";
+
+    private BinanceCredential credential;
+    private double quantity;
+    private long timestamp;
+
+    @Setup
+    public void setUp() {
+        credential = BinanceCredential.of("5abe3b3ac2e84742e3bcc4f15077d595cb782f6e8457c14c6e1c420b4ca277eb", SECRET_KEY);
+        quantity = 0.123;
+        timestamp = 1_700_000_000_000L;
+    }
+
+    //기존 방식: 문자열 연결 + 매 요청마다 Mac.getInstance/init + hex 인코딩
+    @Benchmark
+    public String signOrderLegacy() throws Exception {
+        String queryString = "quantity=" + quantity + "&side=BUY" + "&symbol=BTCUSDT" + "&timestamp=" + timestamp + "&type=MARKET";
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET_KEY.getBytes(), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(queryString.getBytes()));
+    }
+
+    @Benchmark
+    public String signOrder() {
+        return SignatureGenerator.query()
+                .param("quantity", quantity)
+                .param("side", "BUY")
+                .param("symbol", "BTCUSDT")
+                .param("timestamp", timestamp)
+                .param("type", "MARKET")
+                .sign(credential);
+    }
+}
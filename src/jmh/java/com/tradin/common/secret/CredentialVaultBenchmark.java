@@ -0,0 +1,52 @@
+package com.tradin.common.secret;
+
+import com.tradin.common.utils.AESUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+//구독자 1명당 키 준비 비용: 매번 복호화(before) vs 볼트 조회(after)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CredentialVaultBenchmark {
+    private static final String AES_SECRET = "0123456789abcdef0123456789abcdef";
+    private static final Long USER_ID = 1L;
+
+    private AESUtils aesUtils;
+    private CredentialVault credentialVault;
+    private String encryptedApiKey;
+    private String encryptedSecretKey;
+
+    @Setup
+    public void setUp() {
+        aesUtils = new AESUtils(AES_SECRET);
+        credentialVault = new CredentialVault(aesUtils, 30, 10_000);
+        encryptedApiKey = aesUtils.encrypt("5abe3b3ac2e84742e3bcc4f15077d595cb782f6e8457c14c6e1c420b4ca277eb");
+        encryptedSecretKey = aesUtils.encrypt("ebf63090b614608d051d0dfca05c1c117a362be9a5b80f28027fd27bc48de797");
+    }
+
+    @Benchmark
+    public void decryptPerSubscriber(Blackhole blackhole) {
+        blackhole.consume(aesUtils.decrypt(encryptedApiKey));
+        blackhole.consume(aesUtils.decrypt(encryptedSecretKey));
+    }
+
+    @Benchmark
+    public BinanceCredential vaultPerSubscriber() {
+        return credentialVault.get(USER_ID, encryptedApiKey, encryptedSecretKey);
+    }
+}
@@ -0,0 +1,87 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.module.strategy.controller.dto.request.WebHookRequestDto;
+import com.tradin.module.strategy.domain.Position;
+import com.tradin.module.strategy.domain.TradingType;
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//시그널 1건 역직렬화 시간: 기존 JsonDeserializer(before) vs 바이너리 포맷(after)
+//메시지 크기는 bytesPerMessage 보조 지표로, 메시지당 할당량은 gc 프로파일러(gc.alloc.rate.norm)로 확인
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignalDeserializerBenchmark {
+    private static final String TOPIC = SignalTopics.FUTURE_SHORT_TERM_V1;
+
+    private JsonDeserializer<WebHookRequestDto> jsonDeserializer;
+    private SignalDeserializer signalDeserializer;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        WebHookDto signal = WebHookDto.of("비트코인 단타 전략", Position.of(TradingType.LONG, LocalDateTime.of(2023, 5, 1, 9, 30), 29_512));
+
+        jsonDeserializer = new JsonDeserializer<>(WebHookRequestDto.class, JacksonUtils.enhancedObjectMapper(), false);
+        jsonDeserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+        signalDeserializer = new SignalDeserializer();
+
+        try (JsonSerializer<WebHookRequestDto> jsonSerializer = new JsonSerializer<>(JacksonUtils.enhancedObjectMapper())) {
+            jsonSerializer.setAddTypeInfo(false);
+            json = jsonSerializer.serialize(TOPIC, new WebHookRequestDto(signal.getName(), signal.getPosition()));
+        }
+        binary = SignalCodec.encode(signal);
+    }
+
+    @Benchmark
+    public WebHookDto decodeJsonDeserializer(MessageSize size) {
+        size.bytesPerMessage = json.length;
+        return jsonDeserializer.deserialize(TOPIC, json).toServiceDto();
+    }
+
+    //JSON을 보내는 프로듀서가 남아 있을 때의 fallback 경로
+    @Benchmark
+    public WebHookDto decodeJsonFallback(MessageSize size) {
+        size.bytesPerMessage = json.length;
+        return signalDeserializer.deserialize(TOPIC, json);
+    }
+
+    @Benchmark
+    public WebHookDto decodeBinary(MessageSize size) {
+        size.bytesPerMessage = binary.length;
+        return signalDeserializer.deserialize(TOPIC, binary);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class MessageSize {
+        public long bytesPerMessage;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesPerMessage = 0;
+        }
+    }
+}
@@ -1,28 +1,79 @@
 package com.tradin.common.config;
 
 import com.tradin.common.exception.AsyncExceptionHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.AsyncConfigurerSupport;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableAsync
+@RequiredArgsConstructor
 public class AsyncConfiguration extends AsyncConfigurerSupport {
+    //AsyncConfigurer는 일찍 만들어지므로 레지스트리는 작업이 실행될 때 꺼내 씀
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${trade.signal.lane-threads:8}")
+    private int signalLaneThreads;
+
     @Override
     public Executor getAsyncExecutor() {
+        return asyncExecutor();
+    }
+
+    //SignalBackPressure가 큐 사용량을 보고 컨슈머를 멈추므로 빈으로 등록함
+    @Bean
+    public ThreadPoolTaskExecutor asyncExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5); //기본적으로 실행을 대기하고 있는 쓰레드의 갯수
         executor.setMaxPoolSize(30); //최대 쓰레드 풀 사이즈
         executor.setQueueCapacity(50); //쓰레드가 모두 사용중인 경우 큐에 쌓여있는 요청의 최대 갯수
         executor.setThreadNamePrefix("TRADIN-ASYNC-"); //쓰레드 이름 접두사
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy()); //큐가 꽉 차도 버리지 않고 호출한 쓰레드에서 실행
+        executor.setTaskDecorator(queueWaitRecorder("async"));
         executor.initialize();
         return executor;
     }
 
+    //전략별 시그널 레인의 다음 작업을 시작하는 풀. 매매 자체는 비동기 클라이언트에서 진행되므로 작게 둠
+    @Bean
+    public Executor signalExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(signalLaneThreads);
+        executor.setMaxPoolSize(signalLaneThreads);
+        executor.setThreadNamePrefix("TRADIN-SIGNAL-");
+        executor.setTaskDecorator(queueWaitRecorder("signal"));
+        executor.initialize();
+        return executor;
+    }
+
+    //작업이 큐에 들어간 뒤 쓰레드를 잡을 때까지 기다린 시간 (executor.queue.wait)
+    private TaskDecorator queueWaitRecorder(String executorName) {
+        return runnable -> {
+            long queuedAt = System.nanoTime();
+            return () -> {
+                meterRegistry.ifAvailable(registry -> Timer.builder("executor.queue.wait")
+                        .description("Time a task waited in the executor queue")
+                        .tag("executor", executorName)
+                        .register(registry)
+                        .record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS));
+                runnable.run();
+            };
+        };
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new AsyncExceptionHandler();
@@ -1,6 +1,8 @@
 package com.tradin.common.config;
 
-import com.tradin.module.strategy.controller.dto.request.WebHookRequestDto;
+import com.tradin.module.strategy.service.signal.SignalDeserializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,18 +12,25 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
 @EnableKafka
+@RequiredArgsConstructor
 public class KafkaConsumerConfiguration {
+    private final MeterRegistry meterRegistry;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${kafka.signal.max-poll-records:500}")
+    private int signalMaxPollRecords;
+
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
@@ -30,13 +39,14 @@ public class KafkaConsumerConfiguration {
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
-        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        props.put(JsonDeserializer.KEY_DEFAULT_TYPE, String.class);
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, WebHookRequestDto.class);
-        return new DefaultKafkaConsumerFactory<>(props);
+        //시그널은 바이너리 포맷을 먼저 보고, JSON이면 기존처럼 읽음. 둘 다 아니면 값이 null로 들어옴
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, SignalDeserializer.class);
+        DefaultKafkaConsumerFactory<String, Object> consumerFactory = new DefaultKafkaConsumerFactory<>(props);
+        //컨슈머 lag(kafka.consumer.fetch.manager.records.lag)을 토픽/파티션 태그로 내보냄
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return consumerFactory;
     }
 
     @Bean
@@ -45,4 +55,27 @@ public class KafkaConsumerConfiguration {
         factory.setConsumerFactory(consumerFactory());
         return factory;
     }
+
+    //시그널 토픽은 배치로 받아서 전략별로 묶어 처리함. 재시작 후 쌓인 시그널도 레코드마다 트랜잭션을 열지 않고 한 번에 소화
+    //매매가 끝난 뒤 SignalBackPressure가 순서대로 ack하면 그때 오프셋을 커밋함
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setPollTimeout(1000);
+        factory.getContainerProperties().getKafkaConsumerProperties()
+                .setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(signalMaxPollRecords));
+        return factory;
+    }
+
+    //재시도 토픽은 레코드 단위로 받아서 예정 시각이 안 된 레코드는 nack으로 미룸. 토픽마다 지연 시간이 달라서 컨테이너를 따로 둠
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
 }
\ No newline at end of file
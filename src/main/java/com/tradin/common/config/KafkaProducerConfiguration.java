@@ -0,0 +1,68 @@
+package com.tradin.common.config;
+
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import com.tradin.module.strategy.service.signal.SignalSerializer;
+import com.tradin.module.strategy.service.signal.SignalTopics;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaProducerConfiguration {
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${kafka.signal.retry-partitions:1}")
+    private int retryPartitions;
+
+    @Value("${kafka.signal.replication-factor:1}")
+    private short replicationFactor;
+
+    @Bean
+    public ProducerFactory<String, WebHookDto> producerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        //애플리케이션이 보내는 시그널은 모두 바이너리 포맷으로 씀
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, SignalSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<String, WebHookDto> kafkaTemplate() {
+        return new KafkaTemplate<>(producerFactory());
+    }
+
+    //재시도/DLT 토픽은 애플리케이션이 직접 만듦
+    @Bean
+    public KafkaAdmin.NewTopics signalRetryTopics() {
+        return new KafkaAdmin.NewTopics(SignalTopics.RETRY_TOPICS.stream()
+                .map(this::signalTopic)
+                .toArray(NewTopic[]::new));
+    }
+
+    @Bean
+    public NewTopic signalDeadLetterTopic() {
+        return signalTopic(SignalTopics.DEAD_LETTER);
+    }
+
+    private NewTopic signalTopic(String name) {
+        return TopicBuilder.name(name)
+                .partitions(retryPartitions)
+                .replicas(replicationFactor)
+                .build();
+    }
+}
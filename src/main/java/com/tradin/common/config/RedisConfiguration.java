@@ -7,8 +7,10 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -30,4 +32,22 @@ public class RedisConfiguration {
         redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
         return redisTemplate;
     }
+
+    //직접 인코딩한 바이트 배열을 그대로 넣고 꺼낼 때 씀
+    @Bean
+    public RedisTemplate<String, byte[]> binaryRedisTemplate() {
+        RedisTemplate<String, byte[]> binaryRedisTemplate = new RedisTemplate<>();
+        binaryRedisTemplate.setConnectionFactory(redisConnectionFactory());
+        binaryRedisTemplate.setKeySerializer(new StringRedisSerializer());
+        binaryRedisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        return binaryRedisTemplate;
+    }
+
+    //인스턴스 간 캐시 무효화 같은 pub/sub 구독에 씀
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer() {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory());
+        return container;
+    }
 }
@@ -10,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -33,7 +34,9 @@ public class SecurityConfiguration {
                 .mvcMatchers("/v1/auth/cognito").permitAll()
                 .mvcMatchers("/v1/strategies/future", "/v1/strategies/spot").permitAll()
                 .mvcMatchers("/v1/histories").permitAll()
+                .mvcMatchers(HttpMethod.POST, "/v1/strategies/webhook/*").permitAll() //JWT 대신 HMAC 서명으로 인증
                 .mvcMatchers("/swagger-ui/**", "/api-docs/**").authenticated()
+                .antMatchers("/actuator/**").hasRole("SWAGGER") //DLT 재처리 같은 운영용 엔드포인트는 운영자 계정만
                 .anyRequest().authenticated()
                 .and()
                 .httpBasic()
@@ -8,6 +8,7 @@ import static org.springframework.http.HttpStatus.*;
 @Getter
 public enum ExceptionMessage {
     //400 Bad Request
+    INVALID_SIGNAL_PAYLOAD_EXCEPTION(BAD_REQUEST, "시그널 형식이 올바르지 않습니다."),
 
     //401 Unauthorized
     EMPTY_HEADER_EXCEPTION(UNAUTHORIZED, "헤더가 비어있습니다."),
@@ -19,6 +20,8 @@ public enum ExceptionMessage {
     WRONG_PASSWORD_EXCEPTION(UNAUTHORIZED, "비밀번호가 일치하지 않습니다."),
     EMAIL_ALREADY_EXISTS_EXCEPTION(UNAUTHORIZED, "이미 존재하는 이메일입니다."),
     NOT_FOUND_JWK_PARTS_EXCEPTION(UNAUTHORIZED, "존재하지 않는 kid입니다."),
+    INVALID_WEBHOOK_SIGNATURE_EXCEPTION(UNAUTHORIZED, "웹훅 서명이 일치하지 않습니다."),
+    EXPIRED_WEBHOOK_TIMESTAMP_EXCEPTION(UNAUTHORIZED, "웹훅 요청 시각이 허용 범위를 벗어났습니다."),
 
     //403 Forbidden
 
@@ -28,6 +31,7 @@ public enum ExceptionMessage {
     NOT_FOUND_OPEN_POSITION_EXCEPTION(NOT_FOUND, "해당 전략은 오픈된 포지션이 없습니다."),
     NOT_FOUND_ANY_STRATEGY_EXCEPTION(NOT_FOUND, "전략이 아무것도 존재하지 않습니다."),
     NOT_FOUND_SECURITY_CONTEXT_EXCEPTION(NOT_FOUND, "Security Context에 유저 정보가 존재하지 않습니다."),
+    NOT_FOUND_SIGNAL_TOPIC_EXCEPTION(NOT_FOUND, "존재하지 않는 시그널 토픽입니다."),
 
     //405 Method Not Allowed
 
@@ -35,12 +39,18 @@ public enum ExceptionMessage {
 
     //429 Too Many Requests
     IP_RATE_LIMIT_EXCEEDED_EXCEPTION(TOO_MANY_REQUESTS, "IP당 최대 요청 횟수를 초과하였습니다."),
+    BINANCE_RATE_LIMIT_EXCEEDED_EXCEPTION(TOO_MANY_REQUESTS, "바이낸스 요청 한도를 초과하였습니다."),
 
     //500 Internal Server Error
     ENCRYPT_FAIL_EXCEPTION(INTERNAL_SERVER_ERROR, "암호화에 실패하였습니다."),
     DECRYPT_FAIL_EXCEPTION(INTERNAL_SERVER_ERROR, "복호화에 실패하였습니다."),
     SIGNATURE_GENERATION_FAIL_EXCEPTION(INTERNAL_SERVER_ERROR, "JWT 서명 생성에 실패하였습니다."),
     PUBLIC_KEY_GENERATE_FAIL_EXCEPTION(INTERNAL_SERVER_ERROR, "공개키 생성에 실패하였습니다."),
+    BINANCE_API_FAIL_EXCEPTION(INTERNAL_SERVER_ERROR, "바이낸스 API 요청에 실패하였습니다."),
+    CLIENT_ORDER_ID_GENERATION_FAIL_EXCEPTION(INTERNAL_SERVER_ERROR, "주문 id 생성에 실패하였습니다."),
+    ORDER_JOURNAL_WRITE_FAIL_EXCEPTION(INTERNAL_SERVER_ERROR, "주문 저널 기록에 실패하였습니다."),
+    BATCH_ORDER_FAIL_EXCEPTION(INTERNAL_SERVER_ERROR, "포지션 전환 주문에 실패하였습니다."),
+    SIGNAL_WRITE_FAIL_EXCEPTION(INTERNAL_SERVER_ERROR, "시그널 기록에 실패하였습니다."),
     ;
 
     private final HttpStatus httpStatus;
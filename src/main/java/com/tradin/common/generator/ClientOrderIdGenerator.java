@@ -0,0 +1,38 @@
+package com.tradin.common.generator;
+
+import com.tradin.common.exception.TradinException;
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static com.tradin.common.exception.ExceptionMessage.CLIENT_ORDER_ID_GENERATION_FAIL_EXCEPTION;
+
+@UtilityClass
+public class ClientOrderIdGenerator {
+    private final String PREFIX = "td";
+    private final int HASH_BYTES = 16;
+    private final char[] HEX = "0123456789abcdef".toCharArray();
+
+    //같은 시그널, 같은 유저, 같은 주문 단계면 항상 같은 id. binance 제약(^[.A-Z:/a-z0-9_-]{1,36}$)에 맞게 34자로 만듦
+    public String generate(String signalId, Long userId, String leg) {
+        byte[] hash = sha256(signalId + '|' + userId + '|' + leg);
+
+        char[] id = new char[PREFIX.length() + HASH_BYTES * 2];
+        PREFIX.getChars(0, PREFIX.length(), id, 0);
+        for (int i = 0; i < HASH_BYTES; i++) {
+            id[PREFIX.length() + i * 2] = HEX[(hash[i] >> 4) & 0x0F];
+            id[PREFIX.length() + i * 2 + 1] = HEX[hash[i] & 0x0F];
+        }
+        return new String(id);
+    }
+
+    private byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new TradinException(CLIENT_ORDER_ID_GENERATION_FAIL_EXCEPTION);
+        }
+    }
+}
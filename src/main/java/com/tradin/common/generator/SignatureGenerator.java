@@ -1,24 +1,15 @@
 package com.tradin.common.generator;
 
-import com.tradin.common.exception.TradinException;
 import lombok.experimental.UtilityClass;
-import org.apache.commons.codec.binary.Hex;
-
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-
-import static com.tradin.common.exception.ExceptionMessage.SIGNATURE_GENERATION_FAIL_EXCEPTION;
 
 @UtilityClass
 public class SignatureGenerator {
-    public String generateSignature(String data, String key) {
-        try {
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(new SecretKeySpec(key.getBytes(), "HmacSHA256"));
-            byte[] bytes = mac.doFinal(data.getBytes());
-            return Hex.encodeHexString(bytes);
-        } catch (Exception e) {
-            throw new TradinException(SIGNATURE_GENERATION_FAIL_EXCEPTION);
-        }
+    private final ThreadLocal<SignedQuery> QUERIES = ThreadLocal.withInitial(SignedQuery::new);
+
+    //호출한 쓰레드의 버퍼를 비워서 돌려줌. Mac은 크리덴셜(볼트 엔트리)별로 초기화해 둔 것을 빌려 씀
+    public SignedQuery query() {
+        SignedQuery query = QUERIES.get();
+        query.clear();
+        return query;
     }
 }
@@ -0,0 +1,169 @@
+package com.tradin.common.generator;
+
+import com.tradin.common.exception.TradinException;
+import com.tradin.common.secret.BinanceCredential;
+import com.tradin.common.utils.QuantityUtils;
+
+import javax.crypto.Mac;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import static com.tradin.common.exception.ExceptionMessage.SIGNATURE_GENERATION_FAIL_EXCEPTION;
+
+//쓰레드마다 하나씩 재사용되는 서명용 쿼리 버퍼. SignatureGenerator.query()로만 얻고, sign() 이후에는 들고 있지 않아야 함
+public class SignedQuery {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int MAX_PARAMS = 16;
+
+    private final String[] names = new String[MAX_PARAMS];
+    private final int[] valueStarts = new int[MAX_PARAMS];
+    private final int[] valueEnds = new int[MAX_PARAMS];
+    private final int[] order = new int[MAX_PARAMS];
+    private final StringBuilder values = new StringBuilder(256);
+    private final byte[] digest = new byte[32];
+    private final char[] hex = new char[64];
+    private byte[] payload = new byte[512];
+    private int size;
+
+    SignedQuery() {
+    }
+
+    void clear() {
+        size = 0;
+        values.setLength(0);
+    }
+
+    public SignedQuery param(String name, String value) {
+        int start = begin(name);
+        values.append(value);
+        return end(start);
+    }
+
+    public SignedQuery param(String name, long value) {
+        int start = begin(name);
+        values.append(value);
+        return end(start);
+    }
+
+    public SignedQuery param(String name, double value) {
+        int start = begin(name);
+        values.append(QuantityUtils.formatQuantity(value));
+        return end(start);
+    }
+
+    public SignedQuery param(String name, boolean value) {
+        int start = begin(name);
+        values.append(value);
+        return end(start);
+    }
+
+    //binance는 이름 기준 오름차순으로 정렬된 queryString에 대해 서명을 검증함
+    public String sign(BinanceCredential credential) {
+        sortByName();
+        int length = writePayload();
+
+        try {
+            Mac mac = credential.borrowMac();
+            mac.update(payload, 0, length);
+            mac.doFinal(digest, 0);
+            credential.releaseMac(mac);
+        } catch (GeneralSecurityException | IllegalStateException e) {
+            throw new TradinException(SIGNATURE_GENERATION_FAIL_EXCEPTION);
+        }
+
+        return toHex();
+    }
+
+    //서명까지 붙인 queryString. body나 uri에 그대로 실어 보낼 때 사용
+    public String toSignedQueryString(BinanceCredential credential) {
+        String signature = sign(credential);
+        return toQueryString() + "&signature=" + signature;
+    }
+
+    public String toQueryString() {
+        sortByName();
+        StringBuilder queryString = new StringBuilder(values.length() + size * 16);
+        for (int i = 0; i < size; i++) {
+            int index = order[i];
+            if (i > 0) {
+                queryString.append('&');
+            }
+            queryString.append(names[index]).append('=').append(values, valueStarts[index], valueEnds[index]);
+        }
+        return queryString.toString();
+    }
+
+    private int begin(String name) {
+        if (size == MAX_PARAMS) {
+            throw new TradinException(SIGNATURE_GENERATION_FAIL_EXCEPTION);
+        }
+        names[size] = name;
+        return values.length();
+    }
+
+    private SignedQuery end(int start) {
+        valueStarts[size] = start;
+        valueEnds[size] = values.length();
+        order[size] = size;
+        size++;
+        return this;
+    }
+
+    private void sortByName() {
+        for (int i = 1; i < size; i++) {
+            int current = order[i];
+            int j = i - 1;
+            while (j >= 0 && names[order[j]].compareTo(names[current]) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = current;
+        }
+    }
+
+    private int writePayload() {
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            int index = order[i];
+            if (i > 0) {
+                length = write('&', length);
+            }
+            String name = names[index];
+            for (int c = 0; c < name.length(); c++) {
+                length = write(name.charAt(c), length);
+            }
+            length = write('=', length);
+            for (int c = valueStarts[index]; c < valueEnds[index]; c++) {
+                length = write(values.charAt(c), length);
+            }
+        }
+        return length;
+    }
+
+    //queryString은 ASCII라고 가정하되, 그 외 문자는 UTF-8로 인코딩
+    private int write(char c, int length) {
+        if (payload.length - length < 3) {
+            payload = Arrays.copyOf(payload, payload.length * 2);
+        }
+
+        if (c < 0x80) {
+            payload[length++] = (byte) c;
+        } else if (c < 0x800) {
+            payload[length++] = (byte) (0xC0 | (c >> 6));
+            payload[length++] = (byte) (0x80 | (c & 0x3F));
+        } else {
+            payload[length++] = (byte) (0xE0 | (c >> 12));
+            payload[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            payload[length++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return length;
+    }
+
+    private String toHex() {
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX[(digest[i] >> 4) & 0x0F];
+            hex[i * 2 + 1] = HEX[digest[i] & 0x0F];
+        }
+        return new String(hex);
+    }
+}
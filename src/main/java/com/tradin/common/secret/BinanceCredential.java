@@ -0,0 +1,43 @@
+package com.tradin.common.secret;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class BinanceCredential {
+    private final String apiKey;
+    private final byte[] secretKey;
+    @Getter(AccessLevel.NONE)
+    private final MacPool macs;
+
+    public static BinanceCredential of(String apiKey, String secretKey) {
+        return new BinanceCredential(apiKey, secretKey.getBytes(StandardCharsets.UTF_8), new MacPool());
+    }
+
+    //서명용 Mac은 같은 볼트 엔트리에서 나온 원본/사본끼리 나눠 씀
+    public Mac borrowMac() throws GeneralSecurityException {
+        return macs.borrow(secretKey);
+    }
+
+    public void releaseMac(Mac mac) {
+        macs.release(mac);
+    }
+
+    //볼트 밖으로 내보내는 사본. 볼트가 원본을 지워도 진행 중인 매매나 스트림의 서명에는 영향이 없음
+    BinanceCredential copy() {
+        return new BinanceCredential(apiKey, secretKey.clone(), macs);
+    }
+
+    //볼트에서 밀려난 평문 시크릿 키와 그 키로 초기화한 Mac을 메모리에서 지움. 볼트가 가진 원본에만 호출함
+    void destroy() {
+        Arrays.fill(secretKey, (byte) 0);
+        macs.clear();
+    }
+}
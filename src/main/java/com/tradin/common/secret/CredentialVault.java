@@ -0,0 +1,84 @@
+package com.tradin.common.secret;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.tradin.common.utils.AESUtils;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+//유저별로 복호화한 바이낸스 키를 보관. TTL/최대 크기를 넘기거나 무효화되면 시크릿 키를 0으로 덮어씀
+//호출한 쪽에는 사본만 내보내므로, 밀려난 원본을 지워도 이미 꺼내 간 쪽의 서명이 깨지지 않음
+@Component
+public class CredentialVault {
+    private final AESUtils aesUtils;
+    private final Cache<Long, VaultEntry> credentials;
+
+    public CredentialVault(AESUtils aesUtils,
+                           @Value("${secret.credential-vault.ttl-minutes:30}") long ttlMinutes,
+                           @Value("${secret.credential-vault.maximum-size:10000}") long maximumSize) {
+        RemovalListener<Long, VaultEntry> destroyOnRemoval = CredentialVault::destroy;
+
+        this.aesUtils = aesUtils;
+        this.credentials = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maximumSize)
+                .removalListener(destroyOnRemoval)
+                .build();
+    }
+
+    public BinanceCredential get(Long userId, String encryptedApiKey, String encryptedSecretKey) {
+        VaultEntry entry = credentials.getIfPresent(userId);
+
+        if (entry != null && entry.isIssuedFrom(encryptedApiKey, encryptedSecretKey)) {
+            BinanceCredential copy = entry.getCredential().copy();
+            //복사하는 사이에 밀려났으면 원본이 이미 지워졌을 수 있으므로, 아직 볼트에 있을 때만 씀
+            if (credentials.getIfPresent(userId) == entry) {
+                return copy;
+            }
+        }
+
+        //compute 안에서는 이 엔트리가 밀려날 수 없으므로 여기서 복사함
+        BinanceCredential[] copy = new BinanceCredential[1];
+        credentials.asMap().compute(userId, (id, current) -> {
+            VaultEntry issued = current != null && current.isIssuedFrom(encryptedApiKey, encryptedSecretKey)
+                    ? current
+                    : decrypt(encryptedApiKey, encryptedSecretKey);
+            copy[0] = issued.getCredential().copy();
+            return issued;
+        });
+        return copy[0];
+    }
+
+    public void invalidate(Long userId) {
+        credentials.invalidate(userId);
+    }
+
+    private VaultEntry decrypt(String encryptedApiKey, String encryptedSecretKey) {
+        BinanceCredential credential = BinanceCredential.of(aesUtils.decrypt(encryptedApiKey), aesUtils.decrypt(encryptedSecretKey));
+        return new VaultEntry(encryptedApiKey, encryptedSecretKey, credential);
+    }
+
+    private static void destroy(Long userId, VaultEntry entry, RemovalCause cause) {
+        if (entry != null) {
+            entry.getCredential().destroy();
+        }
+    }
+
+    @AllArgsConstructor
+    @Getter
+    private static class VaultEntry {
+        private final String encryptedApiKey;
+        private final String encryptedSecretKey;
+        private final BinanceCredential credential;
+
+        private boolean isIssuedFrom(String encryptedApiKey, String encryptedSecretKey) {
+            return this.encryptedApiKey.equals(encryptedApiKey) && this.encryptedSecretKey.equals(encryptedSecretKey);
+        }
+    }
+}
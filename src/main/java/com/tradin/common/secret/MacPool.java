@@ -0,0 +1,52 @@
+package com.tradin.common.secret;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//시크릿 키 하나로 초기화한 HmacSHA256 Mac을 돌려 씀. Mac은 쓰레드 안전하지 않아서 빌려 쓰고 돌려줌
+//볼트 엔트리와 같이 만들어지고 엔트리가 밀려날 때 같이 비워지므로, 밀려난 키로 초기화된 Mac이 남지 않음
+class MacPool {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_IDLE = 8;
+
+    private final Queue<Mac> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private volatile boolean closed;
+
+    Mac borrow(byte[] secretKey) throws GeneralSecurityException {
+        Mac mac = idle.poll();
+        if (mac != null) {
+            idleCount.decrementAndGet();
+            return mac;
+        }
+
+        mac = Mac.getInstance(ALGORITHM);
+        mac.init(new SecretKeySpec(secretKey, ALGORITHM));
+        return mac;
+    }
+
+    //doFinal까지 끝나서 초기 상태로 돌아간 Mac만 돌려받음. 비워진 뒤에 돌아온 Mac은 버림
+    void release(Mac mac) {
+        if (closed) {
+            return;
+        }
+        if (idleCount.incrementAndGet() > MAX_IDLE) {
+            idleCount.decrementAndGet();
+            return;
+        }
+
+        idle.offer(mac);
+        if (closed) {
+            idle.clear();
+        }
+    }
+
+    void clear() {
+        closed = true;
+        idle.clear();
+    }
+}
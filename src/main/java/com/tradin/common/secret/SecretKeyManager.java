@@ -28,4 +28,7 @@ public final class SecretKeyManager {
 
     @NotBlank
     private final String swaggerPassword;
+
+    @NotBlank
+    private final String webhookSecret;
 }
\ No newline at end of file
@@ -20,20 +20,22 @@ import java.util.Base64;
 
 @Component
 public class AESUtils {
-    private static final String ALGORITHM = "AES/CTR/NoPadding"; //TODO - 잘 동작하는지 테스트 (원래는 "AES/CBC/PKCS5Padding")
+    private static final String ALGORITHM = "AES/GCM/NoPadding"; //GCMParameterSpec을 쓰므로 GCM 모드여야 함 (CTR 모드에서는 init이 항상 실패)
 
     private static final int GCM_TAG_LENGTH = 128;
     private static final int IV_SIZE = 12;
-    @Value("${secret.aes-secret}")
-    private String key;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private final SecretKeySpec keySpec;
+
+    public AESUtils(@Value("${secret.aes-secret}") String key) {
+        this.keySpec = new SecretKeySpec(key.getBytes(), "AES");
+    }
 
     public String encrypt(String text) {
         try {
             Cipher cipher = Cipher.getInstance(ALGORITHM);
-            SecretKeySpec keySpec = new SecretKeySpec(key.getBytes(), "AES");
-            SecureRandom random = new SecureRandom();
             byte[] iv = new byte[IV_SIZE];
-            random.nextBytes(iv);
+            RANDOM.nextBytes(iv);
             GCMParameterSpec gcmParameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
             cipher.init(Cipher.ENCRYPT_MODE, keySpec, gcmParameterSpec);
             byte[] encrypted = cipher.doFinal(text.getBytes());
@@ -51,19 +53,13 @@ public class AESUtils {
     public String decrypt(String encryptedText) {
         try {
             Cipher cipher = Cipher.getInstance(ALGORITHM);
-            SecretKeySpec keySpec = new SecretKeySpec(key.getBytes(), "AES");
             byte[] decoded = Base64.getDecoder().decode(encryptedText);
-            ByteBuffer byteBuffer = ByteBuffer.wrap(decoded);
-            byte[] iv = new byte[IV_SIZE];
-            byteBuffer.get(iv);
-            byte[] encrypted = new byte[byteBuffer.remaining()];
-            byteBuffer.get(encrypted);
-            GCMParameterSpec gcmParameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
+            GCMParameterSpec gcmParameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, decoded, 0, IV_SIZE);
             cipher.init(Cipher.DECRYPT_MODE, keySpec, gcmParameterSpec);
-            return new String(cipher.doFinal(encrypted));
+            return new String(cipher.doFinal(decoded, IV_SIZE, decoded.length - IV_SIZE));
         } catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException |
                  InvalidAlgorithmParameterException | IllegalBlockSizeException | BadPaddingException e) {
             throw new TradinException(ExceptionMessage.DECRYPT_FAIL_EXCEPTION);
         }
     }
-}
\ No newline at end of file
+}
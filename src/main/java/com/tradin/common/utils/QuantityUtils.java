@@ -0,0 +1,13 @@
+package com.tradin.common.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.math.BigDecimal;
+
+@UtilityClass
+public class QuantityUtils {
+    //double.toString()은 작은 값을 지수 표기(1.0E-4)로 바꾸는데 바이낸스는 이를 거절하므로 사용하지 않음
+    public static String formatQuantity(double quantity) {
+        return BigDecimal.valueOf(quantity).stripTrailingZeros().toPlainString();
+    }
+}
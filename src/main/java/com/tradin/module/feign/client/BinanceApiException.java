@@ -0,0 +1,32 @@
+package com.tradin.module.feign.client;
+
+import com.tradin.common.exception.TradinException;
+import lombok.Getter;
+
+import static com.tradin.common.exception.ExceptionMessage.BINANCE_API_FAIL_EXCEPTION;
+
+//바이낸스가 에러 응답을 준 경우. 상태 코드와 바이낸스 에러 코드(code)로 주문이 실제로 거절됐는지 판단함
+@Getter
+public class BinanceApiException extends TradinException {
+    private static final int ORDER_NOT_EXIST = -2013;
+
+    private final int status;
+    private final Integer code;
+    private final String msg;
+
+    public BinanceApiException(int status, Integer code, String msg) {
+        super(BINANCE_API_FAIL_EXCEPTION);
+        this.status = status;
+        this.code = code;
+        this.msg = msg;
+    }
+
+    public boolean isOrderNotExist() {
+        return code != null && code == ORDER_NOT_EXIST;
+    }
+
+    //4xx는 요청이 처리되지 않은 것. 5xx(특히 503)는 바이낸스도 체결 여부를 모르는 상태라 거절로 보지 않음
+    public boolean isRejected() {
+        return status / 100 == 4 && status != 408 && status != 418 && status != 429;
+    }
+}
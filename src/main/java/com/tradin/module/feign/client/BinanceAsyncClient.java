@@ -0,0 +1,154 @@
+package com.tradin.module.feign.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradin.common.exception.TradinException;
+import com.tradin.module.feign.client.dto.binance.BatchOrderResultDto;
+import com.tradin.module.feign.client.dto.binance.CurrentPositionInfoDto;
+import com.tradin.module.feign.client.dto.binance.FutureAccountBalanceDto;
+import com.tradin.module.feign.client.dto.binance.NewOrderDto;
+import com.tradin.module.feign.governor.BinanceEndpoint;
+import com.tradin.module.feign.governor.BinanceRequestGovernor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.tradin.common.exception.ExceptionMessage.BINANCE_API_FAIL_EXCEPTION;
+
+//BinanceClient(Feign)의 논블로킹 버전. 응답을 기다리는 동안 쓰레드를 점유하지 않고, 하나의 HttpClient로 futures 호스트와의 커넥션을 재사용함
+@Slf4j
+@Component
+public class BinanceAsyncClient {
+    private static final String API_KEY_HEADER = "X-MBX-APIKEY";
+    private static final TypeReference<List<CurrentPositionInfoDto>> POSITION_INFOS = new TypeReference<>() {
+    };
+    private static final TypeReference<List<FutureAccountBalanceDto>> ACCOUNT_BALANCES = new TypeReference<>() {
+    };
+    private static final TypeReference<List<BatchOrderResultDto>> BATCH_ORDER_RESULTS = new TypeReference<>() {
+    };
+    private static final TypeReference<NewOrderDto> NEW_ORDER = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final BinanceRequestGovernor governor;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+
+    public BinanceAsyncClient(ObjectMapper objectMapper, BinanceRequestGovernor governor,
+                              @Value("${binance.base-url:https://testnet.binancefuture.com}") String baseUrl,
+                              @Value("${binance.async.connect-timeout-millis:1000}") long connectTimeoutMillis,
+                              @Value("${binance.async.request-timeout-millis:3000}") long requestTimeoutMillis,
+                              @Value("${binance.async.callback-threads:4}") int callbackThreads) {
+        this.objectMapper = objectMapper;
+        this.governor = governor;
+        this.baseUrl = baseUrl;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.executor = Executors.newFixedThreadPool(callbackThreads, new CallbackThreadFactory());
+        //HTTP/2를 지원하면 커넥션 하나로 다중화하고, 아니면 HTTP/1.1 keep-alive 커넥션 풀을 사용함
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .executor(executor)
+                .build();
+    }
+
+    public CompletableFuture<List<CurrentPositionInfoDto>> getCurrentPositionInfo(String apiKey, String signedQuery) {
+        return send(request("/fapi/v2/positionRisk", signedQuery, apiKey).GET().build(), POSITION_INFOS);
+    }
+
+    public CompletableFuture<List<FutureAccountBalanceDto>> getFutureAccountBalance(String apiKey, String signedQuery) {
+        return send(request("/fapi/v2/balance", signedQuery, apiKey).GET().build(), ACCOUNT_BALANCES);
+    }
+
+    public CompletableFuture<NewOrderDto> order(String apiKey, String signedQuery) {
+        return send(request("/fapi/v1/order", signedQuery, apiKey).POST(HttpRequest.BodyPublishers.noBody()).build(), NEW_ORDER);
+    }
+
+    public CompletableFuture<NewOrderDto> queryOrder(String apiKey, String signedQuery) {
+        return send(request("/fapi/v1/order", signedQuery, apiKey).GET().build(), NEW_ORDER);
+    }
+
+    public CompletableFuture<List<BatchOrderResultDto>> batchOrders(String apiKey, String signedBody) {
+        HttpRequest request = request("/fapi/v1/batchOrders", null, apiKey)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(signedBody))
+                .build();
+        return send(request, BATCH_ORDER_RESULTS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private HttpRequest.Builder request(String path, String signedQuery, String apiKey) {
+        String uri = signedQuery == null ? baseUrl + path : baseUrl + path + "?" + signedQuery;
+        return HttpRequest.newBuilder(URI.create(uri))
+                .timeout(requestTimeout)
+                .header(API_KEY_HEADER, apiKey);
+    }
+
+    //governor가 허용할 때까지 요청을 미루고, 응답 헤더의 사용량을 governor에 반영함
+    private <T> CompletableFuture<T> send(HttpRequest request, TypeReference<T> type) {
+        String apiKey = request.headers().firstValue(API_KEY_HEADER).orElse(null);
+        return governor.acquireAsync(BinanceEndpoint.of(request.uri().toString()), apiKey)
+                .thenCompose(ignored -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()))
+                .thenApply(response -> {
+                    governor.record(apiKey, response.statusCode(), response.headers()::firstValue);
+                    return readBody(request, response, type);
+                });
+    }
+
+    private <T> T readBody(HttpRequest request, HttpResponse<byte[]> response, TypeReference<T> type) {
+        if (response.statusCode() / 100 != 2) {
+            log.warn("Binance API Failed - path: {}, status: {}, body: {}",
+                    request.uri().getPath(), response.statusCode(), new String(response.body(), StandardCharsets.UTF_8));
+            throw toApiException(response);
+        }
+
+        try {
+            return objectMapper.readValue(response.body(), type);
+        } catch (IOException e) {
+            throw new TradinException(BINANCE_API_FAIL_EXCEPTION);
+        }
+    }
+
+    private BinanceApiException toApiException(HttpResponse<byte[]> response) {
+        try {
+            JsonNode error = objectMapper.readTree(response.body());
+            Integer code = error.hasNonNull("code") ? error.get("code").asInt() : null;
+            return new BinanceApiException(response.statusCode(), code, error.path("msg").asText(null));
+        } catch (IOException e) {
+            return new BinanceApiException(response.statusCode(), null, null);
+        }
+    }
+
+    private static class CallbackThreadFactory implements ThreadFactory {
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "TRADIN-BINANCE-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
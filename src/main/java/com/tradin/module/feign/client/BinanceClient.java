@@ -3,16 +3,19 @@ package com.tradin.module.feign.client;
 import com.tradin.module.feign.client.dto.binance.ChangeLeverageDto;
 import com.tradin.module.feign.client.dto.binance.CurrentPositionInfoDto;
 import com.tradin.module.feign.client.dto.binance.FutureAccountBalanceDto;
+import com.tradin.module.feign.client.dto.binance.ListenKeyDto;
 import com.tradin.module.feign.client.dto.binance.NewOrderDto;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 
-@FeignClient(name = "BinanceClient", url = "https://testnet.binancefuture.com")
+@FeignClient(name = "BinanceClient", url = "${binance.base-url:https://testnet.binancefuture.com}", configuration = BinanceClientConfiguration.class)
 public interface BinanceClient {
 
     @GetMapping("/fapi/v2/positionRisk")
@@ -25,7 +28,7 @@ public interface BinanceClient {
     @PostMapping("/fapi/v1/order")
     NewOrderDto order(
             @RequestHeader("X-MBX-APIKEY") String apiKey,
-            @RequestParam("quantity") double quantity,
+            @RequestParam("quantity") String quantity,
             @RequestParam("side") String side,
             @RequestParam("signature") String signature,
             @RequestParam("symbol") String symbol,
@@ -48,4 +51,13 @@ public interface BinanceClient {
             @RequestParam("timestamp") Long timestamp,
             @RequestParam("signature") String signature
     );
+
+    @PostMapping("/fapi/v1/listenKey")
+    ListenKeyDto createListenKey(@RequestHeader("X-MBX-APIKEY") String apiKey);
+
+    @PutMapping("/fapi/v1/listenKey")
+    ListenKeyDto keepAliveListenKey(@RequestHeader("X-MBX-APIKEY") String apiKey);
+
+    @DeleteMapping("/fapi/v1/listenKey")
+    void closeListenKey(@RequestHeader("X-MBX-APIKEY") String apiKey);
 }
@@ -0,0 +1,15 @@
+package com.tradin.module.feign.client;
+
+import com.tradin.module.feign.governor.BinanceRequestGovernor;
+import com.tradin.module.feign.governor.GovernedClient;
+import feign.Client;
+import org.springframework.context.annotation.Bean;
+
+//BinanceClient 전용 설정. 다른 FeignClient에 적용되지 않도록 @Configuration을 붙이지 않음
+public class BinanceClientConfiguration {
+
+    @Bean
+    public Client binanceFeignClient(BinanceRequestGovernor binanceRequestGovernor) {
+        return new GovernedClient(new Client.Default(null, null), binanceRequestGovernor);
+    }
+}
@@ -0,0 +1,27 @@
+package com.tradin.module.feign.client.dto.binance;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//batchOrders 파라미터의 한 주문. binance는 batchOrders 안의 값도 모두 문자열로 받음
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchOrderDto {
+    private final String symbol;
+    private final String side;
+    private final String type;
+    private final String quantity;
+    private final String reduceOnly;
+    private final String newClientOrderId;
+
+    public static BatchOrderDto market(String symbol, String side, String quantity, String newClientOrderId) {
+        return new BatchOrderDto(symbol, side, "MARKET", quantity, null, newClientOrderId);
+    }
+
+    public static BatchOrderDto reduceOnlyMarket(String symbol, String side, String quantity, String newClientOrderId) {
+        return new BatchOrderDto(symbol, side, "MARKET", quantity, "true", newClientOrderId);
+    }
+}
@@ -0,0 +1,31 @@
+package com.tradin.module.feign.client.dto.binance;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+//batchOrders 응답은 주문마다 주문 정보 또는 {code, msg} 에러가 순서대로 내려옴
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchOrderResultDto {
+    private Integer code;
+    private String msg;
+    private String clientOrderId;
+    private Long orderId;
+    private String executedQty;
+    private String origQty;
+    private String avgPrice;
+    private Boolean reduceOnly;
+    private String side;
+    private String status;
+    private String symbol;
+    private String type;
+    private Long updateTime;
+
+    public boolean isSuccess() {
+        return code == null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tradin.module.feign.governor;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.net.URI;
+
+//요청 가중치(IP 단위)와 주문 수(API key 단위). 주문 엔드포인트는 조회 엔드포인트보다 높은 한도까지 허용함
+@Getter
+@AllArgsConstructor
+public enum BinanceEndpoint {
+    POSITION_RISK("/fapi/v2/positionRisk", 5, 0),
+    BALANCE("/fapi/v2/balance", 5, 0),
+    LEVERAGE("/fapi/v1/leverage", 1, 0),
+    LISTEN_KEY("/fapi/v1/listenKey", 1, 0),
+    ORDER("/fapi/v1/order", 1, 1),
+    BATCH_ORDERS("/fapi/v1/batchOrders", 5, 5),
+    UNKNOWN("", 1, 0);
+
+    private final String path;
+    private final int weight;
+    private final int orderCount;
+
+    public boolean isOrder() {
+        return orderCount > 0;
+    }
+
+    public static BinanceEndpoint of(String url) {
+        String path = URI.create(url).getPath();
+        for (BinanceEndpoint endpoint : values()) {
+            if (endpoint.path.equals(path)) {
+                return endpoint;
+            }
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,234 @@
+package com.tradin.module.feign.governor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tradin.common.exception.TradinException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.tradin.common.exception.ExceptionMessage.BINANCE_RATE_LIMIT_EXCEEDED_EXCEPTION;
+
+//같은 서버 IP에서 나가는 바이낸스 요청의 IP 가중치와 API key별 주문 수를 추적해서 한도를 넘기 전에 요청을 대기시킴
+//조회 요청은 가중치 한도의 일부(info-weight-ratio)까지만 쓰고, 나머지는 주문 요청에 남겨둠
+@Slf4j
+@Component
+public class BinanceRequestGovernor {
+    static final String USED_WEIGHT_HEADER = "X-MBX-USED-WEIGHT-1M";
+    static final String ORDER_COUNT_10S_HEADER = "X-MBX-ORDER-COUNT-10S";
+    static final String ORDER_COUNT_1M_HEADER = "X-MBX-ORDER-COUNT-1M";
+    private static final long WEIGHT_WINDOW_MILLIS = 60_000;
+    private static final long ORDER_SHORT_WINDOW_MILLIS = 10_000;
+    private static final long ORDER_LONG_WINDOW_MILLIS = 60_000;
+
+    private final int ipWeightLimit;
+    private final int infoWeightLimit;
+    private final int orderLimit10s;
+    private final int orderLimit1m;
+    private final long maxWaitMillis;
+    private final Cache<String, OrderBudget> orderBudgets = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMillis(ORDER_LONG_WINDOW_MILLIS * 2))
+            .build();
+    private final Timer orderThrottled;
+    private final Timer infoThrottled;
+    private final Counter rateLimitResponses;
+
+    private long weightWindowStart;
+    private int usedWeight;
+    private long bannedUntil;
+
+    public BinanceRequestGovernor(MeterRegistry meterRegistry,
+                                  @Value("${binance.governor.ip-weight-limit:2400}") int ipWeightLimit,
+                                  @Value("${binance.governor.info-weight-ratio:0.7}") double infoWeightRatio,
+                                  @Value("${binance.governor.order-limit-10s:300}") int orderLimit10s,
+                                  @Value("${binance.governor.order-limit-1m:1200}") int orderLimit1m,
+                                  @Value("${binance.governor.max-wait-millis:10000}") long maxWaitMillis) {
+        this.ipWeightLimit = ipWeightLimit;
+        this.infoWeightLimit = (int) (ipWeightLimit * infoWeightRatio);
+        this.orderLimit10s = orderLimit10s;
+        this.orderLimit1m = orderLimit1m;
+        this.maxWaitMillis = maxWaitMillis;
+        this.orderThrottled = throttledTimer(meterRegistry, "order");
+        this.infoThrottled = throttledTimer(meterRegistry, "info");
+        this.rateLimitResponses = Counter.builder("binance.governor.rate.limited")
+                .description("429/418 responses from Binance")
+                .register(meterRegistry);
+        Gauge.builder("binance.governor.used.weight", this, BinanceRequestGovernor::getUsedWeight)
+                .description("Request weight used in the current minute")
+                .register(meterRegistry);
+    }
+
+    //블로킹 클라이언트(Feign)용. 허용될 때까지 호출 쓰레드에서 대기함
+    public void acquire(BinanceEndpoint endpoint, String apiKey) {
+        long startedAt = System.nanoTime();
+        long waitMillis;
+        while ((waitMillis = tryAcquire(endpoint, apiKey, System.currentTimeMillis())) > 0) {
+            checkWaitLimit(startedAt, waitMillis);
+            try {
+                Thread.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TradinException(BINANCE_RATE_LIMIT_EXCEEDED_EXCEPTION);
+            }
+        }
+        recordThrottled(endpoint, startedAt);
+    }
+
+    //논블로킹 클라이언트용. 대기 중에도 쓰레드를 점유하지 않음
+    public CompletableFuture<Void> acquireAsync(BinanceEndpoint endpoint, String apiKey) {
+        CompletableFuture<Void> acquired = new CompletableFuture<>();
+        retryAcquire(acquired, endpoint, apiKey, System.nanoTime());
+        return acquired;
+    }
+
+    //응답 헤더의 사용량이 로컬 추정치보다 크면(같은 IP를 쓰는 다른 프로세스 등) 응답 값을 따름
+    public void record(String apiKey, int status, Function<String, Optional<String>> header) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            rollWeightWindow(now);
+            header.apply(USED_WEIGHT_HEADER).map(Integer::parseInt)
+                    .ifPresent(weight -> usedWeight = Math.max(usedWeight, weight));
+
+            if (apiKey != null) {
+                OrderBudget budget = orderBudget(apiKey);
+                budget.roll(now);
+                header.apply(ORDER_COUNT_10S_HEADER).map(Integer::parseInt)
+                        .ifPresent(count -> budget.shortCount = Math.max(budget.shortCount, count));
+                header.apply(ORDER_COUNT_1M_HEADER).map(Integer::parseInt)
+                        .ifPresent(count -> budget.longCount = Math.max(budget.longCount, count));
+            }
+
+            //429는 한도 초과 경고, 418은 IP 차단. Retry-After(초)까지 모든 요청을 멈춤
+            if (status == 429 || status == 418) {
+                long retryAfterMillis = header.apply("Retry-After").map(Long::parseLong)
+                        .map(TimeUnit.SECONDS::toMillis)
+                        .orElse(weightWindowStart + WEIGHT_WINDOW_MILLIS - now);
+                bannedUntil = Math.max(bannedUntil, now + retryAfterMillis);
+                rateLimitResponses.increment();
+                log.warn("Binance rate limit response - status: {}, retryAfter: {}ms", status, retryAfterMillis);
+            }
+        }
+    }
+
+    //허용되면 사용량을 예약하고 0을, 아니면 다시 시도할 때까지 기다려야 하는 시간(ms)을 반환
+    synchronized long tryAcquire(BinanceEndpoint endpoint, String apiKey, long now) {
+        if (now < bannedUntil) {
+            return bannedUntil - now;
+        }
+
+        rollWeightWindow(now);
+        int weightLimit = endpoint.isOrder() ? ipWeightLimit : infoWeightLimit;
+        if (usedWeight + endpoint.getWeight() > weightLimit) {
+            return weightWindowStart + WEIGHT_WINDOW_MILLIS - now;
+        }
+
+        if (endpoint.isOrder() && apiKey != null) {
+            OrderBudget budget = orderBudget(apiKey);
+            long orderWait = budget.tryAcquire(endpoint.getOrderCount(), now, orderLimit10s, orderLimit1m);
+            if (orderWait > 0) {
+                return orderWait;
+            }
+        }
+
+        usedWeight += endpoint.getWeight();
+        return 0;
+    }
+
+    synchronized int getUsedWeight() {
+        return usedWeight;
+    }
+
+    private void retryAcquire(CompletableFuture<Void> acquired, BinanceEndpoint endpoint, String apiKey, long startedAt) {
+        long waitMillis = tryAcquire(endpoint, apiKey, System.currentTimeMillis());
+        if (waitMillis == 0) {
+            recordThrottled(endpoint, startedAt);
+            acquired.complete(null);
+            return;
+        }
+
+        try {
+            checkWaitLimit(startedAt, waitMillis);
+        } catch (TradinException e) {
+            acquired.completeExceptionally(e);
+            return;
+        }
+        CompletableFuture.delayedExecutor(waitMillis, TimeUnit.MILLISECONDS)
+                .execute(() -> retryAcquire(acquired, endpoint, apiKey, startedAt));
+    }
+
+    //시그널 데드라인보다 오래 기다려야 하면 기다리지 않고 실패시킴
+    private void checkWaitLimit(long startedAt, long waitMillis) {
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        if (waitedMillis + waitMillis > maxWaitMillis) {
+            throw new TradinException(BINANCE_RATE_LIMIT_EXCEEDED_EXCEPTION);
+        }
+    }
+
+    private void recordThrottled(BinanceEndpoint endpoint, long startedAt) {
+        long throttledNanos = System.nanoTime() - startedAt;
+        (endpoint.isOrder() ? orderThrottled : infoThrottled).record(throttledNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void rollWeightWindow(long now) {
+        long windowStart = now - now % WEIGHT_WINDOW_MILLIS;
+        if (windowStart != weightWindowStart) {
+            weightWindowStart = windowStart;
+            usedWeight = 0;
+        }
+    }
+
+    private OrderBudget orderBudget(String apiKey) {
+        return orderBudgets.get(apiKey, key -> new OrderBudget());
+    }
+
+    private static Timer throttledTimer(MeterRegistry meterRegistry, String type) {
+        return Timer.builder("binance.governor.throttled")
+                .description("Time requests waited for Binance rate limit budget")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    //governor의 lock 안에서만 접근함
+    private static class OrderBudget {
+        private long shortWindowStart;
+        private long longWindowStart;
+        private int shortCount;
+        private int longCount;
+
+        private void roll(long now) {
+            long shortStart = now - now % ORDER_SHORT_WINDOW_MILLIS;
+            if (shortStart != shortWindowStart) {
+                shortWindowStart = shortStart;
+                shortCount = 0;
+            }
+            long longStart = now - now % ORDER_LONG_WINDOW_MILLIS;
+            if (longStart != longWindowStart) {
+                longWindowStart = longStart;
+                longCount = 0;
+            }
+        }
+
+        private long tryAcquire(int orders, long now, int shortLimit, int longLimit) {
+            roll(now);
+            if (longCount + orders > longLimit) {
+                return longWindowStart + ORDER_LONG_WINDOW_MILLIS - now;
+            }
+            if (shortCount + orders > shortLimit) {
+                return shortWindowStart + ORDER_SHORT_WINDOW_MILLIS - now;
+            }
+            shortCount += orders;
+            longCount += orders;
+            return 0;
+        }
+    }
+}
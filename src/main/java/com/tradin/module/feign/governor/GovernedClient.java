@@ -0,0 +1,40 @@
+package com.tradin.module.feign.governor;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+//Feign 요청 전에 governor에서 사용량을 예약하고, 응답 헤더로 실제 사용량을 갱신함
+@RequiredArgsConstructor
+public class GovernedClient implements Client {
+    private static final String API_KEY_HEADER = "X-MBX-APIKEY";
+
+    private final Client delegate;
+    private final BinanceRequestGovernor governor;
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        BinanceEndpoint endpoint = BinanceEndpoint.of(request.url());
+        String apiKey = firstHeader(request.headers(), API_KEY_HEADER).orElse(null);
+
+        governor.acquire(endpoint, apiKey);
+        Response response = delegate.execute(request, options);
+        governor.record(apiKey, response.status(), name -> firstHeader(response.headers(), name));
+        return response;
+    }
+
+    private static Optional<String> firstHeader(Map<String, Collection<String>> headers, String name) {
+        for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name) && !header.getValue().isEmpty()) {
+                return Optional.of(header.getValue().iterator().next());
+            }
+        }
+        return Optional.empty();
+    }
+}
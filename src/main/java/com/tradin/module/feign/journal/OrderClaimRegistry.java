@@ -0,0 +1,51 @@
+package com.tradin.module.feign.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+//OrderJournal은 노드마다 있는 파일이라, 리밸런싱/재시도 토픽/DLT 재처리로 시그널이 다른 인스턴스로 넘어가면 그 인스턴스에는 기록이 없음
+//주문을 보내기 전에 client order id를 Redis에 먼저 선점해서, 다른 인스턴스(또는 이전 실행)가 맡았던 주문인지 모든 인스턴스가 알 수 있게 함
+@Slf4j
+@Component
+public class OrderClaimRegistry {
+    private static final String REDIS_KEY_PREFIX = "order:claim:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Duration retention;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public OrderClaimRegistry(RedisTemplate<String, Object> redisTemplate,
+                              @Value("${trade.order-journal.retention-hours:24}") long retentionHours) {
+        this.redisTemplate = redisTemplate;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    //처음 선점했거나 이 인스턴스가 이미 선점한 주문이면 true. 다른 쪽이 선점했거나 Redis가 안 되면 false라서 바이낸스에 조회해야 함
+    public boolean claim(String clientOrderId) {
+        String key = REDIS_KEY_PREFIX + clientOrderId;
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, instanceId, retention))) {
+                return true;
+            }
+            Object owner = redisTemplate.opsForValue().get(key);
+            return instanceId.equals(owner == null ? null : owner.toString());
+        } catch (RuntimeException e) {
+            log.warn("Redis unavailable for order claim, checking Binance - clientOrderId: {}, message: {}", clientOrderId, e.getMessage());
+            return false;
+        }
+    }
+
+    //바이낸스에 주문이 없는 걸 확인한 뒤 이 인스턴스가 넘겨받음
+    public void takeOver(String clientOrderId) {
+        try {
+            redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + clientOrderId, instanceId, retention);
+        } catch (RuntimeException e) {
+            log.warn("Failed to take over order claim - clientOrderId: {}, message: {}", clientOrderId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.tradin.module.feign.journal;
+
+import com.tradin.common.exception.TradinException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.tradin.common.exception.ExceptionMessage.ORDER_JOURNAL_WRITE_FAIL_EXCEPTION;
+
+//주문을 보내기 전에 남기는 append-only 로그(write-ahead). 기록은 writer 쓰레드 하나가 모아서 쓰고 fsync 한 번으로 같이 확정함(group commit)
+//재시작 시 파일을 다시 읽어서 client order id별 마지막 상태를 복원하고, 보관 기간이 지난 기록은 정리함
+//실행 중에도 writer 쓰레드가 1분마다 보관 기간이 지난 항목을 메모리에서 지움. 파일은 다음 재시작 때 정리됨
+//파일은 이 노드에만 있으므로, 다른 인스턴스와의 중복 주문은 OrderClaimRegistry가 막음
+@Slf4j
+@Component
+public class OrderJournal {
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final long EVICT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Path path;
+    private final Duration retention;
+    private final Map<String, OrderJournalEntry> entries = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final FileChannel channel;
+    private final Thread writer;
+    private volatile boolean running = true;
+    private long lastEvictedAt = System.currentTimeMillis();
+
+    public OrderJournal(@Value("${trade.order-journal.path:journal/orders.log}") String path,
+                        @Value("${trade.order-journal.retention-hours:24}") long retentionHours) {
+        this.path = Paths.get(path);
+        this.retention = Duration.ofHours(retentionHours);
+        try {
+            compact();
+            this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        this.writer = new Thread(this::writeLoop, "TRADIN-ORDER-JOURNAL");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public Optional<OrderJournalEntry> find(String clientOrderId) {
+        return Optional.ofNullable(entries.get(clientOrderId));
+    }
+
+    //반환된 future가 완료되면 디스크에 기록된 것. INTENT는 완료를 기다린 뒤에 주문을 보내야 함
+    public CompletableFuture<Void> append(OrderJournalEntry entry) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new TradinException(ORDER_JOURNAL_WRITE_FAIL_EXCEPTION));
+        }
+
+        entries.put(entry.getClientOrderId(), entry);
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        PendingAppend pending = new PendingAppend(entry, written);
+        queue.add(pending);
+
+        //close와 겹쳐서 writer가 이미 끝났으면 아무도 완료시키지 않으므로 직접 실패시킴. writer가 가져간 건 writer가 완료함
+        if (!running && queue.remove(pending)) {
+            pending.fail();
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        failPending();
+        channel.close();
+    }
+
+    //writer가 제시간에 끝나지 않았거나 중간에 멈췄으면 남은 기록은 쓰지 못한 것으로 끝냄
+    private void failPending() {
+        List<PendingAppend> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(PendingAppend::fail);
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                evictIfDue();
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingAppend> batch) {
+        StringBuilder lines = new StringBuilder(batch.size() * 128);
+        batch.forEach(pending -> lines.append(pending.entry.toLine()));
+
+        try {
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(lines.toString());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            batch.forEach(pending -> pending.written.complete(null));
+        } catch (IOException e) {
+            log.error("Order journal write failed - {}", e.getMessage(), e);
+            batch.forEach(PendingAppend::fail);
+        }
+    }
+
+    private void evictIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastEvictedAt >= EVICT_INTERVAL_MILLIS) {
+            evictExpired(now);
+            lastEvictedAt = now;
+        }
+    }
+
+    void evictExpired(long now) {
+        long retainedFrom = now - retention.toMillis();
+        entries.values().removeIf(entry -> entry.getRecordedAt() < retainedFrom);
+    }
+
+    //client order id별 마지막 상태만 남겨서 새 파일로 쓰고 원자적으로 교체함
+    private void compact() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        long retainedFrom = System.currentTimeMillis() - retention.toMillis();
+        Map<String, OrderJournalEntry> latest = new LinkedHashMap<>();
+        //잘린 마지막 줄에 깨진 UTF-8이 있을 수 있으므로 디코딩 에러 없이 읽음
+        new String(Files.readAllBytes(path), StandardCharsets.UTF_8).lines()
+                .map(OrderJournalEntry::parse)
+                .flatMap(Optional::stream)
+                .filter(entry -> entry.getRecordedAt() >= retainedFrom)
+                .forEach(entry -> latest.put(entry.getClientOrderId(), entry));
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (BufferedWriter out = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (OrderJournalEntry entry : latest.values()) {
+                out.write(entry.toLine());
+            }
+        }
+        try (FileChannel compactedChannel = FileChannel.open(compacted, StandardOpenOption.WRITE)) {
+            compactedChannel.force(true);
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        entries.putAll(latest);
+        log.info("Order journal loaded - entries: {}", latest.size());
+    }
+
+    private static class PendingAppend {
+        private final OrderJournalEntry entry;
+        private final CompletableFuture<Void> written;
+
+        private PendingAppend(OrderJournalEntry entry, CompletableFuture<Void> written) {
+            this.entry = entry;
+            this.written = written;
+        }
+
+        private void fail() {
+            written.completeExceptionally(new TradinException(ORDER_JOURNAL_WRITE_FAIL_EXCEPTION));
+        }
+    }
+}
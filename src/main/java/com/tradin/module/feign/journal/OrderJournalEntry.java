@@ -0,0 +1,66 @@
+package com.tradin.module.feign.journal;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Optional;
+
+//저널 파일의 한 줄. 탭으로 구분된 텍스트로 저장함
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class OrderJournalEntry {
+    private static final String SEPARATOR = "\t";
+    private static final int FIELD_COUNT = 9;
+
+    private final String clientOrderId;
+    private final OrderJournalState state;
+    private final String signalId;
+    private final Long userId;
+    private final OrderLeg leg;
+    private final String side;
+    private final String quantity;
+    private final Long orderId;
+    private final long recordedAt;
+
+    public static OrderJournalEntry intent(String clientOrderId, OrderOrigin origin, OrderLeg leg, String side, String quantity) {
+        return new OrderJournalEntry(clientOrderId, OrderJournalState.INTENT, origin.getSignalId(), origin.getUserId(),
+                leg, side, quantity, null, System.currentTimeMillis());
+    }
+
+    public OrderJournalEntry acked(Long orderId) {
+        return new OrderJournalEntry(clientOrderId, OrderJournalState.ACKED, signalId, userId, leg, side, quantity, orderId, System.currentTimeMillis());
+    }
+
+    public OrderJournalEntry rejected() {
+        return new OrderJournalEntry(clientOrderId, OrderJournalState.REJECTED, signalId, userId, leg, side, quantity, null, System.currentTimeMillis());
+    }
+
+    public boolean isAcked() {
+        return state == OrderJournalState.ACKED;
+    }
+
+    public boolean isInFlight() {
+        return state == OrderJournalState.INTENT;
+    }
+
+    public String toLine() {
+        return String.join(SEPARATOR, clientOrderId, state.name(), signalId, String.valueOf(userId), leg.name(), side, quantity,
+                orderId == null ? "" : String.valueOf(orderId), String.valueOf(recordedAt)) + "\n";
+    }
+
+    //비정상 종료로 잘린 마지막 줄 등은 버림
+    public static Optional<OrderJournalEntry> parse(String line) {
+        String[] fields = line.split(SEPARATOR, -1);
+        if (fields.length != FIELD_COUNT) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(new OrderJournalEntry(fields[0], OrderJournalState.valueOf(fields[1]), fields[2], Long.valueOf(fields[3]),
+                    OrderLeg.valueOf(fields[4]), fields[5], fields[6], fields[7].isEmpty() ? null : Long.valueOf(fields[7]), Long.parseLong(fields[8])));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.tradin.module.feign.journal;
+
+public enum OrderJournalState {
+    INTENT, //보내기 직전. 응답을 못 받았으면 체결 여부를 모르는 상태
+    ACKED, //바이낸스가 주문을 받음
+    REJECTED //바이낸스가 주문을 거절함. 같은 id로 다시 보내도 됨
+}
@@ -0,0 +1,10 @@
+package com.tradin.module.feign.journal;
+
+//하나의 시그널에서 유저별로 나갈 수 있는 주문 단계. client order id를 만들 때 구분자로 사용
+//진입 주문은 신규 진입이든 전환이든 OPEN 하나로 구분해서, 재처리 시 경로가 달라져도 같은 주문으로 인식되게 함
+public enum OrderLeg {
+    OPEN,
+    CLOSE,
+    SWITCH_CLOSE,
+    RECONCILE
+}
@@ -0,0 +1,22 @@
+package com.tradin.module.feign.journal;
+
+import com.tradin.common.generator.ClientOrderIdGenerator;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//주문을 만든 시그널과 유저. 재시도나 재시작 후에도 같은 주문에는 같은 client order id가 붙음
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class OrderOrigin {
+    private final String signalId;
+    private final Long userId;
+
+    public static OrderOrigin of(String signalId, Long userId) {
+        return new OrderOrigin(signalId, userId);
+    }
+
+    public String clientOrderId(OrderLeg leg) {
+        return ClientOrderIdGenerator.generate(signalId, userId, leg.name());
+    }
+}
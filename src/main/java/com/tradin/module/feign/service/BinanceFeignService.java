@@ -1,91 +1,504 @@
 package com.tradin.module.feign.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradin.common.exception.TradinException;
 import com.tradin.common.generator.SignatureGenerator;
+import com.tradin.common.secret.BinanceCredential;
+import com.tradin.module.feign.client.BinanceApiException;
+import com.tradin.module.feign.client.BinanceAsyncClient;
 import com.tradin.module.feign.client.BinanceClient;
+import com.tradin.module.feign.client.dto.binance.BatchOrderDto;
+import com.tradin.module.feign.client.dto.binance.BatchOrderResultDto;
 import com.tradin.module.feign.client.dto.binance.CurrentPositionInfoDto;
 import com.tradin.module.feign.client.dto.binance.FutureAccountBalanceDto;
-import lombok.RequiredArgsConstructor;
+import com.tradin.module.feign.client.dto.binance.NewOrderDto;
+import com.tradin.module.feign.journal.OrderClaimRegistry;
+import com.tradin.module.feign.journal.OrderJournal;
+import com.tradin.module.feign.journal.OrderJournalEntry;
+import com.tradin.module.feign.journal.OrderLeg;
+import com.tradin.module.feign.journal.OrderOrigin;
+import com.tradin.module.feign.stream.AccountStateCache;
+import com.tradin.module.feign.stream.BtcusdtPosition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.tradin.common.exception.ExceptionMessage.BATCH_ORDER_FAIL_EXCEPTION;
+import static com.tradin.common.utils.QuantityUtils.formatQuantity;
 
 @Service
-@Transactional
-@RequiredArgsConstructor
+@Slf4j
 public class BinanceFeignService {
 
     private final BinanceClient binanceFeignClient;
+    private final BinanceAsyncClient binanceAsyncClient;
+    private final AccountStateCache accountStateCache;
+    private final OrderJournal orderJournal;
+    private final OrderClaimRegistry orderClaimRegistry;
+    private final ObjectMapper objectMapper;
+    private final int maxOrderAttempts;
+    private final long orderRetryBackoffMillis;
+
+    public BinanceFeignService(BinanceClient binanceFeignClient, BinanceAsyncClient binanceAsyncClient, AccountStateCache accountStateCache,
+                               OrderJournal orderJournal, OrderClaimRegistry orderClaimRegistry, ObjectMapper objectMapper,
+                               @Value("${trade.order-journal.max-attempts:3}") int maxOrderAttempts,
+                               @Value("${trade.order-journal.retry-backoff-millis:200}") long orderRetryBackoffMillis) {
+        this.binanceFeignClient = binanceFeignClient;
+        this.binanceAsyncClient = binanceAsyncClient;
+        this.accountStateCache = accountStateCache;
+        this.orderJournal = orderJournal;
+        this.orderClaimRegistry = orderClaimRegistry;
+        this.objectMapper = objectMapper;
+        this.maxOrderAttempts = maxOrderAttempts;
+        this.orderRetryBackoffMillis = orderRetryBackoffMillis;
+    }
 
     //binance는 api 요청 보낼 때 queryString은 이름 기준으로 오름차순으로 정렬해야 됨. 요청을 보낼 때 파라미터 순서는 queryString과 동일해야 됨
-    public void openPosition(String apiKey, String secretKey, String side, int orderQuantity) {
+    public void closePosition(BinanceCredential credential, String side) {
         Long timestamp = Instant.now().toEpochMilli();
-        double quantity = Math.abs(getBtcusdtPositionQuantity(apiKey, secretKey)) + orderQuantity;
+        String quantity = formatQuantity(Math.abs(getBtcusdtPositionQuantity(credential)));
+
+        String signature = SignatureGenerator.query()
+                .param("quantity", quantity)
+                .param("side", side)
+                .param("symbol", "BTCUSDT")
+                .param("timestamp", timestamp)
+                .param("type", "MARKET")
+                .sign(credential);
+
+        binanceFeignClient.order(credential.getApiKey(), quantity, side, signature, "BTCUSDT", timestamp, "MARKET");
+    }
+
+    //유저 데이터 스트림이 연결되어 있으면 캐시 값을 쓰고, 아니면 REST로 조회함
+    public Double getBtcusdtPositionQuantity(BinanceCredential credential) {
+        OptionalDouble cached = accountStateCache.getBtcusdtPositionAmount(credential.getApiKey());
+        if (cached.isPresent()) {
+            return cached.getAsDouble();
+        }
 
-        String queryString = "quantity=" + quantity + "&side=" + side + "&symbol=BTCUSDT" + "&timestamp=" + timestamp + "&type=MARKET";
+        return seedBtcusdtPosition(credential);
+    }
 
-        String signature = SignatureGenerator.generateSignature(queryString, secretKey);
+    //스트림 이벤트로 이미 포지션을 받았어도 레버리지는 positionRisk에만 있으므로 연결 직후에는 항상 조회함
+    public Double seedBtcusdtPosition(BinanceCredential credential) {
+        List<CurrentPositionInfoDto> currentPositionInfoDtos = fetchCurrentPositionInfo(credential);
+        cacheBtcusdtPosition(credential.getApiKey(), currentPositionInfoDtos);
+        return extractBtcusdtPositionQuantity(currentPositionInfoDtos);
+    }
 
-        binanceFeignClient.order(apiKey, quantity, side, signature, "BTCUSDT", timestamp, "MARKET");
+    //캐시를 거치지 않고 항상 REST로 조회 (키 유효성 검사 등)
+    public Double fetchBtcusdtPositionQuantity(BinanceCredential credential) {
+        return extractBtcusdtPositionQuantity(fetchCurrentPositionInfo(credential));
     }
 
-    public void closePosition(String apiKey, String secretKey, String side) {
+    public int changeLeverage(BinanceCredential credential, int leverage) {
         Long timestamp = Instant.now().toEpochMilli();
-        double quantity = Math.abs(getBtcusdtPositionQuantity(apiKey, secretKey));
+        String signature = SignatureGenerator.query()
+                .param("leverage", leverage)
+                .param("symbol", "BTCUSDT")
+                .param("timestamp", timestamp)
+                .sign(credential);
 
-        String queryString =
-                "quantity=" + quantity + "&side=" + side + "&symbol=BTCUSDT" + "&timestamp=" + timestamp + "&type=MARKEY";
+        int changedLeverage = binanceFeignClient.changeLeverage(credential.getApiKey(), leverage, "BTCUSDT", timestamp, signature).getLeverage();
+        accountStateCache.updateLeverage(credential.getApiKey(), changedLeverage);
+        return changedLeverage;
+    }
 
-        String signature = SignatureGenerator.generateSignature(queryString, secretKey);
+    public int getFutureAccountBalance(BinanceCredential credential) {
+        OptionalDouble cached = accountStateCache.getAvailableBalance(credential.getApiKey());
+        if (cached.isPresent()) {
+            return (int) cached.getAsDouble();
+        }
 
-        binanceFeignClient.order(apiKey, quantity, side, signature, "BTCUSDT", timestamp, "MARKET");
+        return (int) cacheAvailableBalance(credential.getApiKey(), fetchFutureAccountBalances(credential));
     }
 
-    public Double getBtcusdtPositionQuantity(String apiKey, String secretKey) {
-        Long timestamp = Instant.now().toEpochMilli();
-        String queryString = "symbol=BTCUSDT" + "&timestamp=" + timestamp;
-        String signature = SignatureGenerator.generateSignature(queryString, secretKey);
+    //아래 *Async 메소드들은 BinanceAsyncClient로 요청을 보내고, 응답을 기다리는 동안 쓰레드를 점유하지 않음
+    //시그널 주문은 모두 저널을 거침. 같은 시그널이 다시 들어오거나 재시도되면 이미 나간 주문은 다시 보내지 않음
+    public CompletableFuture<Void> openPositionAsync(BinanceCredential credential, String side, int orderQuantity, OrderOrigin origin) {
+        return unlessPlaced(credential, origin, OrderLeg.OPEN, () -> getBtcusdtPositionQuantityAsync(credential)
+                .thenCompose(positionQuantity -> placeOrderAsync(credential, origin, OrderLeg.OPEN, side,
+                        formatQuantity(Math.abs(positionQuantity) + orderQuantity), 1)));
+    }
 
-        List<CurrentPositionInfoDto> currentPositionInfoDtos = binanceFeignClient.getCurrentPositionInfo("BTCUSDT", timestamp, apiKey, signature);
+    public CompletableFuture<Void> closePositionAsync(BinanceCredential credential, String side, OrderOrigin origin) {
+        return unlessPlaced(credential, origin, OrderLeg.CLOSE, () -> getBtcusdtPositionQuantityAsync(credential)
+                .thenCompose(positionQuantity -> placeOrderAsync(credential, origin, OrderLeg.CLOSE, side,
+                        formatQuantity(Math.abs(positionQuantity)), 1)));
+    }
 
-        return extractBtcusdtPositionQuantity(currentPositionInfoDtos);
+    //기존 포지션 청산(reduceOnly)과 반대 포지션 진입을 batchOrders 한 번으로 보냄
+    //진입 주문이 이미 나갔으면 포지션이 바뀐 뒤라 청산 수량을 다시 계산하면 안 되므로 전체를 건너뜀
+    public CompletableFuture<Void> switchPositionAsync(BinanceCredential credential, String side, int orderQuantity, OrderOrigin origin) {
+        return unlessPlaced(credential, origin, OrderLeg.OPEN, () -> getBtcusdtPositionQuantityAsync(credential).thenCompose(positionQuantity -> {
+            double closeQuantity = Math.abs(positionQuantity);
+            if (closeQuantity == 0) {
+                return placeOrderAsync(credential, origin, OrderLeg.OPEN, side, formatQuantity(orderQuantity), 1);
+            }
+            return placeSwitchOrdersAsync(credential, origin, side, formatQuantity(closeQuantity), orderQuantity, 1);
+        }));
+    }
+
+    public CompletableFuture<Double> getBtcusdtPositionQuantityAsync(BinanceCredential credential) {
+        OptionalDouble cached = accountStateCache.getBtcusdtPositionAmount(credential.getApiKey());
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.getAsDouble());
+        }
+
+        return fetchCurrentPositionInfoAsync(credential).thenApply(currentPositionInfoDtos -> {
+            cacheBtcusdtPosition(credential.getApiKey(), currentPositionInfoDtos);
+            return extractBtcusdtPositionQuantity(currentPositionInfoDtos);
+        });
+    }
+
+    public CompletableFuture<Double> fetchBtcusdtPositionQuantityAsync(BinanceCredential credential) {
+        return fetchCurrentPositionInfoAsync(credential).thenApply(this::extractBtcusdtPositionQuantity);
+    }
+
+    public CompletableFuture<Integer> getFutureAccountBalanceAsync(BinanceCredential credential) {
+        OptionalDouble cached = accountStateCache.getAvailableBalance(credential.getApiKey());
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture((int) cached.getAsDouble());
+        }
+
+        String signedQuery = SignatureGenerator.query()
+                .param("timestamp", Instant.now().toEpochMilli())
+                .toSignedQueryString(credential);
+
+        return binanceAsyncClient.getFutureAccountBalance(credential.getApiKey(), signedQuery)
+                .thenApply(balances -> (int) cacheAvailableBalance(credential.getApiKey(), balances));
+    }
+
+    //listenKey 관련 api는 서명 없이 api key 헤더만 필요함
+    public String createListenKey(String apiKey) {
+        return binanceFeignClient.createListenKey(apiKey).getListenKey();
+    }
+
+    public void keepAliveListenKey(String apiKey) {
+        binanceFeignClient.keepAliveListenKey(apiKey);
+    }
+
+    public void closeListenKey(String apiKey) {
+        binanceFeignClient.closeListenKey(apiKey);
     }
 
-    public int changeLeverage(String apiKey, String secretKey, int leverage) {
+    //INTENT를 디스크에 기록한 뒤에만 주문을 보냄. 응답을 못 받으면(타임아웃, 5xx) client order id로 조회해서 없을 때만 다시 보냄
+    private CompletableFuture<Void> placeOrderAsync(BinanceCredential credential, OrderOrigin origin, OrderLeg leg, String side, String quantity, int attempt) {
+        String clientOrderId = origin.clientOrderId(leg);
+
+        return resolvePlacedAsync(credential, clientOrderId).thenCompose(placed -> {
+            if (placed) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+
+            OrderJournalEntry intent = OrderJournalEntry.intent(clientOrderId, origin, leg, side, quantity);
+            return orderJournal.append(intent).thenCompose(ignored -> orderAsync(credential, side, quantity, clientOrderId)
+                    .thenCompose(order -> orderJournal.append(intent.acked(order.getOrderId())))
+                    .exceptionallyCompose(throwable -> {
+                        Throwable cause = unwrap(throwable);
+                        if (isRejected(cause)) {
+                            return orderJournal.append(intent.rejected()).thenCompose(written -> CompletableFuture.<Void>failedFuture(cause));
+                        }
+                        if (attempt < maxOrderAttempts) {
+                            log.warn("Order outcome unknown, retrying - clientOrderId: {}, attempt: {}", clientOrderId, attempt);
+                            return afterBackoff(() -> placeOrderAsync(credential, origin, leg, side, quantity, attempt + 1));
+                        }
+                        return CompletableFuture.<Void>failedFuture(cause);
+                    }));
+        });
+    }
+
+    private CompletableFuture<Void> placeSwitchOrdersAsync(BinanceCredential credential, OrderOrigin origin, String side,
+                                                           String closeQuantity, int orderQuantity, int attempt) {
+        String closeOrderId = origin.clientOrderId(OrderLeg.SWITCH_CLOSE);
+        String openOrderId = origin.clientOrderId(OrderLeg.OPEN);
+
+        return resolvePlacedAsync(credential, closeOrderId).thenCombine(resolvePlacedAsync(credential, openOrderId), (closePlaced, openPlaced) -> {
+            List<OrderJournalEntry> intents = new ArrayList<>(2);
+            if (!closePlaced) {
+                intents.add(OrderJournalEntry.intent(closeOrderId, origin, OrderLeg.SWITCH_CLOSE, side, closeQuantity));
+            }
+            if (!openPlaced) {
+                intents.add(OrderJournalEntry.intent(openOrderId, origin, OrderLeg.OPEN, side, formatQuantity(orderQuantity)));
+            }
+            return intents;
+        }).thenCompose(intents -> {
+            if (intents.isEmpty()) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+
+            return CompletableFuture.allOf(intents.stream().map(orderJournal::append).toArray(CompletableFuture[]::new))
+                    .thenCompose(ignored -> batchOrdersAsync(credential, toBatchOrders(intents))
+                            .exceptionallyCompose(throwable -> {
+                                //배치 요청 자체가 4xx로 거절되면 어느 주문도 나가지 않았으므로 INTENT를 모두 REJECTED로 끝냄
+                                Throwable cause = unwrap(throwable);
+                                if (isRejected(cause)) {
+                                    return appendRejected(intents).thenCompose(written -> CompletableFuture.<List<BatchOrderResultDto>>failedFuture(cause));
+                                }
+                                return CompletableFuture.failedFuture(cause);
+                            }))
+                    .thenCompose(results -> recordBatchResults(credential, origin, side, orderQuantity, intents, results))
+                    .exceptionallyCompose(throwable -> {
+                        Throwable cause = unwrap(throwable);
+                        if (isRejected(cause) || attempt >= maxOrderAttempts) {
+                            return CompletableFuture.<Void>failedFuture(cause);
+                        }
+                        log.warn("Batch order outcome unknown, retrying - signalId: {}, userId: {}, attempt: {}", origin.getSignalId(), origin.getUserId(), attempt);
+                        return afterBackoff(() -> placeSwitchOrdersAsync(credential, origin, side, closeQuantity, orderQuantity, attempt + 1));
+                    });
+        });
+    }
+
+    private CompletableFuture<Void> appendRejected(List<OrderJournalEntry> intents) {
+        return CompletableFuture.allOf(intents.stream()
+                .map(intent -> orderJournal.append(intent.rejected()))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    //batchOrders는 주문 간 처리 순서를 보장하지 않아서, 진입 주문이 먼저 체결되면 reduceOnly 청산이 거절될 수 있음
+    private CompletableFuture<Void> recordBatchResults(BinanceCredential credential, OrderOrigin origin, String side, int orderQuantity,
+                                                      List<OrderJournalEntry> intents, List<BatchOrderResultDto> results) {
+        List<CompletableFuture<Void>> writes = new ArrayList<>(intents.size());
+        boolean openRejected = false;
+        boolean closeRejected = false;
+
+        for (int i = 0; i < intents.size(); i++) {
+            OrderJournalEntry intent = intents.get(i);
+            BatchOrderResultDto result = results.get(i);
+            if (result.isSuccess()) {
+                writes.add(orderJournal.append(intent.acked(result.getOrderId())));
+                continue;
+            }
+
+            log.warn("Batch order leg failed - leg: {}, code: {}, msg: {}", intent.getLeg(), result.getCode(), result.getMsg());
+            writes.add(orderJournal.append(intent.rejected()));
+            openRejected |= intent.getLeg() == OrderLeg.OPEN;
+            closeRejected |= intent.getLeg() == OrderLeg.SWITCH_CLOSE;
+        }
+
+        boolean failed = openRejected;
+        boolean reconcile = closeRejected && !openRejected;
+        return CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).thenCompose(ignored -> {
+            if (failed) {
+                return CompletableFuture.<Void>failedFuture(new TradinException(BATCH_ORDER_FAIL_EXCEPTION));
+            }
+            return reconcile ? reconcilePositionAsync(credential, origin, side, orderQuantity) : CompletableFuture.<Void>completedFuture(null);
+        });
+    }
+
+    //실제 포지션을 REST로 다시 조회해서 목표 수량(진입 주문 수량)과의 차이만큼 보정 주문을 냄
+    private CompletableFuture<Void> reconcilePositionAsync(BinanceCredential credential, OrderOrigin origin, String side, int orderQuantity) {
+        return fetchBtcusdtPositionQuantityAsync(credential).thenCompose(currentQuantity -> {
+            double diff = reconcileQuantity(currentQuantity, side, orderQuantity);
+            if (diff == 0) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            return placeOrderAsync(credential, origin, OrderLeg.RECONCILE, diff < 0 ? "SELL" : "BUY", formatQuantity(Math.abs(diff)), 1);
+        });
+    }
+
+    //저널에 INTENT만 있으면 보냈는지 모르는 상태라 바이낸스에 client order id로 조회함
+    //로컬 기록이 없어도 다른 인스턴스나 이전 실행이 선점한 주문이면 이미 나갔을 수 있으므로 똑같이 조회함
+    private CompletableFuture<Boolean> resolvePlacedAsync(BinanceCredential credential, String clientOrderId) {
+        Optional<OrderJournalEntry> entry = orderJournal.find(clientOrderId);
+        if (entry.isEmpty()) {
+            if (orderClaimRegistry.claim(clientOrderId)) {
+                return CompletableFuture.completedFuture(false);
+            }
+            return queryPlacedAsync(credential, clientOrderId, order -> CompletableFuture.completedFuture(null))
+                    .thenApply(placed -> {
+                        if (!placed) {
+                            orderClaimRegistry.takeOver(clientOrderId);
+                        }
+                        return placed;
+                    });
+        }
+        if (!entry.get().isInFlight()) {
+            return CompletableFuture.completedFuture(entry.get().isAcked());
+        }
+
+        return queryPlacedAsync(credential, clientOrderId, order -> orderJournal.append(entry.get().acked(order.getOrderId())));
+    }
+
+    private CompletableFuture<Boolean> queryPlacedAsync(BinanceCredential credential, String clientOrderId,
+                                                        Function<NewOrderDto, CompletableFuture<Void>> onPlaced) {
+        return queryOrderAsync(credential, clientOrderId)
+                .thenCompose(order -> onPlaced.apply(order).thenApply(ignored -> true))
+                .exceptionallyCompose(throwable -> {
+                    Throwable cause = unwrap(throwable);
+                    if (cause instanceof BinanceApiException && ((BinanceApiException) cause).isOrderNotExist()) {
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    return CompletableFuture.<Boolean>failedFuture(cause);
+                });
+    }
+
+    //이 시그널의 마지막 단계 주문이 이미 나갔으면 수량 계산부터 건너뜀
+    private CompletableFuture<Void> unlessPlaced(BinanceCredential credential, OrderOrigin origin, OrderLeg leg, Supplier<CompletableFuture<Void>> order) {
+        return resolvePlacedAsync(credential, origin.clientOrderId(leg))
+                .thenCompose(placed -> placed ? CompletableFuture.<Void>completedFuture(null) : order.get());
+    }
+
+    private CompletableFuture<NewOrderDto> orderAsync(BinanceCredential credential, String side, String quantity, String clientOrderId) {
+        String signedQuery = SignatureGenerator.query()
+                .param("newClientOrderId", clientOrderId)
+                .param("quantity", quantity)
+                .param("side", side)
+                .param("symbol", "BTCUSDT")
+                .param("timestamp", Instant.now().toEpochMilli())
+                .param("type", "MARKET")
+                .toSignedQueryString(credential);
+
+        return binanceAsyncClient.order(credential.getApiKey(), signedQuery);
+    }
+
+    private CompletableFuture<NewOrderDto> queryOrderAsync(BinanceCredential credential, String clientOrderId) {
+        String signedQuery = SignatureGenerator.query()
+                .param("origClientOrderId", clientOrderId)
+                .param("symbol", "BTCUSDT")
+                .param("timestamp", Instant.now().toEpochMilli())
+                .toSignedQueryString(credential);
+
+        return binanceAsyncClient.queryOrder(credential.getApiKey(), signedQuery);
+    }
+
+    //batchOrders는 JSON 배열을 url 인코딩한 값으로 서명해야 함
+    private CompletableFuture<List<BatchOrderResultDto>> batchOrdersAsync(BinanceCredential credential, List<BatchOrderDto> orders) {
+        String signedBody = SignatureGenerator.query()
+                .param("batchOrders", URLEncoder.encode(toJson(orders), StandardCharsets.UTF_8))
+                .param("timestamp", Instant.now().toEpochMilli())
+                .toSignedQueryString(credential);
+
+        return binanceAsyncClient.batchOrders(credential.getApiKey(), signedBody);
+    }
+
+    private static List<BatchOrderDto> toBatchOrders(List<OrderJournalEntry> intents) {
+        List<BatchOrderDto> orders = new ArrayList<>(intents.size());
+        for (OrderJournalEntry intent : intents) {
+            orders.add(intent.getLeg() == OrderLeg.SWITCH_CLOSE
+                    ? BatchOrderDto.reduceOnlyMarket("BTCUSDT", intent.getSide(), intent.getQuantity(), intent.getClientOrderId())
+                    : BatchOrderDto.market("BTCUSDT", intent.getSide(), intent.getQuantity(), intent.getClientOrderId()));
+        }
+        return orders;
+    }
+
+    private <T> CompletableFuture<T> afterBackoff(Supplier<CompletableFuture<T>> retry) {
+        return CompletableFuture.supplyAsync(retry, CompletableFuture.delayedExecutor(orderRetryBackoffMillis, TimeUnit.MILLISECONDS))
+                .thenCompose(future -> future);
+    }
+
+    private static boolean isRejected(Throwable cause) {
+        return cause instanceof BinanceApiException && ((BinanceApiException) cause).isRejected();
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    //BTCUSDT 수량 단위(0.001)로 반올림한 목표 수량과 현재 수량의 차이
+    private static double reconcileQuantity(Double currentQuantity, String side, int orderQuantity) {
+        double targetQuantity = side.equals("SELL") ? -orderQuantity : orderQuantity;
+        return Math.round((targetQuantity - (currentQuantity == null ? 0 : currentQuantity)) * 1000) / 1000.0;
+    }
+
+    private String toJson(List<BatchOrderDto> orders) {
+        try {
+            return objectMapper.writeValueAsString(orders);
+        } catch (JsonProcessingException e) {
+            throw new TradinException(BATCH_ORDER_FAIL_EXCEPTION);
+        }
+    }
+
+    private List<CurrentPositionInfoDto> fetchCurrentPositionInfo(BinanceCredential credential) {
         Long timestamp = Instant.now().toEpochMilli();
-        String queryString = "leverage=" + leverage + "&symbol=BTCUSDT" + "&timestamp=" + timestamp + "&type=MARKEY";
-        String signature = SignatureGenerator.generateSignature(queryString, secretKey);
+        String signature = SignatureGenerator.query()
+                .param("symbol", "BTCUSDT")
+                .param("timestamp", timestamp)
+                .sign(credential);
+
+        return binanceFeignClient.getCurrentPositionInfo("BTCUSDT", timestamp, credential.getApiKey(), signature);
+    }
+
+    private CompletableFuture<List<CurrentPositionInfoDto>> fetchCurrentPositionInfoAsync(BinanceCredential credential) {
+        String signedQuery = SignatureGenerator.query()
+                .param("symbol", "BTCUSDT")
+                .param("timestamp", Instant.now().toEpochMilli())
+                .toSignedQueryString(credential);
 
-        return binanceFeignClient.changeLeverage(apiKey, leverage, "BTCUSDT", timestamp, signature).getLeverage();
+        return binanceAsyncClient.getCurrentPositionInfo(credential.getApiKey(), signedQuery);
     }
 
-    public int getFutureAccountBalance(String apiKey, String secretKey) {
+    private List<FutureAccountBalanceDto> fetchFutureAccountBalances(BinanceCredential credential) {
         Long timestamp = Instant.now().toEpochMilli();
-        String queryString = "timestamp=" + timestamp;
-        String signature = SignatureGenerator.generateSignature(queryString, secretKey);
+        String signature = SignatureGenerator.query()
+                .param("timestamp", timestamp)
+                .sign(credential);
 
-        List<FutureAccountBalanceDto> futureAccountBalanceDtos = binanceFeignClient.getFutureAccountBalance(apiKey, timestamp, signature);
+        return binanceFeignClient.getFutureAccountBalance(credential.getApiKey(), timestamp, signature);
+    }
 
-        return extractUsdtBalance(futureAccountBalanceDtos);
+    //availableBalance는 소수점 문자열("1000.12345678")로 내려옴
+    //스트림 이벤트로 사용 가능 잔고를 옮기려면 같은 응답의 crossWalletBalance, crossUnPnl을 기준으로 같이 둬야 함
+    private double cacheAvailableBalance(String apiKey, List<FutureAccountBalanceDto> futureAccountBalanceDtos) {
+        FutureAccountBalanceDto usdt = findUsdtBalance(futureAccountBalanceDtos);
+        if (usdt == null) {
+            return 0;
+        }
+
+        double availableBalance = Double.parseDouble(usdt.getAvailableBalance());
+        if (accountStateCache.isTracked(apiKey)) {
+            accountStateCache.seedAvailableBalance(apiKey, availableBalance,
+                    Double.parseDouble(usdt.getCrossWalletBalance()), Double.parseDouble(usdt.getCrossUnPnl()));
+        }
+        return availableBalance;
+    }
+
+    private void cacheBtcusdtPosition(String apiKey, List<CurrentPositionInfoDto> currentPositionInfoDtos) {
+        CurrentPositionInfoDto dto = findBtcusdtPosition(currentPositionInfoDtos);
+        if (dto == null || !accountStateCache.isTracked(apiKey)) {
+            return;
+        }
+
+        BtcusdtPosition position = BtcusdtPosition.of(Double.parseDouble(dto.getPositionAmt()), Double.parseDouble(dto.getEntryPrice()),
+                Double.parseDouble(dto.getUnRealizedProfit()), "isolated".equalsIgnoreCase(dto.getMarginType()));
+        accountStateCache.seedBtcusdtPosition(apiKey, position, dto.getLeverage() == null ? null : Integer.valueOf(dto.getLeverage()));
     }
 
     private Double extractBtcusdtPositionQuantity(List<CurrentPositionInfoDto> currentPositionInfoDtos) {
+        CurrentPositionInfoDto dto = findBtcusdtPosition(currentPositionInfoDtos);
+        return dto == null ? null : Double.parseDouble(dto.getPositionAmt());
+    }
+
+    private CurrentPositionInfoDto findBtcusdtPosition(List<CurrentPositionInfoDto> currentPositionInfoDtos) {
         for (CurrentPositionInfoDto dto : currentPositionInfoDtos) {
             if (dto.getSymbol().equals("BTCUSDT")) {
-                return Double.parseDouble(dto.getPositionAmt());
+                return dto;
             }
         }
         return null;
     }
 
-    private int extractUsdtBalance(List<FutureAccountBalanceDto> futureAccountBalanceDtos) {
+    private FutureAccountBalanceDto findUsdtBalance(List<FutureAccountBalanceDto> futureAccountBalanceDtos) {
         for (FutureAccountBalanceDto dto : futureAccountBalanceDtos) {
             if (dto.getAsset().equals("USDT")) {
-                return Integer.parseInt(dto.getAvailableBalance());
+                return dto;
             }
         }
-        return 0;
+        return null;
     }
 
 }
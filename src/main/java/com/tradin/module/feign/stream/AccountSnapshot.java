@@ -0,0 +1,99 @@
+package com.tradin.module.feign.stream;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Objects;
+
+//아직 스트림/REST로 받은 적 없는 값은 null
+//사용 가능 잔고는 REST availableBalance를 기준으로 두고, 스트림 이벤트마다 cw 변화량과 교차 마진 포지션 몫(미실현 손익 - 증거금)의 변화량만큼 옮김
+//변화량을 구할 수 없으면(기준 값이나 레버리지를 모름) 비워서 다음 주문 때 REST로 다시 채움
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class AccountSnapshot {
+    private final Double availableBalance;
+    private final Double crossWalletBalance;
+    private final BtcusdtPosition btcusdtPosition;
+    private final Integer leverage;
+    //교차 마진 포지션의 미실현 손익을 마지막으로 확인한 시각
+    private final long observedAt;
+
+    public static AccountSnapshot empty() {
+        return new AccountSnapshot(null, null, null, null, 0);
+    }
+
+    //REST /balance 응답 하나에서 availableBalance, crossWalletBalance, crossUnPnl을 같이 받아 기준으로 삼음
+    public AccountSnapshot withAvailableBalance(double availableBalance, double crossWalletBalance, double crossUnrealizedProfit, long now) {
+        BtcusdtPosition position = btcusdtPosition != null && btcusdtPosition.isOpenCross()
+                ? btcusdtPosition.withUnrealizedProfit(crossUnrealizedProfit)
+                : btcusdtPosition;
+        return new AccountSnapshot(availableBalance, crossWalletBalance, position, this.leverage, now);
+    }
+
+    //B, P에는 바뀐 항목만 내려오므로 없는 값은 그대로 둠
+    public AccountSnapshot withAccountUpdate(Double crossWalletBalance, BtcusdtPosition position, long now) {
+        Double nextCrossWalletBalance = crossWalletBalance == null ? this.crossWalletBalance : crossWalletBalance;
+        BtcusdtPosition nextPosition = position == null ? this.btcusdtPosition : position;
+        Double nextAvailableBalance = adjust(this.availableBalance,
+                difference(this.crossWalletBalance, nextCrossWalletBalance),
+                equityDifference(this.btcusdtPosition, this.leverage, nextPosition, this.leverage));
+        return new AccountSnapshot(nextAvailableBalance, nextCrossWalletBalance, nextPosition, this.leverage,
+                position == null ? this.observedAt : now);
+    }
+
+    //레버리지를 바꾸면 교차 마진 포지션의 증거금이 바뀜
+    public AccountSnapshot withLeverage(int leverage) {
+        Double nextAvailableBalance = adjust(this.availableBalance, 0.0,
+                equityDifference(this.btcusdtPosition, this.leverage, this.btcusdtPosition, leverage));
+        return new AccountSnapshot(nextAvailableBalance, this.crossWalletBalance, this.btcusdtPosition, leverage, this.observedAt);
+    }
+
+    //REST positionRisk 응답은 스트림 이벤트보다 오래된 값일 수 있으므로 비어있는 값만 채움
+    public AccountSnapshot seedBtcusdtPosition(BtcusdtPosition position, Integer leverage) {
+        return new AccountSnapshot(this.availableBalance, this.crossWalletBalance,
+                this.btcusdtPosition == null ? position : this.btcusdtPosition,
+                this.leverage == null ? leverage : this.leverage, this.observedAt);
+    }
+
+    //교차 마진 포지션이 열려 있으면 가격이 움직이는 동안 이벤트 없이 미실현 손익이 바뀌므로 maxAge 안에 확인한 값만 씀
+    public boolean hasFreshAvailableBalance(long now, long maxAgeMillis) {
+        if (availableBalance == null) {
+            return false;
+        }
+        boolean settled = btcusdtPosition != null && !btcusdtPosition.isOpenCross();
+        return settled || now - observedAt <= maxAgeMillis;
+    }
+
+    private static Double adjust(Double availableBalance, Double walletDifference, Double equityDifference) {
+        if (availableBalance == null || walletDifference == null || equityDifference == null) {
+            return null;
+        }
+        return availableBalance + walletDifference + equityDifference;
+    }
+
+    private static Double difference(Double before, Double after) {
+        if (Objects.equals(before, after)) {
+            return 0.0;
+        }
+        if (before == null || after == null) {
+            return null;
+        }
+        return after - before;
+    }
+
+    private static Double equityDifference(BtcusdtPosition before, Integer beforeLeverage, BtcusdtPosition after, Integer afterLeverage) {
+        if (before == after && Objects.equals(beforeLeverage, afterLeverage)) {
+            return 0.0;
+        }
+        if (before == null || after == null) {
+            return null;
+        }
+        Double beforeEquity = before.crossEquity(beforeLeverage);
+        Double afterEquity = after.crossEquity(afterLeverage);
+        if (beforeEquity == null || afterEquity == null) {
+            return null;
+        }
+        return afterEquity - beforeEquity;
+    }
+}
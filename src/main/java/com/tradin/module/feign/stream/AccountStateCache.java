@@ -0,0 +1,84 @@
+package com.tradin.module.feign.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentHashMap;
+
+//유저 데이터 스트림이 연결된 계정(api key)만 추적함. 연결이 끊기면 항목을 지워서 REST로 fallback 되도록 함
+//account.available.balance{source=stream|rest}로 사용 가능 잔고를 읽을 때 REST까지 간 비율을 /actuator/prometheus에서 확인
+@Component
+public class AccountStateCache {
+    private final Map<String, AccountSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final long balanceMaxAgeMillis;
+    private final Counter streamHits;
+    private final Counter restFallbacks;
+
+    public AccountStateCache(MeterRegistry meterRegistry,
+                             @Value("${binance.user-data-stream.cross-balance-max-age-seconds:300}") long balanceMaxAgeSeconds) {
+        this.balanceMaxAgeMillis = balanceMaxAgeSeconds * 1000;
+        this.streamHits = balanceCounter(meterRegistry, "stream");
+        this.restFallbacks = balanceCounter(meterRegistry, "rest");
+    }
+
+    public void track(String apiKey) {
+        snapshots.putIfAbsent(apiKey, AccountSnapshot.empty());
+    }
+
+    public void untrack(String apiKey) {
+        snapshots.remove(apiKey);
+    }
+
+    public boolean isTracked(String apiKey) {
+        return snapshots.containsKey(apiKey);
+    }
+
+    public void applyAccountUpdate(String apiKey, Double crossWalletBalance, BtcusdtPosition position) {
+        long now = System.currentTimeMillis();
+        snapshots.computeIfPresent(apiKey, (key, snapshot) -> snapshot.withAccountUpdate(crossWalletBalance, position, now));
+    }
+
+    public void updateLeverage(String apiKey, int leverage) {
+        snapshots.computeIfPresent(apiKey, (key, snapshot) -> snapshot.withLeverage(leverage));
+    }
+
+    //REST 응답은 스트림 이벤트보다 오래된 값일 수 있으므로 비어있을 때만 채움
+    public void seedAvailableBalance(String apiKey, double availableBalance, double crossWalletBalance, double crossUnrealizedProfit) {
+        long now = System.currentTimeMillis();
+        snapshots.computeIfPresent(apiKey, (key, snapshot) -> snapshot.hasFreshAvailableBalance(now, balanceMaxAgeMillis)
+                ? snapshot
+                : snapshot.withAvailableBalance(availableBalance, crossWalletBalance, crossUnrealizedProfit, now));
+    }
+
+    public void seedBtcusdtPosition(String apiKey, BtcusdtPosition position, Integer leverage) {
+        snapshots.computeIfPresent(apiKey, (key, snapshot) -> snapshot.seedBtcusdtPosition(position, leverage));
+    }
+
+    public OptionalDouble getAvailableBalance(String apiKey) {
+        AccountSnapshot snapshot = snapshots.get(apiKey);
+        if (snapshot == null || !snapshot.hasFreshAvailableBalance(System.currentTimeMillis(), balanceMaxAgeMillis)) {
+            restFallbacks.increment();
+            return OptionalDouble.empty();
+        }
+        streamHits.increment();
+        return OptionalDouble.of(snapshot.getAvailableBalance());
+    }
+
+    public OptionalDouble getBtcusdtPositionAmount(String apiKey) {
+        AccountSnapshot snapshot = snapshots.get(apiKey);
+        return snapshot == null || snapshot.getBtcusdtPosition() == null
+                ? OptionalDouble.empty()
+                : OptionalDouble.of(snapshot.getBtcusdtPosition().getAmount());
+    }
+
+    private static Counter balanceCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("account.available.balance")
+                .description("Available balance lookups by where the value came from")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,44 @@
+package com.tradin.module.feign.stream;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//BTCUSDT 단방향(BOTH) 포지션. 스트림 P 항목(pa, ep, up, mt) 또는 REST positionRisk로 채움
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class BtcusdtPosition {
+    private final double amount;
+    private final double entryPrice;
+    private final double unrealizedProfit;
+    private final boolean isolated;
+
+    public static BtcusdtPosition of(double amount, double entryPrice, double unrealizedProfit, boolean isolated) {
+        return new BtcusdtPosition(amount, entryPrice, unrealizedProfit, isolated);
+    }
+
+    public BtcusdtPosition withUnrealizedProfit(double unrealizedProfit) {
+        return new BtcusdtPosition(this.amount, this.entryPrice, unrealizedProfit, this.isolated);
+    }
+
+    public boolean isOpen() {
+        return amount != 0;
+    }
+
+    //교차 마진 포지션은 미실현 손익이 가격에 따라 움직이므로 이벤트 없이도 사용 가능 잔고가 바뀜
+    public boolean isOpenCross() {
+        return isOpen() && !isolated;
+    }
+
+    //사용 가능 잔고 중 이 포지션 몫. 교차 마진이면 미실현 손익 - 개시 증거금(수량 x 진입가 / 레버리지)
+    //격리 마진은 증거금이 cw에서 이미 빠져 나가 있으므로 0. 교차 마진 포지션이 열려 있는데 레버리지를 모르면 null
+    public Double crossEquity(Integer leverage) {
+        if (!isOpenCross()) {
+            return 0.0;
+        }
+        if (leverage == null) {
+            return null;
+        }
+        return unrealizedProfit - Math.abs(amount) * entryPrice / leverage;
+    }
+}
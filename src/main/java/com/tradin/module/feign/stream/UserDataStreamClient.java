@@ -0,0 +1,146 @@
+package com.tradin.module.feign.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+//listenKey 하나에 대한 유저 데이터 스트림 연결. ACCOUNT_UPDATE, ACCOUNT_CONFIG_UPDATE 이벤트로 AccountStateCache를 갱신함
+@Slf4j
+public class UserDataStreamClient implements WebSocket.Listener {
+    private static final String ACCOUNT_UPDATE = "ACCOUNT_UPDATE";
+    private static final String ACCOUNT_CONFIG_UPDATE = "ACCOUNT_CONFIG_UPDATE";
+    private static final String LISTEN_KEY_EXPIRED = "listenKeyExpired";
+
+    @Getter
+    private final String apiKey;
+    private final AccountStateCache accountStateCache;
+    private final ObjectMapper objectMapper;
+    private final Consumer<UserDataStreamClient> onDisconnected;
+    private final AtomicBoolean disconnected = new AtomicBoolean(false);
+    private final StringBuilder message = new StringBuilder();
+    private volatile WebSocket webSocket;
+
+    private UserDataStreamClient(String apiKey, AccountStateCache accountStateCache, ObjectMapper objectMapper, Consumer<UserDataStreamClient> onDisconnected) {
+        this.apiKey = apiKey;
+        this.accountStateCache = accountStateCache;
+        this.objectMapper = objectMapper;
+        this.onDisconnected = onDisconnected;
+    }
+
+    public static CompletableFuture<UserDataStreamClient> connect(HttpClient httpClient, URI uri, String apiKey, AccountStateCache accountStateCache,
+                                                                  ObjectMapper objectMapper, Consumer<UserDataStreamClient> onDisconnected) {
+        UserDataStreamClient client = new UserDataStreamClient(apiKey, accountStateCache, objectMapper, onDisconnected);
+        return httpClient.newWebSocketBuilder()
+                .buildAsync(uri, client)
+                .thenApply(webSocket -> client);
+    }
+
+    public void close() {
+        disconnected.set(true);
+        accountStateCache.untrack(apiKey);
+        WebSocket current = webSocket;
+        if (current != null) {
+            current.sendClose(WebSocket.NORMAL_CLOSURE, "")
+                    .whenComplete((ws, e) -> current.abort());
+        }
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        this.webSocket = webSocket;
+        accountStateCache.track(apiKey);
+        webSocket.request(1);
+    }
+
+    //한 메시지가 여러 프레임으로 나뉘어 올 수 있으므로 last일 때만 처리
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        message.append(data);
+        if (last) {
+            handle(message.toString());
+            message.setLength(0);
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        log.info("User data stream closed - status: {}, reason: {}", statusCode, reason);
+        disconnect();
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        log.warn("User data stream error - {}", error.getMessage());
+        disconnect();
+    }
+
+    void handle(String text) {
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            log.warn("Malformed user data stream event - {}", e.getOriginalMessage());
+            return;
+        }
+
+        switch (event.path("e").asText()) {
+            case ACCOUNT_UPDATE -> applyAccountUpdate(event.path("a"));
+            case ACCOUNT_CONFIG_UPDATE -> applyAccountConfigUpdate(event.path("ac"));
+            case LISTEN_KEY_EXPIRED -> {
+                //만료된 listenKey로는 더 이상 이벤트가 오지 않으므로 끊고 재연결하게 함
+                webSocket.abort();
+                disconnect();
+            }
+            default -> {
+            }
+        }
+    }
+
+    //B: 잔고 변경 목록, P: 포지션 변경 목록 (변경된 항목만 내려옴)
+    //B의 cw(cross wallet balance)는 증거금으로 잡힌 금액을 빼지 않은 값이라 그대로 주문 수량 계산에 쓰면 안 되고, 사용 가능 잔고를 옮기는 데만 씀
+    private void applyAccountUpdate(JsonNode update) {
+        Double crossWalletBalance = null;
+        for (JsonNode balance : update.path("B")) {
+            if (balance.path("a").asText().equals("USDT")) {
+                crossWalletBalance = balance.path("cw").asDouble();
+            }
+        }
+
+        BtcusdtPosition btcusdtPosition = null;
+        for (JsonNode position : update.path("P")) {
+            if (position.path("s").asText().equals("BTCUSDT") && position.path("ps").asText("BOTH").equals("BOTH")) {
+                btcusdtPosition = BtcusdtPosition.of(position.path("pa").asDouble(), position.path("ep").asDouble(),
+                        position.path("up").asDouble(), position.path("mt").asText().equals("isolated"));
+            }
+        }
+
+        accountStateCache.applyAccountUpdate(apiKey, crossWalletBalance, btcusdtPosition);
+    }
+
+    //ac: 레버리지가 바뀐 심볼(s)과 새 레버리지(l)
+    private void applyAccountConfigUpdate(JsonNode config) {
+        if (config.path("s").asText().equals("BTCUSDT") && config.has("l")) {
+            accountStateCache.updateLeverage(apiKey, config.path("l").asInt());
+        }
+    }
+
+    private void disconnect() {
+        if (disconnected.compareAndSet(false, true)) {
+            accountStateCache.untrack(apiKey);
+            onDisconnected.accept(this);
+        }
+    }
+}
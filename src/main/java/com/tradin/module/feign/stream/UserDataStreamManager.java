@@ -0,0 +1,219 @@
+package com.tradin.module.feign.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradin.common.secret.BinanceCredential;
+import com.tradin.common.secret.CredentialVault;
+import com.tradin.module.feign.service.BinanceFeignService;
+import com.tradin.module.users.domain.Users;
+import com.tradin.module.users.service.UsersService;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//구독자별 유저 데이터 스트림을 열고 유지함. listenKey는 60분 뒤 만료되므로 30분마다 연장함
+//볼트의 크리덴셜은 TTL이 지나면 지워지므로 들고 있지 않고, 재연결할 때마다 유저 id와 암호화된 키로 볼트에서 다시 꺼냄
+@Slf4j
+@Component
+public class UserDataStreamManager {
+    private static final long KEEP_ALIVE_MINUTES = 30;
+    private static final long RECONNECT_DELAY_SECONDS = 5;
+
+    private final BinanceFeignService binanceFeignService;
+    private final AccountStateCache accountStateCache;
+    private final UsersService usersService;
+    private final CredentialVault credentialVault;
+    private final ObjectMapper objectMapper;
+    private final String streamUrl;
+    private final boolean enabled;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "TRADIN-USER-STREAM");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, UserDataStreamClient> streams = new ConcurrentHashMap<>();
+
+    public UserDataStreamManager(BinanceFeignService binanceFeignService, AccountStateCache accountStateCache, UsersService usersService,
+                                 CredentialVault credentialVault, ObjectMapper objectMapper,
+                                 @Value("${binance.stream-url:wss://stream.binancefuture.com/ws/}") String streamUrl,
+                                 @Value("${binance.user-data-stream.enabled:false}") boolean enabled) {
+        this.binanceFeignService = binanceFeignService;
+        this.accountStateCache = accountStateCache;
+        this.usersService = usersService;
+        this.credentialVault = credentialVault;
+        this.objectMapper = objectMapper;
+        this.streamUrl = streamUrl;
+        this.enabled = enabled;
+        this.scheduler.scheduleWithFixedDelay(this::keepAliveAll, KEEP_ALIVE_MINUTES, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void openAll() {
+        if (!enabled) {
+            return;
+        }
+
+        for (Users user : usersService.findAllAutoTradingSubscribers()) {
+            try {
+                open(user);
+            } catch (RuntimeException e) {
+                log.warn("Failed to open user data stream - userId: {}, reason: {}", user.getId(), e.getMessage());
+            }
+        }
+    }
+
+    //구독 트랜잭션 안에서 불리면 커밋된 뒤에 열고, 롤백되면 열지 않음. listenKey 발급은 스트림 쓰레드에서 해서 요청 쓰레드를 잡지 않음
+    public void open(Users user) {
+        if (!enabled) {
+            return;
+        }
+
+        afterCommit(() -> {
+            String apiKey = credentialVault.get(user.getId(), user.getBinanceApiKey(), user.getBinanceSecretKey()).getApiKey();
+            Subscriber subscriber = new Subscriber(user.getId(), apiKey, user.getBinanceApiKey(), user.getBinanceSecretKey());
+            if (subscribers.putIfAbsent(apiKey, subscriber) == null) {
+                scheduler.execute(() -> connect(subscriber));
+            }
+        });
+    }
+
+    //스트림을 쓰지 않으면 키를 복호화하지 않음. 커밋 전에 키가 바뀔 수 있으므로 지금 키로 찾아 두고 커밋된 뒤에 닫음
+    public void close(Users user) {
+        if (!enabled) {
+            return;
+        }
+
+        String apiKey = credentialVault.get(user.getId(), user.getBinanceApiKey(), user.getBinanceSecretKey()).getApiKey();
+        afterCommit(() -> close(apiKey));
+    }
+
+    //listenKey 해제도 스트림 쓰레드에서 함. 같은 키로 다시 구독하면 해제가 새 listenKey 발급보다 먼저 실행됨
+    private void close(String apiKey) {
+        if (subscribers.remove(apiKey) == null) {
+            return;
+        }
+
+        UserDataStreamClient stream = streams.remove(apiKey);
+        if (stream != null) {
+            stream.close();
+        }
+        scheduler.execute(() -> {
+            try {
+                binanceFeignService.closeListenKey(apiKey);
+            } catch (RuntimeException e) {
+                log.warn("Failed to close listenKey - {}", e.getMessage());
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        streams.values().forEach(UserDataStreamClient::close);
+        streams.clear();
+    }
+
+    //구독을 끊었거나 다시 구독해서 다른 Subscriber로 바뀌었으면 연결하지 않음
+    private void connect(Subscriber subscriber) {
+        String apiKey = subscriber.getApiKey();
+        if (subscribers.get(apiKey) != subscriber) {
+            return;
+        }
+
+        try {
+            String listenKey = binanceFeignService.createListenKey(apiKey);
+            UserDataStreamClient.connect(httpClient, URI.create(streamUrl + listenKey), apiKey, accountStateCache, objectMapper,
+                            stream -> onDisconnected(stream, subscriber))
+                    .whenComplete((stream, e) -> {
+                        if (e != null) {
+                            log.warn("Failed to connect user data stream - {}", e.getMessage());
+                            scheduleReconnect(subscriber);
+                            return;
+                        }
+                        streams.put(apiKey, stream);
+                        seed(subscriber);
+                    });
+        } catch (RuntimeException e) {
+            log.warn("Failed to create listenKey - {}", e.getMessage());
+            scheduleReconnect(subscriber);
+        }
+    }
+
+    //연결 직후 이벤트가 오기 전까지의 값은 REST 스냅샷으로 채움. 실패해도 주문 시점에 REST fallback 됨
+    //잔고의 기준이 되는 포지션과 레버리지를 먼저 채운 뒤 잔고를 채움
+    private void seed(Subscriber subscriber) {
+        try {
+            BinanceCredential credential = getCredential(subscriber);
+            binanceFeignService.seedBtcusdtPosition(credential);
+            binanceFeignService.getFutureAccountBalance(credential);
+        } catch (RuntimeException e) {
+            log.warn("Failed to seed account snapshot - userId: {}, reason: {}", subscriber.getUserId(), e.getMessage());
+        }
+    }
+
+    private void onDisconnected(UserDataStreamClient stream, Subscriber subscriber) {
+        if (streams.remove(stream.getApiKey(), stream)) {
+            scheduleReconnect(subscriber);
+        }
+    }
+
+    private void scheduleReconnect(Subscriber subscriber) {
+        if (subscribers.get(subscriber.getApiKey()) == subscriber && !scheduler.isShutdown()) {
+            scheduler.schedule(() -> connect(subscriber), RECONNECT_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private BinanceCredential getCredential(Subscriber subscriber) {
+        return credentialVault.get(subscriber.getUserId(), subscriber.getEncryptedApiKey(), subscriber.getEncryptedSecretKey());
+    }
+
+    private void keepAliveAll() {
+        for (String apiKey : streams.keySet()) {
+            try {
+                binanceFeignService.keepAliveListenKey(apiKey);
+            } catch (RuntimeException e) {
+                log.warn("Failed to keep alive listenKey - {}", e.getMessage());
+            }
+        }
+    }
+
+    //평문 키 대신 볼트에서 다시 꺼낼 수 있는 값만 들고 있음. api key는 헤더로 보내는 값이라 평문으로 둠
+    @AllArgsConstructor
+    @Getter
+    private static class Subscriber {
+        private final Long userId;
+        private final String apiKey;
+        private final String encryptedApiKey;
+        private final String encryptedSecretKey;
+    }
+}
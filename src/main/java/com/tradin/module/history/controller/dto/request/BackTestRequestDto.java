@@ -34,7 +34,10 @@ public class BackTestRequestDto {
     @NotNull(message = "TradingType must not be null")
     private TradingType tradingType;
 
+    @Schema(description = "매매 내역 포함 여부. false면 요약 통계만 응답", example = "true")
+    private Boolean includeHistories;
+
     public BackTestDto toServiceDto() {
-        return BackTestDto.of(id, name, startDate, endDate, tradingType);
+        return BackTestDto.of(id, name, startDate, endDate, tradingType, includeHistories == null || includeHistories);
     }
 }
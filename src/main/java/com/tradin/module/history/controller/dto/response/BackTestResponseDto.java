@@ -1,6 +1,7 @@
 package com.tradin.module.history.controller.dto.response;
 
 import com.tradin.module.history.domain.repository.dao.HistoryDao;
+import com.tradin.module.history.service.dto.RiskInfoDto;
 import com.tradin.module.history.service.dto.StrategyInfoDto;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -11,9 +12,10 @@ import java.util.List;
 @Getter
 public class BackTestResponseDto {
     private final StrategyInfoDto strategyInfoDto;
+    private final RiskInfoDto riskInfoDto;
     private final List<HistoryDao> historyDaos;
 
-    public static BackTestResponseDto of(StrategyInfoDto strategyInfoDto, List<HistoryDao> historyDaos) {
-        return new BackTestResponseDto(strategyInfoDto, historyDaos);
+    public static BackTestResponseDto of(StrategyInfoDto strategyInfoDto, RiskInfoDto riskInfoDto, List<HistoryDao> historyDaos) {
+        return new BackTestResponseDto(strategyInfoDto, riskInfoDto, historyDaos);
     }
 }
@@ -1,9 +1,14 @@
 package com.tradin.module.history.domain.repository;
 
 import com.tradin.module.history.domain.repository.dao.HistoryDao;
+import com.tradin.module.strategy.domain.Position;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface HistoryQueryRepository {
     List<HistoryDao> findHistoryDaoByStrategyId(Long id);
+
+    Optional<Position> findLastEntryPositionBefore(Long strategyId, LocalDateTime time);
 }
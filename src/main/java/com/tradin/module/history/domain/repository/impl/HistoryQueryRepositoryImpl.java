@@ -5,9 +5,12 @@ import com.tradin.module.history.domain.QHistory;
 import com.tradin.module.history.domain.repository.HistoryQueryRepository;
 import com.tradin.module.history.domain.repository.dao.HistoryDao;
 import com.tradin.module.history.domain.repository.dao.QHistoryDao;
+import com.tradin.module.strategy.domain.Position;
 import lombok.RequiredArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @RequiredArgsConstructor
 public class HistoryQueryRepositoryImpl implements HistoryQueryRepository {
@@ -22,4 +25,14 @@ public class HistoryQueryRepositoryImpl implements HistoryQueryRepository {
                 .orderBy(QHistory.history.id.asc())
                 .fetch();
     }
+
+    //시그널마다 이전 매매를 닫고 새 매매를 열므로, 모든 시그널 포지션은 어떤 매매의 진입 포지션으로 남아 있음
+    @Override
+    public Optional<Position> findLastEntryPositionBefore(Long strategyId, LocalDateTime time) {
+        return Optional.ofNullable(jpaQueryFactory.select(QHistory.history.entryPosition)
+                .from(QHistory.history)
+                .where(QHistory.history.strategy.id.eq(strategyId), QHistory.history.entryPosition.time.before(time))
+                .orderBy(QHistory.history.entryPosition.time.desc())
+                .fetchFirst());
+    }
 }
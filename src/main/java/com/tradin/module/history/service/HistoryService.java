@@ -5,36 +5,38 @@ import com.tradin.module.history.controller.dto.response.BackTestResponseDto;
 import com.tradin.module.history.domain.History;
 import com.tradin.module.history.domain.repository.HistoryRepository;
 import com.tradin.module.history.domain.repository.dao.HistoryDao;
+import com.tradin.module.history.service.cache.HistoryCache;
+import com.tradin.module.history.service.cache.HistoryCacheStore;
+import com.tradin.module.history.service.cache.HistoryClosedEvent;
+import com.tradin.module.history.service.cache.HistoryRangeIndex;
 import com.tradin.module.history.service.dto.BackTestDto;
+import com.tradin.module.history.service.dto.RiskInfoDto;
 import com.tradin.module.history.service.dto.StrategyInfoDto;
 import com.tradin.module.strategy.domain.Position;
 import com.tradin.module.strategy.domain.Strategy;
-import com.tradin.module.strategy.domain.TradingType;
-import com.tradin.module.strategy.service.dto.HistoryCache;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import static com.tradin.common.exception.ExceptionMessage.NOT_FOUND_OPEN_POSITION_EXCEPTION;
-import static com.tradin.module.strategy.domain.TradingType.BOTH;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class HistoryService {
     private final HistoryRepository historyRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final HistoryCacheStore historyCacheStore;
+    private final ApplicationEventPublisher eventPublisher;
 
     public void closeOngoingHistory(Strategy strategy, Position position) {
         History history = findLastHistoryByStrategyId(strategy.getId());
         closeOpenPosition(history, position);
         calculateProfitRate(history);
+        //청산된 매매만 백테스트 캐시에 들어가므로 커밋 뒤에 이 매매 하나만 붙임
+        eventPublisher.publishEvent(HistoryClosedEvent.of(strategy.getId(), toHistoryDao(history)));
     }
 
     public void createNewHistory(Strategy strategy, Position position) {
@@ -47,61 +49,33 @@ public class HistoryService {
     }
 
     public BackTestResponseDto backTest(BackTestDto request) {
-        String cacheKey = "strategyId:" + request.getId();
-
-        //캐시에 매매 내역들 있는지 확인
-        HistoryCache historyCache = (HistoryCache) redisTemplate.opsForValue().get(cacheKey);
-
-        //없다면 매매 내역 전체 캐싱
-        if (historyCache == null) {
-            List<HistoryDao> histories = findHistoryDaoByStrategyId(request.getId());
-            historyCache = HistoryCache.of(histories);
-            redisTemplate.opsForValue().set(cacheKey, historyCache);
-        }
+        //인스턴스 캐시 -> Redis -> DB 순서로 매매 내역 인덱스를 찾음. DB 전체 조회는 콜드 스타트에만 일어남
+        HistoryRangeIndex index = historyCacheStore.get(request.getId(), () -> findHistoryDaoByStrategyId(request.getId()));
 
         //매매 내역들을 조건에 맞게 계산 후 응답
-        return calculateHistoryCache(historyCache, request);
+        return calculateHistoryCache(index, request);
     }
 
-    private BackTestResponseDto calculateHistoryCache(HistoryCache historyCache, BackTestDto request) {
-        List<HistoryDao> histories = new ArrayList<>();
-        double compoundProfitRate = 1;
-        double winCount = 0;
-        int totalTradeCount = 0;
-        double simpleProfitRate = 0;
-        double winProfitRate = 0;
-        double loseProfitRate = 0;
-
-        for (HistoryDao history : historyCache.getHistories()) {
-            if (isInPeriod(history, request.getStartDate(), request.getEndDate()) &&
-                    isCorrespondTradingType(history, request.getTradingType())) {
-
-                totalTradeCount++;
-                compoundProfitRate = compoundProfitRate * (1 + history.getProfitRate());
-                history.setCompoundProfitRate(compoundProfitRate);
-                histories.add(history);
-
-                double profitRate = history.getProfitRate();
-                if (profitRate > 0) {
-                    winProfitRate += profitRate;
-                    winCount++;
-                } else if (profitRate < 0) {
-                    loseProfitRate += Math.abs(profitRate);
-                }
-
-                simpleProfitRate += profitRate;
-            }
-        }
-
-        Collections.reverse(histories);
-
-        double winRate = calculateWinRate(winCount, totalTradeCount);
-        double averageProfitRate = calculateAverageProfitRate(simpleProfitRate, totalTradeCount);
-        double profitFactor = calculateProfitFactor(winProfitRate, loseProfitRate);
-
-        StrategyInfoDto strategyInfoDto = StrategyInfoDto.of(request.getId(), request.getName(), compoundProfitRate, winRate, profitFactor, totalTradeCount, averageProfitRate);
-
-        return BackTestResponseDto.of(strategyInfoDto, histories);
+    //요약 통계와 낙폭 같은 위험 지표는 인덱스로 바로 구하고, 매매 내역은 요청한 경우에만 최신순으로 객체로 만듦
+    private BackTestResponseDto calculateHistoryCache(HistoryRangeIndex index, BackTestDto request) {
+        long startTime = HistoryCache.toEpochMillis(request.getStartDate());
+        long endTime = HistoryCache.toEpochMillis(request.getEndDate());
+
+        HistoryRangeIndex.Summary summary = index.summarize(startTime, endTime, request.getTradingType());
+        List<HistoryDao> histories = request.isIncludeHistories()
+                ? index.histories(startTime, endTime, request.getTradingType())
+                : List.of();
+
+        int totalTradeCount = summary.getTradeCount();
+        double winRate = calculateWinRate(summary.getWinCount(), totalTradeCount);
+        double averageProfitRate = calculateAverageProfitRate(summary.getSimpleProfitRate(), totalTradeCount);
+        double profitFactor = calculateProfitFactor(summary.getWinProfitRate(), summary.getLoseProfitRate());
+
+        StrategyInfoDto strategyInfoDto = StrategyInfoDto.of(request.getId(), request.getName(), summary.getCompoundProfitRate(), winRate, profitFactor, totalTradeCount, averageProfitRate);
+
+        RiskInfoDto riskInfoDto = RiskInfoDto.of(summary.getMaxDrawdownRate(), summary.getMaxRunUpRate(), summary.getLongestLosingStreak());
+
+        return BackTestResponseDto.of(strategyInfoDto, riskInfoDto, histories);
     }
 
 
@@ -117,14 +91,8 @@ public class HistoryService {
         return loseProfitRate == 0 ? 0 : winProfitRate / loseProfitRate;
     }
 
-
-    private boolean isInPeriod(HistoryDao history, LocalDateTime startDate, LocalDateTime endDate) {
-        return history.getEntryPosition().getTime().isAfter(startDate) &&
-                history.getExitPosition().getTime().isBefore(endDate);
-    }
-
-    private boolean isCorrespondTradingType(HistoryDao historyDao, TradingType tradingType) {
-        return tradingType == historyDao.getEntryPosition().getTradingType() || tradingType == BOTH;
+    private static HistoryDao toHistoryDao(History history) {
+        return new HistoryDao(history.getId(), history.getEntryPosition(), history.getExitPosition(), history.getProfitRate());
     }
 
     private static void calculateProfitRate(History history) {
@@ -0,0 +1,158 @@
+package com.tradin.module.history.service.cache;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+
+//매매별 log 수익 배수를 잎으로 둔 세그먼트 트리. 구간의 최대 낙폭/최대 상승폭/최장 연속 손실을 O(log n)으로 구함
+//노드는 컬럼별 원시 배열에 담고, 합칠 때만 Segment로 꺼냄. 다른 매매 방향의 매매는 항등원이라 연속 손실을 끊지 않음
+//잎이 모자라면 두 배로 늘려서 다시 만들므로 매매 하나를 붙이는 비용은 평균 O(log n)
+class EquitySegmentTree {
+    private int size;
+    private double[] sums;
+    private double[] maxPrefixes;
+    private double[] minPrefixes;
+    private double[] maxDrawdowns;
+    private double[] maxRunUps;
+    private int[] leadingLosses;
+    private int[] trailingLosses;
+    private int[] longestLosses;
+    private boolean[] allLosses;
+
+    //profitRates[i]가 NaN이면 i번째 매매는 이 트리에 속하지 않음
+    EquitySegmentTree(double[] profitRates, int count) {
+        int leaves = 1;
+        while (leaves < count) {
+            leaves <<= 1;
+        }
+
+        Segment[] segments = new Segment[leaves];
+        for (int i = 0; i < leaves; i++) {
+            segments[i] = i < count && !Double.isNaN(profitRates[i]) ? Segment.leaf(profitRates[i]) : Segment.IDENTITY;
+        }
+        build(segments);
+    }
+
+    //index번째 잎을 채우고 조상 노드만 다시 합침
+    void append(int index, double profitRate) {
+        if (index >= size) {
+            Segment[] segments = new Segment[size * 2];
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = i < size ? load(size + i) : Segment.IDENTITY;
+            }
+            build(segments);
+        }
+
+        int node = size + index;
+        store(node, Double.isNaN(profitRate) ? Segment.IDENTITY : Segment.leaf(profitRate));
+        for (node >>= 1; node > 0; node >>= 1) {
+            store(node, Segment.combine(load(node * 2), load(node * 2 + 1)));
+        }
+    }
+
+    private void build(Segment[] segments) {
+        int leaves = segments.length;
+        this.size = leaves;
+        this.sums = new double[leaves * 2];
+        this.maxPrefixes = new double[leaves * 2];
+        this.minPrefixes = new double[leaves * 2];
+        this.maxDrawdowns = new double[leaves * 2];
+        this.maxRunUps = new double[leaves * 2];
+        this.leadingLosses = new int[leaves * 2];
+        this.trailingLosses = new int[leaves * 2];
+        this.longestLosses = new int[leaves * 2];
+        this.allLosses = new boolean[leaves * 2];
+
+        for (int i = 0; i < leaves; i++) {
+            store(leaves + i, segments[i]);
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            store(node, Segment.combine(load(node * 2), load(node * 2 + 1)));
+        }
+    }
+
+    //[from, to) 구간. 순서가 중요하므로 왼쪽/오른쪽 결과를 따로 모아서 마지막에 합침
+    Segment query(int from, int to) {
+        Segment left = Segment.IDENTITY;
+        Segment right = Segment.IDENTITY;
+
+        for (int l = from + size, r = to + size; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                left = Segment.combine(left, load(l++));
+            }
+            if ((r & 1) == 1) {
+                right = Segment.combine(load(--r), right);
+            }
+        }
+
+        return Segment.combine(left, right);
+    }
+
+    private Segment load(int node) {
+        return new Segment(sums[node], maxPrefixes[node], minPrefixes[node], maxDrawdowns[node], maxRunUps[node],
+                leadingLosses[node], trailingLosses[node], longestLosses[node], allLosses[node]);
+    }
+
+    private void store(int node, Segment segment) {
+        sums[node] = segment.sum;
+        maxPrefixes[node] = segment.maxPrefix;
+        minPrefixes[node] = segment.minPrefix;
+        maxDrawdowns[node] = segment.maxDrawdown;
+        maxRunUps[node] = segment.maxRunUp;
+        leadingLosses[node] = segment.leadingLosses;
+        trailingLosses[node] = segment.trailingLosses;
+        longestLosses[node] = segment.longestLosses;
+        allLosses[node] = segment.allLosses;
+    }
+
+    //구간 안 log 자산 곡선의 요약. prefix는 구간 시작(0)을 포함한 누적합의 최댓값/최솟값
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    static class Segment {
+        //청산가가 0 이하로 가는 숏 손실(-100% 이하)은 자산이 거의 사라진 것으로 봄
+        private static final double MIN_FACTOR = 1e-9;
+        static final Segment IDENTITY = new Segment(0, 0, 0, 0, 0, 0, 0, 0, true);
+
+        private final double sum;
+        private final double maxPrefix;
+        private final double minPrefix;
+        private final double maxDrawdown;
+        private final double maxRunUp;
+        private final int leadingLosses;
+        private final int trailingLosses;
+        private final int longestLosses;
+        private final boolean allLosses;
+
+        //수익률이 % 단위라 자산 배수는 1 + 수익률 / 100
+        static Segment leaf(double profitRate) {
+            double logFactor = Math.log(Math.max(1 + profitRate / 100, MIN_FACTOR));
+            int losses = profitRate < 0 ? 1 : 0;
+            return new Segment(logFactor, Math.max(0, logFactor), Math.min(0, logFactor), Math.max(0, -logFactor), Math.max(0, logFactor),
+                    losses, losses, losses, losses == 1);
+        }
+
+        static Segment combine(Segment left, Segment right) {
+            return new Segment(left.sum + right.sum,
+                    Math.max(left.maxPrefix, left.sum + right.maxPrefix),
+                    Math.min(left.minPrefix, left.sum + right.minPrefix),
+                    Math.max(Math.max(left.maxDrawdown, right.maxDrawdown), left.maxPrefix - left.sum - right.minPrefix),
+                    Math.max(Math.max(left.maxRunUp, right.maxRunUp), left.sum + right.maxPrefix - left.minPrefix),
+                    left.allLosses ? left.leadingLosses + right.leadingLosses : left.leadingLosses,
+                    right.allLosses ? right.trailingLosses + left.trailingLosses : right.trailingLosses,
+                    Math.max(Math.max(left.longestLosses, right.longestLosses), left.trailingLosses + right.leadingLosses),
+                    left.allLosses && right.allLosses);
+        }
+
+        //고점 대비 최대 하락률(%)
+        double getMaxDrawdownRate() {
+            return (1 - Math.exp(-maxDrawdown)) * 100;
+        }
+
+        //저점 대비 최대 상승률(%)
+        double getMaxRunUpRate() {
+            return (Math.exp(maxRunUp) - 1) * 100;
+        }
+
+        int getLongestLosingStreak() {
+            return longestLosses;
+        }
+    }
+}
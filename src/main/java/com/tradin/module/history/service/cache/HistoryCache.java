@@ -0,0 +1,122 @@
+package com.tradin.module.history.service.cache;
+
+import com.tradin.module.history.domain.repository.dao.HistoryDao;
+import com.tradin.module.strategy.domain.Position;
+import com.tradin.module.strategy.domain.TradingType;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+//백테스트용 매매 내역을 컬럼별 원시 배열로 들고 있음. 같은 인덱스의 원소들이 모여 id 오름차순으로 매매 하나가 됨
+//시간은 UTC 기준 epoch 밀리초, 매매 방향은 TradingType 순번. 진행 중인 매매는 어떤 기간에도 안 걸리므로 청산된 매매만 둠
+//청산될 때마다 뒤에 붙이기만 하므로 배열은 size보다 길 수 있음. 동시 접근은 HistoryRangeIndex의 락으로 막음
+@Getter
+public class HistoryCache {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final TradingType[] TRADING_TYPES = TradingType.values();
+
+    private long[] ids;
+    private long[] entryTimes;
+    private long[] exitTimes;
+    private int[] entryPrices;
+    private int[] exitPrices;
+    private byte[] entryTradingTypes;
+    private byte[] exitTradingTypes;
+    private double[] profitRates;
+    @Getter(AccessLevel.NONE)
+    private int size;
+
+    private HistoryCache(int capacity) {
+        this.ids = new long[capacity];
+        this.entryTimes = new long[capacity];
+        this.exitTimes = new long[capacity];
+        this.entryPrices = new int[capacity];
+        this.exitPrices = new int[capacity];
+        this.entryTradingTypes = new byte[capacity];
+        this.exitTradingTypes = new byte[capacity];
+        this.profitRates = new double[capacity];
+    }
+
+    public static HistoryCache of(List<HistoryDao> histories) {
+        HistoryCache historyCache = allocate(histories.size());
+        for (HistoryDao history : histories) {
+            if (history.getExitPosition() != null) {
+                historyCache.append(history);
+            }
+        }
+        return historyCache;
+    }
+
+    static HistoryCache allocate(int capacity) {
+        return new HistoryCache(Math.max(capacity, INITIAL_CAPACITY));
+    }
+
+    void append(HistoryDao history) {
+        Position entryPosition = history.getEntryPosition();
+        Position exitPosition = history.getExitPosition();
+        append(history.getId(), toEpochMillis(entryPosition.getTime()), toEpochMillis(exitPosition.getTime()),
+                entryPosition.getPrice(), exitPosition.getPrice(),
+                (byte) entryPosition.getTradingType().ordinal(), (byte) exitPosition.getTradingType().ordinal(),
+                history.getProfitRate());
+    }
+
+    void append(long id, long entryTime, long exitTime, int entryPrice, int exitPrice,
+                byte entryTradingType, byte exitTradingType, double profitRate) {
+        if (size == ids.length) {
+            grow();
+        }
+
+        ids[size] = id;
+        entryTimes[size] = entryTime;
+        exitTimes[size] = exitTime;
+        entryPrices[size] = entryPrice;
+        exitPrices[size] = exitPrice;
+        entryTradingTypes[size] = entryTradingType;
+        exitTradingTypes[size] = exitTradingType;
+        profitRates[size] = profitRate;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    long lastId() {
+        return size == 0 ? 0 : ids[size - 1];
+    }
+
+    //응답에 나가는 매매만 객체로 되돌림
+    public HistoryDao toHistoryDao(int index, double compoundProfitRate) {
+        Position entryPosition = Position.of(TRADING_TYPES[entryTradingTypes[index]], toLocalDateTime(entryTimes[index]), entryPrices[index]);
+        Position exitPosition = Position.of(TRADING_TYPES[exitTradingTypes[index]], toLocalDateTime(exitTimes[index]), exitPrices[index]);
+
+        HistoryDao history = new HistoryDao(ids[index], entryPosition, exitPosition, profitRates[index]);
+        history.setCompoundProfitRate(compoundProfitRate);
+        return history;
+    }
+
+    public static long toEpochMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        entryTimes = Arrays.copyOf(entryTimes, capacity);
+        exitTimes = Arrays.copyOf(exitTimes, capacity);
+        entryPrices = Arrays.copyOf(entryPrices, capacity);
+        exitPrices = Arrays.copyOf(exitPrices, capacity);
+        entryTradingTypes = Arrays.copyOf(entryTradingTypes, capacity);
+        exitTradingTypes = Arrays.copyOf(exitTradingTypes, capacity);
+        profitRates = Arrays.copyOf(profitRates, capacity);
+    }
+}
@@ -0,0 +1,104 @@
+package com.tradin.module.history.service.cache;
+
+import com.tradin.module.history.domain.repository.dao.HistoryDao;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.UtilityClass;
+
+import java.nio.ByteBuffer;
+
+//Redis에 넣는 HistoryCache 포맷. [0] version, 이후 청산된 매매가 id 순서대로 고정 길이 레코드로 이어짐
+//레코드는 id, 진입/청산 시간(long), 진입/청산 가격(int), 수익률(double), 진입/청산 방향(byte) 순서
+//청산될 때마다 레코드 하나를 APPEND하므로 매매 수는 따로 적지 않음. 모르는 version은 캐시 미스로 보고 다시 만듦
+@UtilityClass
+public class HistoryCacheCodec {
+    static final byte VERSION = 2;
+    static final int RECORD_LENGTH = Long.BYTES * 3 + Integer.BYTES * 2 + Double.BYTES + 2;
+    private static final int HEADER_LENGTH = 1;
+    private static final int DELTA_HEADER_LENGTH = Long.BYTES * 2;
+
+    public static boolean isSupported(byte[] data) {
+        return data != null && data.length >= HEADER_LENGTH && data[0] == VERSION
+                && (data.length - HEADER_LENGTH) % RECORD_LENGTH == 0;
+    }
+
+    public static byte[] encode(HistoryCache historyCache) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + historyCache.size() * RECORD_LENGTH).put(VERSION);
+        for (int i = 0; i < historyCache.size(); i++) {
+            putRecord(buffer, historyCache, i);
+        }
+        return buffer.array();
+    }
+
+    public static HistoryCache decode(byte[] data) {
+        if (!isSupported(data)) {
+            throw new IllegalArgumentException("Unsupported history cache format");
+        }
+
+        int size = (data.length - HEADER_LENGTH) / RECORD_LENGTH;
+        HistoryCache historyCache = HistoryCache.allocate(size);
+        ByteBuffer buffer = ByteBuffer.wrap(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+        for (int i = 0; i < size; i++) {
+            appendRecord(buffer, historyCache);
+        }
+        return historyCache;
+    }
+
+    public static byte[] encodeRecord(HistoryDao history) {
+        HistoryCache single = HistoryCache.allocate(1);
+        single.append(history);
+        return putRecord(ByteBuffer.allocate(RECORD_LENGTH), single, 0).array();
+    }
+
+    //다른 인스턴스에 보내는 청산 알림. 전략 id, 시퀀스, 레코드 하나
+    public static byte[] encodeDelta(long strategyId, long sequence, byte[] record) {
+        return ByteBuffer.allocate(DELTA_HEADER_LENGTH + RECORD_LENGTH)
+                .putLong(strategyId)
+                .putLong(sequence)
+                .put(record)
+                .array();
+    }
+
+    public static HistoryDelta decodeDelta(byte[] data) {
+        if (data.length != DELTA_HEADER_LENGTH + RECORD_LENGTH) {
+            throw new IllegalArgumentException("Unsupported history delta format");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        long strategyId = buffer.getLong();
+        long sequence = buffer.getLong();
+        HistoryCache single = HistoryCache.allocate(1);
+        appendRecord(buffer, single);
+        return new HistoryDelta(strategyId, sequence, single.toHistoryDao(0, 0));
+    }
+
+    private static ByteBuffer putRecord(ByteBuffer buffer, HistoryCache historyCache, int i) {
+        return buffer.putLong(historyCache.getIds()[i])
+                .putLong(historyCache.getEntryTimes()[i])
+                .putLong(historyCache.getExitTimes()[i])
+                .putInt(historyCache.getEntryPrices()[i])
+                .putInt(historyCache.getExitPrices()[i])
+                .putDouble(historyCache.getProfitRates()[i])
+                .put(historyCache.getEntryTradingTypes()[i])
+                .put(historyCache.getExitTradingTypes()[i]);
+    }
+
+    private static void appendRecord(ByteBuffer buffer, HistoryCache historyCache) {
+        long id = buffer.getLong();
+        long entryTime = buffer.getLong();
+        long exitTime = buffer.getLong();
+        int entryPrice = buffer.getInt();
+        int exitPrice = buffer.getInt();
+        double profitRate = buffer.getDouble();
+        historyCache.append(id, entryTime, exitTime, entryPrice, exitPrice, buffer.get(), buffer.get(), profitRate);
+    }
+
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    @Getter
+    public static class HistoryDelta {
+        private final long strategyId;
+        private final long sequence;
+        private final HistoryDao history;
+    }
+}
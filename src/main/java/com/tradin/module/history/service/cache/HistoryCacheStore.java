@@ -0,0 +1,168 @@
+package com.tradin.module.history.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tradin.module.history.domain.repository.dao.HistoryDao;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+//백테스트용 매매 내역 캐시. 인스턴스 안의 L1(Caffeine)에 인덱스까지 만든 상태로 두고, 없으면 Redis(L2), 그것도 없으면 DB에서 읽음
+//매매가 청산되면 다시 읽지 않고 레코드 하나를 Redis 값 뒤에 APPEND하고, pub/sub으로 알려서 모든 인스턴스가 L1 인덱스 뒤에 붙임
+//APPEND마다 전략별 시퀀스를 같은 스크립트 안에서 올리므로, 알림이 빠지면 시퀀스가 건너뛰어서 알 수 있음. 그때는 L1에서 지우고 다시 읽음
+@Slf4j
+@Component
+public class HistoryCacheStore implements MessageListener {
+    public static final String APPEND_CHANNEL = "history-cache-append";
+    private static final String CACHE_KEY_PREFIX = "historyCache:";
+    private static final String SEQUENCE_KEY_PREFIX = "historyCache:sequence:";
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    //값이 있고 포맷 버전이 같고 마지막 레코드의 id보다 큰 매매일 때만 붙임. 값이 없으면 다음 조회 때 DB에서 만듦
+    private static final RedisScript<Long> APPEND_SCRIPT = new DefaultRedisScript<>(
+            "local sequence = redis.call('INCR', KEYS[2]) "
+                    + "local length = redis.call('STRLEN', KEYS[1]) "
+                    + "local record = " + HistoryCacheCodec.RECORD_LENGTH + " "
+                    + "if length > 0 and (length - 1) % record == 0 "
+                    + "and string.byte(redis.call('GETRANGE', KEYS[1], 0, 0)) == tonumber(ARGV[2]) then "
+                    + "local appendable = length == 1 "
+                    + "if not appendable then "
+                    + "local lastId = struct.unpack('>i8', redis.call('GETRANGE', KEYS[1], length - record, length - record + 7)) "
+                    + "appendable = lastId < struct.unpack('>i8', ARGV[1]) "
+                    + "end "
+                    + "if appendable then "
+                    + "redis.call('APPEND', KEYS[1], ARGV[1]) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[3]) "
+                    + "end "
+                    + "end "
+                    + "return sequence", Long.class);
+
+    //DB에서 읽기 전에 본 시퀀스가 그대로일 때만 저장함. 그 사이에 청산된 매매가 빠진 값을 덮어쓰지 않음
+    private static final RedisScript<Long> STORE_SCRIPT = new DefaultRedisScript<>(
+            "local sequence = tonumber(redis.call('GET', KEYS[2]) or '0') "
+                    + "if sequence == tonumber(ARGV[2]) then "
+                    + "redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[3]) "
+                    + "end "
+                    + "return sequence", Long.class);
+
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final byte[] redisTtlSeconds;
+    private final Cache<Long, HistoryRangeIndex> indexes;
+
+    public HistoryCacheStore(RedisTemplate<String, byte[]> binaryRedisTemplate,
+                             RedisMessageListenerContainer redisMessageListenerContainer,
+                             @Value("${trade.history-cache.maximum-size:200}") long maximumSize,
+                             @Value("${trade.history-cache.expire-after-write-minutes:10}") long expireAfterWriteMinutes,
+                             @Value("${trade.history-cache.redis-ttl-hours:24}") long redisTtlHours) {
+        this.binaryRedisTemplate = binaryRedisTemplate;
+        this.redisTtlSeconds = toBytes(Duration.ofHours(redisTtlHours).toSeconds());
+        //시퀀스는 다음 청산 때에야 건너뛴 게 보이므로 L1은 일정 시간이 지나면 Redis에서 다시 읽음
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(expireAfterWriteMinutes))
+                .build();
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(APPEND_CHANNEL));
+    }
+
+    //같은 전략을 동시에 읽으면 한 번만 불러옴
+    //불러오는 동안 온 알림은 L1에 값이 없어서 버려지므로, 불러온 뒤 시퀀스가 움직였으면 지우고 다시 불러옴
+    public HistoryRangeIndex get(Long strategyId, Supplier<List<HistoryDao>> histories) {
+        for (int attempt = 1; ; attempt++) {
+            boolean[] loaded = {false};
+            HistoryRangeIndex index = indexes.get(strategyId, id -> {
+                loaded[0] = true;
+                return load(id, histories);
+            });
+
+            if (!loaded[0] || attempt == MAX_LOAD_ATTEMPTS || currentSequence(strategyId) <= index.getSequence()) {
+                return index;
+            }
+            indexes.asMap().remove(strategyId, index);
+        }
+    }
+
+    //시퀀스를 먼저 읽으므로 Redis 값에는 그 시퀀스까지의 매매가 모두 들어 있음. 더 들어 있는 매매는 알림이 와도 id로 걸러짐
+    private HistoryRangeIndex load(Long strategyId, Supplier<List<HistoryDao>> histories) {
+        long sequence = currentSequence(strategyId);
+        byte[] cached = binaryRedisTemplate.opsForValue().get(CACHE_KEY_PREFIX + strategyId);
+        if (HistoryCacheCodec.isSupported(cached)) {
+            return HistoryRangeIndex.of(HistoryCacheCodec.decode(cached), sequence);
+        }
+
+        //콜드 스타트에만 전체를 읽음. 읽는 동안 다른 매매가 청산됐으면 저장하지 않고 다시 읽음
+        for (int attempt = 1; ; attempt++) {
+            HistoryRangeIndex index = HistoryRangeIndex.of(HistoryCache.of(histories.get()), sequence);
+            Long latest = binaryRedisTemplate.execute(STORE_SCRIPT, keys(strategyId), index.encode(), toBytes(sequence), redisTtlSeconds);
+            if (latest == null || latest == sequence || attempt == MAX_LOAD_ATTEMPTS) {
+                return index;
+            }
+            sequence = latest;
+        }
+    }
+
+    //매매는 이미 커밋됐으므로 Redis 오류는 던지지 않음. 이 인스턴스의 L1과 Redis 값을 지워서 다음 조회 때 DB에서 다시 만들게 함
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onHistoryClosed(HistoryClosedEvent event) {
+        Long strategyId = event.getStrategyId();
+        byte[] record = HistoryCacheCodec.encodeRecord(event.getHistory());
+
+        try {
+            Long sequence = binaryRedisTemplate.execute(APPEND_SCRIPT, keys(strategyId), record,
+                    toBytes(HistoryCacheCodec.VERSION), redisTtlSeconds);
+            append(strategyId, sequence, event.getHistory());
+            binaryRedisTemplate.convertAndSend(APPEND_CHANNEL, HistoryCacheCodec.encodeDelta(strategyId, sequence, record));
+        } catch (RuntimeException e) {
+            log.warn("Failed to append history cache - strategyId: {}", strategyId, e);
+            indexes.invalidate(strategyId);
+            evictRedis(strategyId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        HistoryCacheCodec.HistoryDelta delta = HistoryCacheCodec.decodeDelta(message.getBody());
+        append(delta.getStrategyId(), delta.getSequence(), delta.getHistory());
+    }
+
+    private void append(Long strategyId, long sequence, HistoryDao history) {
+        HistoryRangeIndex index = indexes.getIfPresent(strategyId);
+        if (index != null && !index.append(sequence, history)) {
+            indexes.invalidate(strategyId);
+        }
+    }
+
+    private void evictRedis(Long strategyId) {
+        try {
+            binaryRedisTemplate.delete(CACHE_KEY_PREFIX + strategyId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to evict history cache - strategyId: {}", strategyId, e);
+        }
+    }
+
+    private long currentSequence(Long strategyId) {
+        byte[] sequence = binaryRedisTemplate.opsForValue().get(SEQUENCE_KEY_PREFIX + strategyId);
+        return sequence == null ? 0 : Long.parseLong(new String(sequence, StandardCharsets.UTF_8));
+    }
+
+    private static List<String> keys(Long strategyId) {
+        return List.of(CACHE_KEY_PREFIX + strategyId, SEQUENCE_KEY_PREFIX + strategyId);
+    }
+
+    private static byte[] toBytes(long value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,18 @@
+package com.tradin.module.history.service.cache;
+
+import com.tradin.module.history.domain.repository.dao.HistoryDao;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//전략의 진행 중인 매매가 청산됨. 커밋된 뒤에 HistoryCacheStore가 받아서 캐시 뒤에 붙임
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class HistoryClosedEvent {
+    private final Long strategyId;
+    private final HistoryDao history;
+
+    public static HistoryClosedEvent of(Long strategyId, HistoryDao history) {
+        return new HistoryClosedEvent(strategyId, history);
+    }
+}
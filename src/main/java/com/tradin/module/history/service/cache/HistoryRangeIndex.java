@@ -0,0 +1,334 @@
+package com.tradin.module.history.service.cache;
+
+import com.tradin.module.history.domain.repository.dao.HistoryDao;
+import com.tradin.module.strategy.domain.TradingType;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//기간/매매 방향별 요약 통계를 O(log n)으로 구하는 인덱스. 매매 방향마다(BOTH는 전체) 누적합 배열을 미리 만들어 둠
+//매매는 id 순서대로 진입하고 다음 매매 전에 청산되므로 진입/청산 시간이 둘 다 정렬돼 있어서 기간은 이분 탐색으로 찾음
+//최대 낙폭/상승폭/연속 손실처럼 누적합으로 안 되는 값은 매매 방향별 세그먼트 트리로 구함. 정렬이 깨진 내역이면 전체를 훑음
+//청산된 매매는 다시 만들지 않고 뒤에 붙임. 여러 요청이 같이 읽고 붙일 때만 잠깐 막음
+public class HistoryRangeIndex {
+    private static final int GROUPS = TradingType.values().length;
+    private static final int ALL = TradingType.BOTH.ordinal();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final HistoryCache historyCache;
+    private boolean ordered;
+    //이 인덱스에 반영된 마지막 청산 시퀀스. HistoryCacheStore가 빠진 알림을 찾는 데 씀
+    private long sequence;
+
+    //[매매 방향][i]는 앞에서부터 i개 매매의 합. 복리는 곱 대신 log|1 + 수익률|의 합과 음수/0 배수 개수로 들고 있음
+    private final int[][] tradeCounts = new int[GROUPS][];
+    private final int[][] winCounts = new int[GROUPS][];
+    private final int[][] negativeFactorCounts = new int[GROUPS][];
+    private final int[][] zeroFactorCounts = new int[GROUPS][];
+    private final double[][] simpleProfitRates = new double[GROUPS][];
+    private final double[][] winProfitRates = new double[GROUPS][];
+    private final double[][] loseProfitRates = new double[GROUPS][];
+    private final double[][] logCompoundProfitRates = new double[GROUPS][];
+    private final EquitySegmentTree[] equityTrees = new EquitySegmentTree[GROUPS];
+
+    private HistoryRangeIndex(HistoryCache historyCache, long sequence) {
+        this.historyCache = historyCache;
+        this.sequence = sequence;
+        this.ordered = isOrdered(historyCache.getEntryTimes(), historyCache.size()) && isOrdered(historyCache.getExitTimes(), historyCache.size());
+
+        int size = historyCache.size();
+        int capacity = historyCache.getIds().length + 1;
+        for (int group = 0; group < GROUPS; group++) {
+            tradeCounts[group] = new int[capacity];
+            winCounts[group] = new int[capacity];
+            negativeFactorCounts[group] = new int[capacity];
+            zeroFactorCounts[group] = new int[capacity];
+            simpleProfitRates[group] = new double[capacity];
+            winProfitRates[group] = new double[capacity];
+            loseProfitRates[group] = new double[capacity];
+            logCompoundProfitRates[group] = new double[capacity];
+        }
+
+        byte[] entryTradingTypes = historyCache.getEntryTradingTypes();
+        double[] profitRates = historyCache.getProfitRates();
+        for (int group = 0; group < GROUPS; group++) {
+            double[] groupProfitRates = new double[size];
+            for (int i = 0; i < size; i++) {
+                groupProfitRates[i] = profitRateOf(group, entryTradingTypes[i], profitRates[i]);
+                accumulate(group, i, groupProfitRates[i]);
+            }
+            equityTrees[group] = new EquitySegmentTree(groupProfitRates, size);
+        }
+    }
+
+    public static HistoryRangeIndex of(HistoryCache historyCache, long sequence) {
+        return new HistoryRangeIndex(historyCache, sequence);
+    }
+
+    public long getSequence() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return sequence;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    //청산 알림을 반영함. 중간 시퀀스가 빠졌으면 false를 돌려줘서 다시 불러오게 함
+    //이미 들어 있는 매매(id가 마지막 id 이하)는 건너뛰므로 같은 알림을 여러 번 받아도 됨
+    public boolean append(long sequence, HistoryDao history) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            if (sequence > this.sequence + 1) {
+                return false;
+            }
+
+            if (history.getId() > historyCache.lastId()) {
+                appendHistory(history);
+            }
+            this.sequence = Math.max(this.sequence, sequence);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void appendHistory(HistoryDao history) {
+        int i = historyCache.size();
+        historyCache.append(history);
+
+        long[] entryTimes = historyCache.getEntryTimes();
+        long[] exitTimes = historyCache.getExitTimes();
+        ordered = ordered && (i == 0 || entryTimes[i] >= entryTimes[i - 1] && exitTimes[i] >= exitTimes[i - 1]);
+
+        if (i + 1 == tradeCounts[0].length) {
+            growPrefixes();
+        }
+        for (int group = 0; group < GROUPS; group++) {
+            double profitRate = profitRateOf(group, historyCache.getEntryTradingTypes()[i], history.getProfitRate());
+            accumulate(group, i, profitRate);
+            equityTrees[group].append(i, profitRate);
+        }
+    }
+
+    //이 매매 방향에 속하지 않는 매매는 NaN
+    private static double profitRateOf(int group, byte entryTradingType, double profitRate) {
+        return group == ALL || group == entryTradingType ? profitRate : Double.NaN;
+    }
+
+    //NaN이면 i번째 매매는 이 매매 방향에 속하지 않으므로 앞의 합을 그대로 이어감
+    private void accumulate(int group, int i, double profitRate) {
+        boolean counted = !Double.isNaN(profitRate);
+        double factor = 1 + profitRate;
+
+        tradeCounts[group][i + 1] = tradeCounts[group][i] + (counted ? 1 : 0);
+        winCounts[group][i + 1] = winCounts[group][i] + (counted && profitRate > 0 ? 1 : 0);
+        negativeFactorCounts[group][i + 1] = negativeFactorCounts[group][i] + (counted && factor < 0 ? 1 : 0);
+        zeroFactorCounts[group][i + 1] = zeroFactorCounts[group][i] + (counted && factor == 0 ? 1 : 0);
+        simpleProfitRates[group][i + 1] = simpleProfitRates[group][i] + (counted ? profitRate : 0);
+        winProfitRates[group][i + 1] = winProfitRates[group][i] + (counted && profitRate > 0 ? profitRate : 0);
+        loseProfitRates[group][i + 1] = loseProfitRates[group][i] + (counted && profitRate < 0 ? -profitRate : 0);
+        logCompoundProfitRates[group][i + 1] = logCompoundProfitRates[group][i] + (counted && factor != 0 ? Math.log(Math.abs(factor)) : 0);
+    }
+
+    private void growPrefixes() {
+        int capacity = tradeCounts[0].length * 2;
+        for (int group = 0; group < GROUPS; group++) {
+            tradeCounts[group] = Arrays.copyOf(tradeCounts[group], capacity);
+            winCounts[group] = Arrays.copyOf(winCounts[group], capacity);
+            negativeFactorCounts[group] = Arrays.copyOf(negativeFactorCounts[group], capacity);
+            zeroFactorCounts[group] = Arrays.copyOf(zeroFactorCounts[group], capacity);
+            simpleProfitRates[group] = Arrays.copyOf(simpleProfitRates[group], capacity);
+            winProfitRates[group] = Arrays.copyOf(winProfitRates[group], capacity);
+            loseProfitRates[group] = Arrays.copyOf(loseProfitRates[group], capacity);
+            logCompoundProfitRates[group] = Arrays.copyOf(logCompoundProfitRates[group], capacity);
+        }
+    }
+
+    //진입이 startTime 이후이고 청산이 endTime 이전인 매매들의 요약
+    public Summary summarize(long startTime, long endTime, TradingType tradingType) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            if (!ordered) {
+                return scan(startTime, endTime, tradingType);
+            }
+
+            int from = from(startTime);
+            int to = to(endTime);
+            if (to <= from) {
+                return Summary.EMPTY;
+            }
+
+            int group = tradingType.ordinal();
+            double compoundProfitRate = 0;
+            if (zeroFactorCounts[group][to] == zeroFactorCounts[group][from]) {
+                double sign = (negativeFactorCounts[group][to] - negativeFactorCounts[group][from]) % 2 == 0 ? 1 : -1;
+                compoundProfitRate = sign * Math.exp(logCompoundProfitRates[group][to] - logCompoundProfitRates[group][from]);
+            }
+
+            return Summary.of(tradeCounts[group][to] - tradeCounts[group][from],
+                    winCounts[group][to] - winCounts[group][from],
+                    simpleProfitRates[group][to] - simpleProfitRates[group][from],
+                    winProfitRates[group][to] - winProfitRates[group][from],
+                    loseProfitRates[group][to] - loseProfitRates[group][from],
+                    compoundProfitRate, equityTrees[group].query(from, to));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    //조건에 맞는 매매를 최신순으로 객체로 만듦. 매매마다 그 시점까지의 복리 수익률을 채움
+    public List<HistoryDao> histories(long startTime, long endTime, TradingType tradingType) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int from = ordered ? from(startTime) : 0;
+            int to = ordered ? to(endTime) : historyCache.size();
+            if (to <= from) {
+                return List.of();
+            }
+
+            double[] profitRates = historyCache.getProfitRates();
+            int[] matchedIndexes = new int[to - from];
+            double[] compoundProfitRates = new double[to - from];
+            int matchedCount = 0;
+            double compoundProfitRate = 1;
+
+            for (int i = from; i < to; i++) {
+                if (matches(i, startTime, endTime, tradingType)) {
+                    compoundProfitRate = compoundProfitRate * (1 + profitRates[i]);
+                    matchedIndexes[matchedCount] = i;
+                    compoundProfitRates[matchedCount] = compoundProfitRate;
+                    matchedCount++;
+                }
+            }
+
+            List<HistoryDao> histories = new ArrayList<>(matchedCount);
+            for (int i = matchedCount - 1; i >= 0; i--) {
+                histories.add(historyCache.toHistoryDao(matchedIndexes[i], compoundProfitRates[i]));
+            }
+            return histories;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    //Redis에 처음 넣을 때 씀
+    public byte[] encode() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return HistoryCacheCodec.encode(historyCache);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private Summary scan(long startTime, long endTime, TradingType tradingType) {
+        double[] profitRates = historyCache.getProfitRates();
+        int tradeCount = 0;
+        int winCount = 0;
+        double simpleProfitRate = 0;
+        double winProfitRate = 0;
+        double loseProfitRate = 0;
+        double compoundProfitRate = 1;
+        EquitySegmentTree.Segment equity = EquitySegmentTree.Segment.IDENTITY;
+
+        for (int i = 0; i < historyCache.size(); i++) {
+            if (matches(i, startTime, endTime, tradingType)) {
+                double profitRate = profitRates[i];
+                tradeCount++;
+                compoundProfitRate = compoundProfitRate * (1 + profitRate);
+                simpleProfitRate += profitRate;
+                equity = EquitySegmentTree.Segment.combine(equity, EquitySegmentTree.Segment.leaf(profitRate));
+
+                if (profitRate > 0) {
+                    winProfitRate += profitRate;
+                    winCount++;
+                } else if (profitRate < 0) {
+                    loseProfitRate -= profitRate;
+                }
+            }
+        }
+
+        return Summary.of(tradeCount, winCount, simpleProfitRate, winProfitRate, loseProfitRate, compoundProfitRate, equity);
+    }
+
+    private boolean matches(int i, long startTime, long endTime, TradingType tradingType) {
+        return historyCache.getEntryTimes()[i] > startTime && historyCache.getExitTimes()[i] < endTime &&
+                (tradingType == TradingType.BOTH || historyCache.getEntryTradingTypes()[i] == tradingType.ordinal());
+    }
+
+    //진입 시간이 startTime보다 늦은 첫 매매
+    private int from(long startTime) {
+        long[] entryTimes = historyCache.getEntryTimes();
+        int low = 0;
+        int high = historyCache.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entryTimes[mid] > startTime) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    //청산 시간이 endTime보다 늦거나 같은 첫 매매
+    private int to(long endTime) {
+        long[] exitTimes = historyCache.getExitTimes();
+        int low = 0;
+        int high = historyCache.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (exitTimes[mid] >= endTime) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static boolean isOrdered(long[] times, int size) {
+        for (int i = 1; i < size; i++) {
+            if (times[i] < times[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    @Getter
+    public static class Summary {
+        private static final Summary EMPTY = of(0, 0, 0, 0, 0, 1, EquitySegmentTree.Segment.IDENTITY);
+
+        private final int tradeCount;
+        private final int winCount;
+        private final double simpleProfitRate;
+        private final double winProfitRate;
+        private final double loseProfitRate;
+        private final double compoundProfitRate;
+        private final double maxDrawdownRate;
+        private final double maxRunUpRate;
+        private final int longestLosingStreak;
+
+        private static Summary of(int tradeCount, int winCount, double simpleProfitRate, double winProfitRate, double loseProfitRate,
+                                  double compoundProfitRate, EquitySegmentTree.Segment equity) {
+            return new Summary(tradeCount, winCount, simpleProfitRate, winProfitRate, loseProfitRate, compoundProfitRate,
+                    equity.getMaxDrawdownRate(), equity.getMaxRunUpRate(), equity.getLongestLosingStreak());
+        }
+    }
+}
@@ -14,9 +14,10 @@ public class BackTestDto {
     private LocalDateTime startDate;
     private LocalDateTime endDate;
     private TradingType tradingType;
+    private boolean includeHistories;
 
     public static BackTestDto of(Long id, String name, LocalDateTime startDate, LocalDateTime endDate,
-                                 TradingType tradingType) {
-        return new BackTestDto(id, name, startDate, endDate, tradingType);
+                                 TradingType tradingType, boolean includeHistories) {
+        return new BackTestDto(id, name, startDate, endDate, tradingType, includeHistories);
     }
 }
@@ -0,0 +1,26 @@
+package com.tradin.module.history.service.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+public class RiskInfoDto {
+    private final double maxDrawdownRate;
+    private final double maxRunUpRate;
+    private final int longestLosingStreak;
+
+    @Builder
+    public RiskInfoDto(double maxDrawdownRate, double maxRunUpRate, int longestLosingStreak) {
+        this.maxDrawdownRate = maxDrawdownRate;
+        this.maxRunUpRate = maxRunUpRate;
+        this.longestLosingStreak = longestLosingStreak;
+    }
+
+    public static RiskInfoDto of(double maxDrawdownRate, double maxRunUpRate, int longestLosingStreak) {
+        return RiskInfoDto.builder()
+                .maxDrawdownRate(maxDrawdownRate)
+                .maxRunUpRate(maxRunUpRate)
+                .longestLosingStreak(longestLosingStreak)
+                .build();
+    }
+}
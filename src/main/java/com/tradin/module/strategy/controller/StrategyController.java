@@ -3,23 +3,44 @@ package com.tradin.module.strategy.controller;
 import com.tradin.common.annotation.DisableAuthInSwagger;
 import com.tradin.module.strategy.controller.dto.request.SubscribeStrategyRequestDto;
 import com.tradin.module.strategy.controller.dto.request.UnSubscribeStrategyRequestDto;
-import com.tradin.module.strategy.controller.dto.request.WebHookRequestDto;
 import com.tradin.module.strategy.controller.dto.response.FindStrategiesInfoResponseDto;
 import com.tradin.module.strategy.service.StrategyService;
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import com.tradin.module.strategy.service.signal.SignalBackPressure;
+import com.tradin.module.strategy.service.signal.SignalDeduplicator;
+import com.tradin.module.strategy.service.signal.SignalIngestor;
+import com.tradin.module.strategy.service.signal.SignalMetrics;
+import com.tradin.module.strategy.service.signal.SignalTopics;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.http.HttpStatus;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/v1/strategies")
 @Slf4j
-public class StrategyController {
+public class StrategyController implements ConsumerSeekAware {
+    private static final String WEBHOOK_TIMESTAMP_HEADER = "X-Tradin-Timestamp";
+    private static final String WEBHOOK_SIGNATURE_HEADER = "X-Tradin-Signature";
+
     private final StrategyService strategyService;
+    private final SignalBackPressure signalBackPressure;
+    private final SignalDeduplicator signalDeduplicator;
+    private final SignalIngestor signalIngestor;
+    private final SignalMetrics signalMetrics;
 
 //    //TODO - 테스트용 메서드! 추후 삭제 예
 //    @KafkaListener(topics = "tradin", groupId = "trading-strategy-executors")
@@ -30,24 +51,53 @@ public class StrategyController {
 //        log.info("time: " + request.getPosition().getTime());
 //    }
 
-    @KafkaListener(topics = "future-short-term-v1", groupId = "trading-strategy-executors")
-    public void handleFutureShortTermV1WebHook(@RequestBody WebHookRequestDto request) {
-        strategyService.handleWebHook(request.toServiceDto());
+    //역직렬화에 실패한 레코드는 값이 null로 들어오므로 건너뜀. 오프셋은 배치 처리가 끝난 뒤에 커밋됨
+    //이미 받은 알림이 다시 들어오면 매매 전에 걸러냄. 재시도 토픽으로 들어온 시그널은 여기를 거치지 않음
+    @KafkaListener(id = SignalTopics.LISTENER_ID,
+            topics = {SignalTopics.FUTURE_SHORT_TERM_V1, SignalTopics.FUTURE_LONG_TERM_V1, SignalTopics.SPOT_SHORT_TERM_V1, SignalTopics.SPOT_LONG_TERM_V1},
+            groupId = SignalTopics.CONSUMER_GROUP, containerFactory = "batchKafkaListenerContainerFactory")
+    public void handleWebHooks(List<ConsumerRecord<String, WebHookDto>> records, Acknowledgment acknowledgment) {
+        List<WebHookDto> requests = records.stream()
+                .filter(record -> record.value() != null)
+                .peek(signalMetrics::recordDelivery)
+                .filter(record -> !signalDeduplicator.isDuplicate(record.value(), SignalDeduplicator.origin(record)))
+                .map(ConsumerRecord::value)
+                .collect(Collectors.toList());
+
+        signalBackPressure.submit(records, () -> strategyService.handleWebHooks(requests), acknowledgment);
+    }
+
+    //리스너 빈이 받는 seek 콜백을 SignalBackPressure에 넘겨서, 커밋하지 못한 배치를 되돌려 다시 받게 함
+    @Override
+    public void registerSeekCallback(ConsumerSeekCallback callback) {
+        signalBackPressure.registerSeekCallback(callback);
     }
 
-    @KafkaListener(topics = "future-long-term-v1", groupId = "trading-strategy-executors")
-    public void handleFutureLongTermV1WebHook(@RequestBody WebHookRequestDto request) {
-        strategyService.handleWebHook(request.toServiceDto());
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        signalBackPressure.onPartitionsAssigned(assignments, callback);
     }
 
-    @KafkaListener(topics = "spot-short-term-v1", groupId = "trading-strategy-executors")
-    public void handleSpotShortTermV1WebHook(@RequestBody WebHookRequestDto request) {
-        strategyService.handleWebHook(request.toServiceDto());
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        signalBackPressure.onPartitionsRevoked(partitions);
     }
 
-    @KafkaListener(topics = "spot-long-term-v1", groupId = "trading-strategy-executors")
-    public void handleSpotLongTermV1WebHook(@RequestBody WebHookRequestDto request) {
-        strategyService.handleWebHook(request.toServiceDto());
+    @Override
+    public void unregisterSeekCallback() {
+        signalBackPressure.unregisterSeekCallback();
+    }
+
+    //본문은 Kafka 토픽과 같은 형식(바이너리 또는 JSON). 시그널을 파이프라인에 넘기면 매매가 끝나기 전에 바로 응답함
+    @Operation(summary = "전략 시그널 웹훅 수신")
+    @DisableAuthInSwagger
+    @PostMapping("/webhook/{topic}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void receiveWebHook(@PathVariable String topic,
+                               @RequestHeader(WEBHOOK_TIMESTAMP_HEADER) long timestamp,
+                               @RequestHeader(WEBHOOK_SIGNATURE_HEADER) String signature,
+                               @RequestBody byte[] body) {
+        signalIngestor.ingest(topic, timestamp, signature, body);
     }
 
     @Operation(summary = "선물 전략 전체 조회")
@@ -19,16 +19,4 @@ public class Count {
 
     @Column(nullable = false)
     private int lossCount;
-
-    public void increaseTotalTradeCount() {
-        this.totalTradeCount++;
-    }
-
-    public void increaseWinCount() {
-        this.winCount++;
-    }
-
-    public void increaseLossCount() {
-        this.lossCount++;
-    }
 }
@@ -39,29 +39,4 @@ public class Rate {
         this.totalLossRate = totalLossRate;
         this.averageProfitRate = averageProfitRate;
     }
-
-    public void updateTotalProfitRate(double profitRate) {
-        this.totalProfitRate += profitRate;
-    }
-
-    public void updateTotalLossRate(double lossRate) {
-        this.totalLossRate -= lossRate;
-    }
-
-    public void updateWinRate(int winCount, int totalTradeCount) {
-        this.winningRate = (double) winCount / totalTradeCount * 100;
-    }
-
-    public void updateSimpleProfitRate() {
-        this.simpleProfitRate = this.totalProfitRate - this.totalLossRate;
-    }
-
-    public void updateCompoundProfitRate(double profitRate) {
-        this.compoundProfitRate = this.compoundProfitRate * (1 + profitRate);
-    }
-
-    public void updateAverageProfitRate(int totalTradeCount) {
-        this.averageProfitRate = this.simpleProfitRate / totalTradeCount;
-    }
-
 }
@@ -5,11 +5,14 @@ import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 
+//통계 컬럼(rate, count, profitFactor)은 StrategyStatsWriter가 JDBC로 씀. 엔티티 flush가 읽어 둔 예전 통계로 덮어쓰지 않도록 바뀐 컬럼만 update함
 @Getter
 @Entity
+@DynamicUpdate
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Strategy extends AuditTime {
     @Id
@@ -64,26 +67,6 @@ public class Strategy extends AuditTime {
         this.currentPosition = position;
     }
 
-    public void updateMetaData(Position position) {
-        double profitRate = calculateProfitRate(position);
-
-        if (isWin(profitRate)) {
-            increaseWinCount();
-            updateTotalProfitRate(profitRate);
-        } else {
-            increaseLossCount();
-            updateTotalLossRate(profitRate);
-        }
-
-        increaseTotalTradeCount();
-        updateProfitFactor();
-        updateWinRate();
-        updateSimpleProfitRate();
-        updateCompoundProfitRate(profitRate);
-        updateCurrentPosition(position);
-        updateAverageProfitRate();
-    }
-
     public boolean isLongPosition() {
         return this.currentPosition.getTradingType() == TradingType.LONG;
     }
@@ -91,62 +74,4 @@ public class Strategy extends AuditTime {
     public boolean isShortPosition() {
         return this.currentPosition.getTradingType() == TradingType.SHORT;
     }
-
-    private void increaseTotalTradeCount() {
-        this.count.increaseTotalTradeCount();
-    }
-
-    private boolean isWin(double profitRate) {
-        return profitRate > 0;
-    }
-
-    private boolean isCurrentPositionLong() {
-        return this.currentPosition.getTradingType() == TradingType.LONG;
-    }
-
-    private void increaseWinCount() {
-        this.count.increaseWinCount();
-    }
-
-    private void increaseLossCount() {
-        this.count.increaseLossCount();
-    }
-
-    private void updateTotalProfitRate(double profitRate) {
-        this.rate.updateTotalProfitRate(profitRate);
-    }
-
-    private void updateTotalLossRate(double profitRate) {
-        this.rate.updateTotalLossRate(profitRate);
-    }
-
-    private void updateProfitFactor() {
-        this.profitFactor = this.rate.getTotalProfitRate() / this.rate.getTotalLossRate();
-    }
-
-    private void updateWinRate() {
-        this.rate.updateWinRate(this.count.getWinCount(), this.count.getTotalTradeCount());
-    }
-
-    private void updateSimpleProfitRate() {
-        rate.updateSimpleProfitRate();
-    }
-
-    private void updateCompoundProfitRate(double profitRate) {
-        rate.updateCompoundProfitRate(profitRate);
-    }
-
-    private void updateAverageProfitRate() {
-        this.rate.updateAverageProfitRate(this.count.getTotalTradeCount());
-    }
-
-    private double calculateProfitRate(Position position) {
-        if (isCurrentPositionLong()) {
-            return ((double) (position.getPrice() - this.currentPosition.getPrice()) / this.currentPosition.getPrice())
-                    * 100;
-        }
-
-        return ((double) (this.currentPosition.getPrice() - position.getPrice()) / this.currentPosition.getPrice())
-                * 100;
-    }
 }
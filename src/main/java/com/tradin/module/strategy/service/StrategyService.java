@@ -2,8 +2,11 @@ package com.tradin.module.strategy.service;
 
 import com.tradin.common.exception.ExceptionMessage;
 import com.tradin.common.exception.TradinException;
+import com.tradin.common.secret.BinanceCredential;
+import com.tradin.common.secret.CredentialVault;
 import com.tradin.common.utils.AESUtils;
 import com.tradin.module.feign.service.BinanceFeignService;
+import com.tradin.module.feign.stream.UserDataStreamManager;
 import com.tradin.module.history.service.HistoryService;
 import com.tradin.module.strategy.controller.dto.response.FindStrategiesInfoResponseDto;
 import com.tradin.module.strategy.domain.Position;
@@ -11,19 +14,32 @@ import com.tradin.module.strategy.domain.Strategy;
 import com.tradin.module.strategy.domain.TradingType;
 import com.tradin.module.strategy.domain.repository.StrategyRepository;
 import com.tradin.module.strategy.domain.repository.dao.StrategyInfoDao;
+import com.tradin.module.strategy.service.dto.StrategySignalsDto;
 import com.tradin.module.strategy.service.dto.UnSubscribeStrategyDto;
 import com.tradin.module.strategy.service.dto.WebHookDto;
+import com.tradin.module.strategy.service.signal.SignalCoalescer;
+import com.tradin.module.strategy.service.signal.SignalDispatcher;
+import com.tradin.module.strategy.service.signal.SignalRetryPublisher;
+import com.tradin.module.strategy.service.stats.StrategyStatsStore;
+import com.tradin.module.trade.domain.TradeOutcome;
 import com.tradin.module.trade.service.TradeService;
+import com.tradin.module.trade.service.dto.AutoTradingResultDto;
 import com.tradin.module.users.domain.Users;
+import com.tradin.module.users.domain.repository.dao.AutoTradingSubscriberDao;
+import com.tradin.module.users.service.AutoTradingSubscriberIndex;
 import com.tradin.module.users.service.UsersService;
 import com.tradin.module.users.service.dto.SubscribeStrategyDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -36,36 +52,114 @@ public class StrategyService {
     private final TradeService tradeService;
     private final StrategyRepository strategyRepository;
     private final AESUtils aesUtils;
+    private final CredentialVault credentialVault;
+    private final UserDataStreamManager userDataStreamManager;
+    private final AutoTradingSubscriberIndex autoTradingSubscriberIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final SignalDispatcher signalDispatcher;
+    private final SignalRetryPublisher signalRetryPublisher;
+    private final StrategyStatsStore strategyStatsStore;
 
-    public void handleWebHook(WebHookDto request) {
-        Strategy strategy = findByName(request.getName());
-        String strategyName = strategy.getName();
-        TradingType strategyCurrentPosition = strategy.getCurrentPosition().getTradingType();
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<Void> handleWebHooks(List<WebHookDto> requests) {
+        return handleWebHooks(requests, 0);
+    }
+
+    //배치로 받은 시그널은 전략별로 묶어서 마지막 시그널 기준으로 한 번만 매매함. 중간 시그널 때문에 포지션을 뒤집었다가 되돌리지 않음
+    //반환된 future는 배치 안의 모든 전략이 매매와 기록까지 끝나거나, 실패한 전략의 시그널이 재시도 토픽에 들어가면 완료됨
+    //전략별 레인에 넘기기만 하므로 커넥션을 잡지 않음
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<Void> handleWebHooks(List<WebHookDto> requests, int attempt) {
+        CompletableFuture<?>[] handled = SignalCoalescer.coalesce(requests).stream()
+                .map(signals -> signalDispatcher.dispatch(signals.getStrategyName(), () -> handleStrategySignals(signals))
+                        .handle((ignored, e) -> e)
+                        .thenCompose(e -> e == null
+                                ? CompletableFuture.<Void>completedFuture(null)
+                                : signalRetryPublisher.publish(signals.getSignals(), attempt, e)))
+                .toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(handled);
+    }
+
+    //같은 전략의 앞 시그널이 매매와 기록까지 끝난 뒤에 실행되므로 전략의 현재 포지션은 항상 최신 값
+    private CompletableFuture<Void> handleStrategySignals(StrategySignalsDto received) {
+        String strategyName = received.getStrategyName();
+        Position currentPosition = transactionTemplate.execute(status -> findByName(strategyName).getCurrentPosition());
+
+        //현재 포지션보다 오래된 시그널로 매매하면 지난 포지션으로 되돌아가므로 매매도 기록도 하지 않음
+        Optional<StrategySignalsDto> newer = received.newerThan(currentPosition.getTime());
+        if (newer.isEmpty()) {
+            log.warn("Stale signals dropped - strategy: {}, latest: {}, current: {}", strategyName,
+                    received.getLatest().getPosition().getTime(), currentPosition.getTime());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        StrategySignalsDto signals = newer.get();
+        TradingType strategyCurrentPosition = currentPosition.getTradingType();
+
+        if (signals.getSupersededCount() > 0) {
+            log.info("Signals coalesced - strategy: {}, superseded: {}, target: {}", strategyName, signals.getSupersededCount(), signals.getTargetPosition());
+        }
+
+        //중간 시그널들이 서로 상쇄돼서 마지막 포지션이 지금과 같으면 매매 없이 기록만 함
+        if (signals.getTargetPosition() == strategyCurrentPosition) {
+            recordSignals(strategyName, signals.getPositions());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return autoTrading(strategyName, strategyCurrentPosition, signals.getLatest().getSignalId()).thenAccept(result -> {
+            logAutoTradingResult(result);
+            recordSignals(strategyName, signals.getPositions());
+        });
+    }
 
-        autoTrading(strategyName, strategyCurrentPosition).thenRun(() -> {
-            closeOngoingHistory(strategy, request.getPosition());
-            createNewHistory(strategy, request.getPosition());
-            updateStrategyMetaData(strategy, request.getPosition());
+    //매매가 끝난 뒤 다른 쓰레드에서 실행되므로 짧은 트랜잭션을 따로 열어서 같은 전략의 시그널을 순서대로 한 번에 기록함
+    //승률/손익비/수익률 같은 통계는 StrategyStatsTopology가 시그널 토픽에서 따로 집계하므로 여기서는 포지션만 바꿈
+    private void recordSignals(String strategyName, List<Position> positions) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Strategy strategy = findByName(strategyName);
+            for (Position position : positions) {
+                closeOngoingHistory(strategy, position);
+                createNewHistory(strategy, position);
+                strategy.updateCurrentPosition(position);
+            }
         });
     }
 
     public FindStrategiesInfoResponseDto findFutureStrategiesInfo() {
-        List<StrategyInfoDao> strategiesInfo = findFutureStrategyInfoDaos();
+        List<StrategyInfoDao> strategiesInfo = withLiveStats(findFutureStrategyInfoDaos());
         return new FindStrategiesInfoResponseDto(strategiesInfo);
     }
 
     public FindStrategiesInfoResponseDto findSpotStrategiesInfo() {
-        List<StrategyInfoDao> strategiesInfo = findSpotStrategyInfoDaos();
+        List<StrategyInfoDao> strategiesInfo = withLiveStats(findSpotStrategyInfoDaos());
         return new FindStrategiesInfoResponseDto(strategiesInfo);
     }
 
+    //이 인스턴스가 집계하는 전략은 상태 저장소 값을, 나머지는 집계 결과가 다시 쓰인 DB 값을 씀
+    private List<StrategyInfoDao> withLiveStats(List<StrategyInfoDao> strategiesInfo) {
+        return strategiesInfo.stream()
+                .map(strategyInfo -> strategyStatsStore.find(strategyInfo.getName())
+                        .map(stats -> stats.overlay(strategyInfo))
+                        .orElse(strategyInfo))
+                .collect(Collectors.toList());
+    }
+
     public void subscribeStrategy(SubscribeStrategyDto request) {
         Users savedUser = getUserFromSecurityContext();
         Strategy strategy = findById(request.getId());
         String encryptedApiKey = getEncryptedKey(request.getBinanceApiKey());
         String encryptedSecretKey = getEncryptedKey(request.getBinanceSecretKey());
 
+        if (savedUser.getBinanceApiKey() != null) {
+            userDataStreamManager.close(savedUser);
+        }
+        removeFromSubscriberIndex(savedUser);
+
         savedUser.subscribeStrategy(strategy, encryptedApiKey, encryptedSecretKey);
+        credentialVault.invalidate(savedUser.getId());
+        userDataStreamManager.open(savedUser);
+        autoTradingSubscriberIndex.add(AutoTradingSubscriberDao.of(savedUser, strategy.getName()));
     }
 
     public void unsubscribeStrategy(UnSubscribeStrategyDto request) {
@@ -73,15 +167,31 @@ public class StrategyService {
         //TODO - Strategy strategy = savedUser.getStrategy(); 이거 되는지 테스트
         if (request.isPositionClose() && isUserPositionExist(savedUser.getCurrentPositionType())) {
             String side = getSideFromUserCurrentPosition(savedUser);
-            closePosition(savedUser.getBinanceApiKey(), savedUser.getBinanceSecretKey(), side);
+            closePosition(getCredential(savedUser), side);
         }
 
+        if (savedUser.getBinanceApiKey() != null) {
+            userDataStreamManager.close(savedUser);
+        }
+        removeFromSubscriberIndex(savedUser);
         savedUser.unsubscribeStrategy();
+        credentialVault.invalidate(savedUser.getId());
+    }
 
+    private void removeFromSubscriberIndex(Users user) {
+        if (user.getStrategy() != null) {
+            autoTradingSubscriberIndex.remove(user.getStrategy().getName(), user.getId());
+        }
+    }
+
+    private CompletableFuture<AutoTradingResultDto> autoTrading(String name, TradingType tradingType, String signalId) {
+        return tradeService.autoTrading(name, tradingType, signalId);
     }
 
-    private CompletableFuture<Void> autoTrading(String name, TradingType tradingType) {
-        return tradeService.autoTrading(name, tradingType);
+    private static void logAutoTradingResult(AutoTradingResultDto result) {
+        log.info("AutoTrading Result - strategy: {}, total: {}, success: {}, failed: {}, timeout: {}, maxElapsed: {}ms",
+                result.getStrategyName(), result.getTotalCount(), result.countOf(TradeOutcome.SUCCESS),
+                result.countOf(TradeOutcome.FAILED), result.countOf(TradeOutcome.TIMEOUT), result.getMaxElapsedMillis());
     }
 
     private static String getSideFromUserCurrentPosition(Users savedUser) {
@@ -96,8 +206,12 @@ public class StrategyService {
 //        strategyRepository.save(strategy);
 //    }
 
-    private void closePosition(String apiKey, String secretKey, String side) {
-        binanceFeignService.closePosition(apiKey, secretKey, side);
+    private void closePosition(BinanceCredential credential, String side) {
+        binanceFeignService.closePosition(credential, side);
+    }
+
+    private BinanceCredential getCredential(Users user) {
+        return credentialVault.get(user.getId(), user.getBinanceApiKey(), user.getBinanceSecretKey());
     }
 
     private String getEncryptedKey(String key) {
@@ -121,10 +235,6 @@ public class StrategyService {
         historyService.createNewHistory(strategy, position);
     }
 
-    private void updateStrategyMetaData(Strategy strategy, Position position) {
-        strategy.updateMetaData(position);
-    }
-
     private Strategy findByName(String name) {
         return strategyRepository.findByName(name)
                 .orElseThrow(() -> new TradinException(ExceptionMessage.NOT_FOUND_STRATEGY_EXCEPTION));
@@ -0,0 +1,55 @@
+package com.tradin.module.strategy.service.dto;
+
+import com.tradin.module.strategy.domain.Position;
+import com.tradin.module.strategy.domain.TradingType;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+//한 전략에 대해 배치 안에서 들어온 시그널들. 도착 순서를 유지함
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class StrategySignalsDto {
+    private final String strategyName;
+    private final List<WebHookDto> signals;
+
+    public static StrategySignalsDto of(String strategyName, List<WebHookDto> signals) {
+        return new StrategySignalsDto(strategyName, List.copyOf(signals));
+    }
+
+    //재시도/재처리된 시그널이 그 사이 기록된 새 시그널보다 늦게 올 수 있으므로, 전략의 현재 포지션보다 새 시그널만 남김
+    public Optional<StrategySignalsDto> newerThan(LocalDateTime time) {
+        List<WebHookDto> newer = signals.stream()
+                .filter(signal -> signal.getPosition().getTime().isAfter(time))
+                .collect(Collectors.toList());
+
+        if (newer.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new StrategySignalsDto(strategyName, newer));
+    }
+
+    public WebHookDto getLatest() {
+        return signals.get(signals.size() - 1);
+    }
+
+    //매매는 마지막 시그널 기준으로 한 번만 하고, 히스토리와 전략 통계는 모든 시그널을 순서대로 기록함
+    public List<Position> getPositions() {
+        return signals.stream()
+                .map(WebHookDto::getPosition)
+                .collect(Collectors.toList());
+    }
+
+    public TradingType getTargetPosition() {
+        return getLatest().getPosition().getTradingType();
+    }
+
+    public int getSupersededCount() {
+        return signals.size() - 1;
+    }
+}
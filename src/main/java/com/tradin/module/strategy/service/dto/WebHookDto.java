@@ -13,4 +13,14 @@ public class WebHookDto {
     public static WebHookDto of(String name, Position position) {
         return new WebHookDto(name, position);
     }
+
+    //웹훅에는 별도 id가 없으므로 전략 이름, 포지션, 시그널 시각으로 만듦. 같은 시그널이 다시 들어와도 같은 값
+    public String getSignalId() {
+        return name + ":" + position.getTradingType() + ":" + position.getTime();
+    }
+
+    //중복 알림 판별용. 시각까지 같아도 가격이 다르면 다른 시그널로 봄
+    public String getIdempotencyKey() {
+        return getSignalId() + ":" + position.getPrice();
+    }
 }
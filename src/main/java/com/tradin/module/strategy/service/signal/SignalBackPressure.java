@@ -0,0 +1,181 @@
+package com.tradin.module.strategy.service.signal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.AbstractConsumerSeekAware;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+//처리 중인 시그널 수, 전략별 레인의 대기 작업 수, async 풀의 큐 사용량을 보고 시그널 컨슈머를 멈추거나 다시 시작함
+//오프셋은 배치 처리가 끝난 뒤에, 받은 순서대로만 커밋함. 뒤 배치가 먼저 끝나도 앞 배치가 끝날 때까지 기다림
+//시그널 리스너(StrategyController)가 seek 콜백을 넘겨주므로, 커밋하지 못한 배치는 컨슈머를 되돌려서 다시 받음
+@Slf4j
+@Component
+public class SignalBackPressure extends AbstractConsumerSeekAware {
+    private final KafkaListenerEndpointRegistry registry;
+    private final ThreadPoolTaskExecutor asyncExecutor;
+    private final SignalDispatcher signalDispatcher;
+    private final int pauseWatermark;
+    private final int resumeWatermark;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Deque<PendingBatch> pendingBatches = new ArrayDeque<>();
+    private volatile boolean paused;
+
+    public SignalBackPressure(KafkaListenerEndpointRegistry registry,
+                              @Qualifier("asyncExecutor") ThreadPoolTaskExecutor asyncExecutor,
+                              SignalDispatcher signalDispatcher,
+                              @Value("${kafka.signal.pause-watermark:200}") int pauseWatermark,
+                              @Value("${kafka.signal.resume-watermark:50}") int resumeWatermark) {
+        this.registry = registry;
+        this.asyncExecutor = asyncExecutor;
+        this.signalDispatcher = signalDispatcher;
+        this.pauseWatermark = pauseWatermark;
+        this.resumeWatermark = resumeWatermark;
+    }
+
+    public void submit(List<? extends ConsumerRecord<?, ?>> records, Supplier<CompletableFuture<Void>> handler, Acknowledgment acknowledgment) {
+        int recordCount = records.size();
+        inFlight.addAndGet(recordCount);
+        PendingBatch batch = enqueue(firstOffsets(records), acknowledgment);
+        adjust();
+
+        CompletableFuture<Void> handled;
+        try {
+            handled = handler.get();
+        } catch (RuntimeException e) {
+            handled = CompletableFuture.failedFuture(e);
+        }
+
+        //매매에 실패한 시그널은 재시도 토픽/DLT에 넣은 뒤 완료되므로 커밋함
+        //future가 실패했다면 재시도 토픽/DLT에도 넣지 못한 것이라 커밋하지 않고 다시 받음
+        handled.whenComplete((ignored, e) -> {
+            inFlight.addAndGet(-recordCount);
+            if (e != null) {
+                log.error("Signal batch could not be handed to the retry topic, seeking back - records: {}, offsets: {}",
+                        recordCount, batch.firstOffsets, e);
+            }
+            complete(batch, e == null);
+            adjust();
+        });
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    //큐가 비면서 용량이 돌아오는 경우는 완료 콜백이 없으므로 주기적으로도 확인함
+    @Scheduled(fixedDelayString = "${kafka.signal.back-pressure-check-millis:500}")
+    public void adjust() {
+        if (!paused && isSaturated()) {
+            setPaused(true);
+        } else if (paused && isDrained()) {
+            setPaused(false);
+        }
+    }
+
+    private boolean isSaturated() {
+        BlockingQueue<Runnable> queue = asyncExecutor.getThreadPoolExecutor().getQueue();
+        return inFlight.get() >= pauseWatermark || queue.remainingCapacity() == 0 || signalDispatcher.hasSaturatedLane();
+    }
+
+    private boolean isDrained() {
+        BlockingQueue<Runnable> queue = asyncExecutor.getThreadPoolExecutor().getQueue();
+        return inFlight.get() <= resumeWatermark && queue.remainingCapacity() > queue.size() && !signalDispatcher.hasSaturatedLane();
+    }
+
+    private synchronized void setPaused(boolean paused) {
+        MessageListenerContainer container = registry.getListenerContainer(SignalTopics.LISTENER_ID);
+        if (container == null || this.paused == paused) {
+            return;
+        }
+
+        this.paused = paused;
+        if (paused) {
+            container.pause();
+        } else {
+            container.resume();
+        }
+        log.info("Signal consumer {} - inFlight: {}, asyncQueue: {}", paused ? "paused" : "resumed", inFlight.get(),
+                asyncExecutor.getThreadPoolExecutor().getQueue().size());
+    }
+
+    private synchronized PendingBatch enqueue(Map<TopicPartition, Long> firstOffsets, Acknowledgment acknowledgment) {
+        PendingBatch batch = new PendingBatch(firstOffsets, acknowledgment);
+        pendingBatches.addLast(batch);
+        return batch;
+    }
+
+    private synchronized void complete(PendingBatch batch, boolean succeeded) {
+        batch.done = true;
+        batch.failed = !succeeded;
+        while (!pendingBatches.isEmpty() && pendingBatches.peekFirst().done) {
+            PendingBatch head = pendingBatches.pollFirst();
+            if (head.failed) {
+                rewind(head);
+                return;
+            }
+            head.acknowledgment.acknowledge();
+        }
+    }
+
+    //실패한 배치와 그 뒤에 받은 배치는 커밋하지 않고, 파티션별로 가장 앞 오프셋으로 되돌림
+    //같은 레코드를 다시 받으면 위치가 같아서 중복으로 걸러지지 않고, 이미 반영된 시그널은 오래된 시그널로 걸러짐
+    private void rewind(PendingBatch failed) {
+        Map<TopicPartition, Long> offsets = new HashMap<>(failed.firstOffsets);
+        for (PendingBatch batch : pendingBatches) {
+            batch.firstOffsets.forEach((partition, offset) -> offsets.merge(partition, offset, Math::min));
+        }
+        pendingBatches.clear();
+
+        offsets.forEach((partition, offset) -> {
+            ConsumerSeekCallback callback = getSeekCallbackFor(partition);
+            if (callback == null) {
+                //리밸런싱으로 넘어간 파티션은 새 컨슈머가 커밋된 위치부터 다시 받음
+                log.warn("No seek callback for revoked partition - partition: {}, offset: {}", partition, offset);
+                return;
+            }
+            callback.seek(partition.topic(), partition.partition(), offset);
+        });
+    }
+
+    private static Map<TopicPartition, Long> firstOffsets(List<? extends ConsumerRecord<?, ?>> records) {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (ConsumerRecord<?, ?> record : records) {
+            offsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset(), Math::min);
+        }
+        return offsets;
+    }
+
+    private static class PendingBatch {
+        private final Map<TopicPartition, Long> firstOffsets;
+        private final Acknowledgment acknowledgment;
+        private boolean done;
+        private boolean failed;
+
+        private PendingBatch(Map<TopicPartition, Long> firstOffsets, Acknowledgment acknowledgment) {
+            this.firstOffsets = firstOffsets;
+            this.acknowledgment = acknowledgment;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.module.strategy.service.dto.StrategySignalsDto;
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+//배치로 받은 시그널을 전략별로 묶음. 전략 사이의 순서는 처음 도착한 순서, 전략 안에서는 도착 순서를 유지함
+@UtilityClass
+public class SignalCoalescer {
+    public static List<StrategySignalsDto> coalesce(List<WebHookDto> signals) {
+        Map<String, List<WebHookDto>> signalsByStrategy = new LinkedHashMap<>();
+        for (WebHookDto signal : signals) {
+            signalsByStrategy.computeIfAbsent(signal.getName(), name -> new ArrayList<>()).add(signal);
+        }
+
+        return signalsByStrategy.entrySet().stream()
+                .map(entry -> StrategySignalsDto.of(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+}
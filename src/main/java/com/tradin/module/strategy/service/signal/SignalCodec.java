@@ -0,0 +1,86 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.module.strategy.domain.Position;
+import com.tradin.module.strategy.domain.TradingType;
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import lombok.experimental.UtilityClass;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+//시그널 바이너리 포맷 (big-endian)
+//[0] magic 0xA7, [1] version, [2] tradingType 코드, [3..6] price, [7..14] time 초(UTC 기준 epoch), [15..18] time 나노초, [19..20] 이름 길이, [21..] 이름(UTF-8)
+//JSON은 '{'나 공백으로 시작하므로 첫 바이트로 구분함. 필드를 추가할 때는 version을 올리고 이전 버전도 계속 읽을 수 있게 해야 함
+@UtilityClass
+public class SignalCodec {
+    public static final byte MAGIC = (byte) 0xA7;
+    public static final byte VERSION = 1;
+
+    private static final int HEADER_LENGTH = 21;
+    //코드는 바이트에 그대로 저장되므로 순서를 바꾸지 말고 뒤에만 추가
+    private static final TradingType[] TRADING_TYPES = {TradingType.LONG, TradingType.SHORT, TradingType.NONE, TradingType.BOTH};
+
+    public static boolean isBinary(byte[] data) {
+        return data.length > 0 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(WebHookDto signal) {
+        byte[] name = signal.getName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > 0xFFFF) {
+            throw new SerializationException("Strategy name too long: " + name.length + " bytes");
+        }
+        Position position = signal.getPosition();
+        LocalDateTime time = position.getTime();
+
+        return ByteBuffer.allocate(HEADER_LENGTH + name.length)
+                .put(MAGIC)
+                .put(VERSION)
+                .put(code(position.getTradingType()))
+                .putInt(position.getPrice())
+                .putLong(time.toEpochSecond(ZoneOffset.UTC))
+                .putInt(time.getNano())
+                .putShort((short) name.length)
+                .put(name)
+                .array();
+    }
+
+    public static WebHookDto decode(byte[] data) {
+        if (data.length < HEADER_LENGTH || data[0] != MAGIC) {
+            throw new SerializationException("Not a binary signal");
+        }
+        if (data[1] != VERSION) {
+            throw new SerializationException("Unsupported signal version: " + data[1]);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data, 2, data.length - 2);
+        TradingType tradingType = tradingType(buffer.get());
+        int price = buffer.getInt();
+        LocalDateTime time = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        int nameLength = Short.toUnsignedInt(buffer.getShort());
+        if (buffer.remaining() != nameLength) {
+            throw new SerializationException("Corrupted signal: expected " + nameLength + " name bytes but got " + buffer.remaining());
+        }
+        String name = new String(data, HEADER_LENGTH, nameLength, StandardCharsets.UTF_8);
+
+        return WebHookDto.of(name, Position.of(tradingType, time, price));
+    }
+
+    private static byte code(TradingType tradingType) {
+        for (byte code = 0; code < TRADING_TYPES.length; code++) {
+            if (TRADING_TYPES[code] == tradingType) {
+                return code;
+            }
+        }
+        throw new SerializationException("Unknown trading type: " + tradingType);
+    }
+
+    private static TradingType tradingType(byte code) {
+        if (code < 0 || code >= TRADING_TYPES.length) {
+            throw new SerializationException("Unknown trading type code: " + code);
+        }
+        return TRADING_TYPES[code];
+    }
+}
@@ -0,0 +1,64 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+//DLT에 쌓인 시그널을 원인을 해결한 뒤 운영자가 다시 흘려보내는 actuator 엔드포인트 (POST /actuator/signaldlt, 운영자 계정만)
+//첫 번째 재시도 토픽으로 보내므로 다시 실패하면 재시도를 처음부터 거침. 그 사이 새 시그널이 기록됐으면 StrategyService가 오래된 시그널로 보고 버림
+@Slf4j
+@Component
+@Endpoint(id = "signaldlt")
+@RequiredArgsConstructor
+public class SignalDeadLetterEndpoint {
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final SignalRetryPublisher signalRetryPublisher;
+
+    @WriteOperation
+    public synchronized int replay(int maxRecords) {
+        Properties properties = new Properties();
+        properties.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxRecords));
+
+        try (Consumer<String, Object> consumer = consumerFactory.createConsumer(SignalTopics.DEAD_LETTER_REPLAY_GROUP, null, null, properties)) {
+            consumer.subscribe(List.of(SignalTopics.DEAD_LETTER));
+            int replayed = 0;
+
+            while (replayed < maxRecords) {
+                ConsumerRecords<String, Object> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+
+                List<CompletableFuture<Void>> sent = new ArrayList<>();
+                for (ConsumerRecord<String, Object> record : records) {
+                    if (record.value() instanceof WebHookDto) {
+                        sent.add(signalRetryPublisher.replay((WebHookDto) record.value()));
+                    }
+                }
+                //다시 보낸 게 확인된 뒤에 커밋해야 재처리 도중 죽어도 시그널이 사라지지 않음
+                CompletableFuture.allOf(sent.toArray(CompletableFuture[]::new)).join();
+                consumer.commitSync();
+                replayed += records.count();
+            }
+
+            log.info("Replayed {} dead-lettered signals", replayed);
+            return replayed;
+        }
+    }
+}
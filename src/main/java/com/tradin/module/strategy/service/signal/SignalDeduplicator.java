@@ -0,0 +1,198 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+//같은 알림이 두 번 들어와서 구독자 전체가 두 번 매매하는 것을 막음. 전략/포지션/가격/시각이 같으면 같은 시그널로 봄
+//최근 시그널은 개수와 시간으로 제한된 메모리 창에 두고 주기적으로 스냅샷을 떠서 재시작 후에도 이어감. 다른 노드가 받은 시그널은 Redis로 확인
+//시그널을 처음 받은 레코드 위치(topic-partition@offset)를 같이 저장해서, 커밋 전에 죽고 다시 받은 같은 레코드는 중복으로 보지 않음
+@Slf4j
+@Component
+public class SignalDeduplicator {
+    private static final String REDIS_KEY_PREFIX = "signal:dedup:";
+    private static final String DIRECT_ORIGIN_PREFIX = "direct:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Path snapshotPath;
+    private final int capacity;
+    private final Duration window;
+    private final LinkedHashMap<String, SeenSignal> seen = new LinkedHashMap<>();
+    private boolean dirty;
+
+    public SignalDeduplicator(RedisTemplate<String, Object> redisTemplate,
+                              @Value("${trade.signal.dedup.snapshot-path:journal/signal-dedup.snapshot}") String snapshotPath,
+                              @Value("${trade.signal.dedup.capacity:10000}") int capacity,
+                              @Value("${trade.signal.dedup.window-hours:24}") long windowHours) {
+        this.redisTemplate = redisTemplate;
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.capacity = capacity;
+        this.window = Duration.ofHours(windowHours);
+        restore();
+    }
+
+    public static String origin(ConsumerRecord<?, ?> record) {
+        return record.topic() + "-" + record.partition() + "@" + record.offset();
+    }
+
+    //HTTP로 받아서 Kafka에 쓴 뒤 직접 처리하는 시그널. 컨슈머가 같은 레코드를 받으면 위치가 달라서 중복으로 거름
+    public static String directOrigin(RecordMetadata metadata) {
+        return DIRECT_ORIGIN_PREFIX + metadata.topic() + "-" + metadata.partition() + "@" + metadata.offset();
+    }
+
+    public boolean isDuplicate(WebHookDto signal, String origin) {
+        String key = signal.getIdempotencyKey();
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            evictExpired(now);
+            SeenSignal previous = seen.get(key);
+            if (previous != null) {
+                return logIfDuplicate(key, origin, previous.origin);
+            }
+        }
+
+        String firstOrigin = claimInRedis(key, origin);
+        synchronized (this) {
+            seen.putIfAbsent(key, new SeenSignal(firstOrigin, now));
+            dirty = true;
+            evictOverflow();
+        }
+        return logIfDuplicate(key, origin, firstOrigin);
+    }
+
+    @Scheduled(fixedDelayString = "${trade.signal.dedup.snapshot-interval-millis:5000}")
+    public void snapshot() {
+        List<Map.Entry<String, SeenSignal>> entries;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            entries = new ArrayList<>(seen.entrySet());
+            dirty = false;
+        }
+
+        try {
+            write(entries);
+        } catch (IOException e) {
+            log.warn("Failed to write signal dedup snapshot - path: {}, message: {}", snapshotPath, e.getMessage());
+            synchronized (this) {
+                dirty = true;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        snapshot();
+    }
+
+    //먼저 저장한 노드의 레코드 위치를 돌려줌. Redis가 안 되면 로컬 창만으로 판단함
+    private String claimInRedis(String key, String origin) {
+        try {
+            String redisKey = REDIS_KEY_PREFIX + key;
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(redisKey, origin, window))) {
+                return origin;
+            }
+            Object firstOrigin = redisTemplate.opsForValue().get(redisKey);
+            return firstOrigin == null ? origin : firstOrigin.toString();
+        } catch (RuntimeException e) {
+            log.warn("Redis unavailable for signal dedup, using local window only - key: {}, message: {}", key, e.getMessage());
+            return origin;
+        }
+    }
+
+    private static boolean logIfDuplicate(String key, String origin, String firstOrigin) {
+        if (Objects.equals(origin, firstOrigin)) {
+            return false;
+        }
+        log.warn("Duplicate signal dropped - key: {}, origin: {}, first seen at: {}", key, origin, firstOrigin);
+        return true;
+    }
+
+    private void evictExpired(long now) {
+        Iterator<SeenSignal> iterator = seen.values().iterator();
+        while (iterator.hasNext() && iterator.next().seenAtMillis < now - window.toMillis()) {
+            iterator.remove();
+            dirty = true;
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<SeenSignal> iterator = seen.values().iterator();
+        while (seen.size() > capacity && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    //[개수] 다음에 [키, 레코드 위치, 받은 시각]을 반복. 임시 파일에 다 쓴 뒤 교체해서 쓰다 죽어도 이전 스냅샷이 남음
+    private void write(List<Map.Entry<String, SeenSignal>> entries) throws IOException {
+        if (snapshotPath.getParent() != null) {
+            Files.createDirectories(snapshotPath.getParent());
+        }
+        Path temporary = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(entries.size());
+            for (Map.Entry<String, SeenSignal> entry : entries) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue().origin);
+                out.writeLong(entry.getValue().seenAtMillis);
+            }
+        }
+        Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void restore() {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                seen.put(in.readUTF(), new SeenSignal(in.readUTF(), in.readLong()));
+            }
+        } catch (IOException e) {
+            //스냅샷이 깨져도 Redis로 다른 노드/이전 실행의 시그널은 계속 걸러지므로 비운 채로 시작함
+            log.warn("Ignoring unreadable signal dedup snapshot - path: {}, message: {}", snapshotPath, e.getMessage());
+            seen.clear();
+            return;
+        }
+
+        evictExpired(System.currentTimeMillis());
+        evictOverflow();
+        log.info("Restored {} recent signals for dedup", seen.size());
+    }
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static class SeenSignal {
+        private final String origin;
+        private final long seenAtMillis;
+    }
+}
@@ -0,0 +1,35 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.tradin.module.strategy.controller.dto.request.WebHookRequestDto;
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+
+//바이너리 시그널은 SignalCodec으로 바로 WebHookDto를 만들고, 아직 JSON을 보내는 프로듀서의 메시지는 기존처럼 Jackson으로 읽음
+public class SignalDeserializer implements Deserializer<WebHookDto> {
+    private static final ObjectReader JSON_READER = JacksonUtils.enhancedObjectMapper().readerFor(WebHookRequestDto.class);
+
+    @Override
+    public WebHookDto deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (SignalCodec.isBinary(data)) {
+            return SignalCodec.decode(data);
+        }
+        return fromJson(data);
+    }
+
+    private static WebHookDto fromJson(byte[] data) {
+        try {
+            WebHookRequestDto request = JSON_READER.readValue(data);
+            return request.toServiceDto();
+        } catch (IOException e) {
+            throw new SerializationException("Can't deserialize signal", e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.tradin.module.strategy.service.signal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+//전략 이름별 레인. 다른 전략끼리는 병렬로 진행되고, 같은 전략의 시그널은 앞 시그널의 매매와 기록이 끝난 뒤에 순서대로 실행됨
+//dispatch는 컨슈머 쓰레드를 막지 않음. 대기 중인 작업이 한도에 닿은 레인이 있으면 SignalBackPressure가 컨슈머를 멈춤
+@Slf4j
+@Component
+public class SignalDispatcher {
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final Executor signalExecutor;
+    private final SignalMetrics signalMetrics;
+    private final int maxPendingPerStrategy;
+
+    public SignalDispatcher(@Qualifier("signalExecutor") Executor signalExecutor,
+                            SignalMetrics signalMetrics,
+                            @Value("${trade.signal.max-pending-per-strategy:16}") int maxPendingPerStrategy) {
+        this.signalExecutor = signalExecutor;
+        this.signalMetrics = signalMetrics;
+        this.maxPendingPerStrategy = maxPendingPerStrategy;
+    }
+
+    public CompletableFuture<Void> dispatch(String strategyName, Supplier<CompletableFuture<Void>> task) {
+        Lane lane = lanes.computeIfAbsent(strategyName, name -> new Lane());
+        lane.pending.incrementAndGet();
+
+        long dispatchedAt = System.nanoTime();
+        AtomicLong startedAt = new AtomicLong(dispatchedAt);
+        CompletableFuture<Void> handled = lane.append(() -> {
+            startedAt.set(System.nanoTime());
+            signalMetrics.recordLaneWait(strategyName, startedAt.get() - dispatchedAt);
+            return task.get();
+        }, signalExecutor);
+        handled.whenComplete((ignored, e) -> {
+            lane.pending.decrementAndGet();
+            signalMetrics.recordProcessing(strategyName, System.nanoTime() - startedAt.get(), e == null);
+            if (e != null) {
+                log.error("Signal handling failed - strategy: {}, message: {}", strategyName, e.getMessage(), e);
+            }
+        });
+        return handled;
+    }
+
+    public int getPendingCount(String strategyName) {
+        Lane lane = lanes.get(strategyName);
+        return lane == null ? 0 : lane.pending.get();
+    }
+
+    public boolean hasSaturatedLane() {
+        return lanes.values().stream().anyMatch(lane -> lane.pending.get() >= maxPendingPerStrategy);
+    }
+
+    private static class Lane {
+        private final AtomicInteger pending = new AtomicInteger();
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+        //앞 작업이 실패해도 다음 작업은 실행되도록 tail에는 결과와 상관없이 완료되는 future를 둠
+        private synchronized CompletableFuture<Void> append(Supplier<CompletableFuture<Void>> task, Executor executor) {
+            CompletableFuture<Void> handled = tail.thenComposeAsync(ignored -> task.get(), executor);
+            tail = handled.handle((ignored, e) -> null);
+            return handled;
+        }
+    }
+}
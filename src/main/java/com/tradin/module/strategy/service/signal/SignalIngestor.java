@@ -0,0 +1,79 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.common.exception.TradinException;
+import com.tradin.module.strategy.service.StrategyService;
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static com.tradin.common.exception.ExceptionMessage.INVALID_SIGNAL_PAYLOAD_EXCEPTION;
+import static com.tradin.common.exception.ExceptionMessage.NOT_FOUND_SIGNAL_TOPIC_EXCEPTION;
+import static com.tradin.common.exception.ExceptionMessage.SIGNAL_WRITE_FAIL_EXCEPTION;
+
+//HTTP로 직접 받은 시그널을 컨슈머가 받을 때까지 기다리지 않고 바로 시그널 파이프라인에 넣음
+//Kafka에 먼저 쓰고 확인된 레코드 위치로 중복 표시를 하므로, 쓰기에 실패하면 표시 없이 에러로 응답해서 보낸 쪽이 다시 보내게 함
+//컨슈머가 같은 레코드를 다시 받으면 SignalDeduplicator가 걸러냄
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SignalIngestor {
+    private final WebhookSignatureVerifier webhookSignatureVerifier;
+    private final SignalDeduplicator signalDeduplicator;
+    private final StrategyService strategyService;
+    private final KafkaTemplate<String, WebHookDto> kafkaTemplate;
+    private final SignalMetrics signalMetrics;
+    private final SignalDeserializer signalDeserializer = new SignalDeserializer();
+
+    public void ingest(String topic, long timestamp, String signature, byte[] body) {
+        if (!SignalTopics.SIGNAL_TOPICS.contains(topic)) {
+            throw new TradinException(NOT_FOUND_SIGNAL_TOPIC_EXCEPTION);
+        }
+        webhookSignatureVerifier.verify(timestamp, signature, body);
+        WebHookDto signal = decode(topic, body);
+        signalMetrics.recordIngest(topic, signal);
+
+        SendResult<String, WebHookDto> sent = send(topic, signal);
+        if (signalDeduplicator.isDuplicate(signal, SignalDeduplicator.directOrigin(sent.getRecordMetadata()))) {
+            return;
+        }
+
+        strategyService.handleWebHooks(List.of(signal))
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        log.error("Webhook signal handling failed - signalId: {}, message: {}", signal.getSignalId(), e.getMessage());
+                    }
+                });
+    }
+
+    private SendResult<String, WebHookDto> send(String topic, WebHookDto signal) {
+        try {
+            return kafkaTemplate.send(topic, signal.getName(), signal).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TradinException(SIGNAL_WRITE_FAIL_EXCEPTION);
+        } catch (ExecutionException e) {
+            log.error("Webhook signal not written to Kafka - topic: {}, signalId: {}, message: {}", topic, signal.getSignalId(), e.getCause().getMessage());
+            throw new TradinException(SIGNAL_WRITE_FAIL_EXCEPTION);
+        }
+    }
+
+    private WebHookDto decode(String topic, byte[] body) {
+        try {
+            WebHookDto signal = signalDeserializer.deserialize(topic, body);
+            if (signal == null || signal.getName() == null || signal.getPosition() == null
+                    || signal.getPosition().getTradingType() == null || signal.getPosition().getTime() == null) {
+                throw new TradinException(INVALID_SIGNAL_PAYLOAD_EXCEPTION);
+            }
+            return signal;
+        } catch (SerializationException e) {
+            throw new TradinException(INVALID_SIGNAL_PAYLOAD_EXCEPTION);
+        }
+    }
+}
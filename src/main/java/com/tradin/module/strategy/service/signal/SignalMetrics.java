@@ -0,0 +1,63 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//시그널 구간별 시간을 토픽/전략 태그로 기록함. 파티션/쓰레드 수를 정할 때 /actuator/prometheus로 확인
+//signal.delivery.delay: 레코드 timestamp부터 리스너 진입까지, signal.lane.wait: 레인에 넣은 뒤 실행될 때까지, signal.processing: 전략별 매매와 기록에 걸린 시간
+//코얼레싱 이후에는 토픽 정보가 없으므로 전략이 마지막으로 들어온 토픽을 기억해 두고 씀
+@Component
+@RequiredArgsConstructor
+public class SignalMetrics {
+    private static final String UNKNOWN_TOPIC = "unknown";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, String> topicByStrategy = new ConcurrentHashMap<>();
+
+    public void recordDelivery(ConsumerRecord<?, WebHookDto> record) {
+        WebHookDto signal = record.value();
+        topicByStrategy.put(signal.getName(), record.topic());
+        timer("signal.delivery.delay", "Time from Kafka record timestamp to listener entry", record.topic(), signal.getName())
+                .record(Math.max(0, System.currentTimeMillis() - record.timestamp()), TimeUnit.MILLISECONDS);
+    }
+
+    //HTTP로 들어온 시그널은 브로커를 거치지 않으므로 토픽만 기억함
+    public void recordIngest(String topic, WebHookDto signal) {
+        topicByStrategy.put(signal.getName(), topic);
+    }
+
+    public void recordLaneWait(String strategyName, long nanos) {
+        timer("signal.lane.wait", "Time a strategy signal waited for its lane and the signal executor", topicOf(strategyName), strategyName)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordProcessing(String strategyName, long nanos, boolean success) {
+        Timer.builder("signal.processing")
+                .description("Time to trade and record one strategy's signals")
+                .tag("topic", topicOf(strategyName))
+                .tag("strategy", strategyName)
+                .tag("outcome", success ? "success" : "failure")
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private String topicOf(String strategyName) {
+        return topicByStrategy.getOrDefault(strategyName, UNKNOWN_TOPIC);
+    }
+
+    private Timer timer(String name, String description, String topic, String strategyName) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("topic", topic)
+                .tag("strategy", strategyName)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,57 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.module.strategy.service.StrategyService;
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+//재시도 토픽별 컨슈머. 메인 토픽 컨슈머와 분리돼 있어서 재시도를 기다리는 동안에도 메인 토픽 처리량은 그대로 유지됨
+//토픽 안의 레코드는 같은 지연 시간을 가지므로 앞 레코드의 예정 시각까지만 기다리면 됨
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SignalRetryListener {
+    private final StrategyService strategyService;
+
+    @KafkaListener(topics = SignalTopics.RETRY_1S, groupId = SignalTopics.RETRY_CONSUMER_GROUP, containerFactory = "retryKafkaListenerContainerFactory")
+    public void retryAfter1s(ConsumerRecord<String, WebHookDto> record, Acknowledgment acknowledgment) {
+        retry(record, acknowledgment);
+    }
+
+    @KafkaListener(topics = SignalTopics.RETRY_5S, groupId = SignalTopics.RETRY_CONSUMER_GROUP, containerFactory = "retryKafkaListenerContainerFactory")
+    public void retryAfter5s(ConsumerRecord<String, WebHookDto> record, Acknowledgment acknowledgment) {
+        retry(record, acknowledgment);
+    }
+
+    @KafkaListener(topics = SignalTopics.RETRY_25S, groupId = SignalTopics.RETRY_CONSUMER_GROUP, containerFactory = "retryKafkaListenerContainerFactory")
+    public void retryAfter25s(ConsumerRecord<String, WebHookDto> record, Acknowledgment acknowledgment) {
+        retry(record, acknowledgment);
+    }
+
+    private void retry(ConsumerRecord<String, WebHookDto> record, Acknowledgment acknowledgment) {
+        long remainingMillis = record.timestamp() + SignalTopics.retryDelayMillis(record.topic()) - System.currentTimeMillis();
+        if (remainingMillis > 0) {
+            acknowledgment.nack(Duration.ofMillis(remainingMillis));
+            return;
+        }
+
+        if (record.value() == null) {
+            log.error("Unreadable retry signal skipped - topic: {}, offset: {}", record.topic(), record.offset());
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        //실패하면 handleWebHooks가 다음 재시도 토픽이나 DLT로 넘기므로, 여기서는 끝날 때까지 기다렸다가 커밋만 함
+        //기다리는 동안 같은 전략의 새 시그널이 기록됐으면 handleWebHooks가 이 시그널을 버림
+        int attempt = SignalRetryPublisher.getAttempt(record.headers());
+        strategyService.handleWebHooks(List.of(record.value()), attempt).join();
+        acknowledgment.acknowledge();
+    }
+}
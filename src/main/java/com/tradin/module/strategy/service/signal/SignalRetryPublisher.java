@@ -0,0 +1,81 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+//처리에 실패한 시그널을 다음 재시도 토픽으로, 재시도를 다 쓰면 실패 정보와 함께 DLT로 보냄
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SignalRetryPublisher {
+    public static final String ATTEMPT_HEADER = "x-signal-attempt";
+    public static final String EXCEPTION_HEADER = "x-signal-exception";
+    public static final String EXCEPTION_MESSAGE_HEADER = "x-signal-exception-message";
+    public static final String FAILED_AT_HEADER = "x-signal-failed-at";
+
+    private final KafkaTemplate<String, WebHookDto> kafkaTemplate;
+
+    //attempt는 지금까지 실패한 재시도 횟수. 메인 토픽에서 실패하면 0
+    public CompletableFuture<Void> publish(List<WebHookDto> signals, int attempt, Throwable cause) {
+        Throwable failure = unwrap(cause);
+        String topic = attempt < SignalTopics.RETRY_TOPICS.size() ? SignalTopics.RETRY_TOPICS.get(attempt) : SignalTopics.DEAD_LETTER;
+        log.warn("Signal failed - strategy: {}, attempt: {}, next: {}, message: {}", signals.get(0).getName(), attempt, topic, failure.getMessage());
+
+        CompletableFuture<?>[] sent = signals.stream()
+                .map(signal -> send(topic, signal, attempt + 1, failure))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(sent);
+    }
+
+    public CompletableFuture<Void> replay(WebHookDto signal) {
+        ProducerRecord<String, WebHookDto> record = new ProducerRecord<>(SignalTopics.RETRY_TOPICS.get(0), signal.getName(), signal);
+        record.headers().add(ATTEMPT_HEADER, bytes("0"));
+        return kafkaTemplate.send(record).completable().thenAccept(result -> {
+        });
+    }
+
+    public static int getAttempt(Iterable<Header> headers) {
+        return header(headers, ATTEMPT_HEADER).map(Integer::parseInt).orElse(0);
+    }
+
+    private CompletableFuture<Void> send(String topic, WebHookDto signal, int attempt, Throwable failure) {
+        ProducerRecord<String, WebHookDto> record = new ProducerRecord<>(topic, signal.getName(), signal);
+        record.headers()
+                .add(ATTEMPT_HEADER, bytes(String.valueOf(attempt)))
+                .add(EXCEPTION_HEADER, bytes(failure.getClass().getName()))
+                .add(EXCEPTION_MESSAGE_HEADER, bytes(String.valueOf(failure.getMessage())))
+                .add(FAILED_AT_HEADER, bytes(String.valueOf(System.currentTimeMillis())));
+
+        return kafkaTemplate.send(record).completable().thenAccept(result -> {
+        });
+    }
+
+    private static Optional<String> header(Iterable<Header> headers, String name) {
+        String value = null;
+        for (Header header : headers) {
+            if (header.key().equals(name)) {
+                value = new String(header.value(), StandardCharsets.UTF_8);
+            }
+        }
+        return Optional.ofNullable(value);
+    }
+
+    private static Throwable unwrap(Throwable cause) {
+        return cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,11 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import org.apache.kafka.common.serialization.Serializer;
+
+public class SignalSerializer implements Serializer<WebHookDto> {
+    @Override
+    public byte[] serialize(String topic, WebHookDto signal) {
+        return signal == null ? null : SignalCodec.encode(signal);
+    }
+}
@@ -0,0 +1,29 @@
+package com.tradin.module.strategy.service.signal;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.List;
+
+@UtilityClass
+public class SignalTopics {
+    public static final String FUTURE_SHORT_TERM_V1 = "future-short-term-v1";
+    public static final String FUTURE_LONG_TERM_V1 = "future-long-term-v1";
+    public static final String SPOT_SHORT_TERM_V1 = "spot-short-term-v1";
+    public static final String SPOT_LONG_TERM_V1 = "spot-long-term-v1";
+    public static final List<String> SIGNAL_TOPICS = List.of(FUTURE_SHORT_TERM_V1, FUTURE_LONG_TERM_V1, SPOT_SHORT_TERM_V1, SPOT_LONG_TERM_V1);
+    public static final String CONSUMER_GROUP = "trading-strategy-executors";
+    public static final String LISTENER_ID = "signal-listener";
+
+    //실패한 시그널은 지연 시간이 늘어나는 재시도 토픽을 차례로 거친 뒤 DLT로 감. 토픽 이름의 숫자가 지연 시간(ms)
+    public static final String RETRY_1S = "signal-retry-1000";
+    public static final String RETRY_5S = "signal-retry-5000";
+    public static final String RETRY_25S = "signal-retry-25000";
+    public static final String DEAD_LETTER = "signal-dlt";
+    public static final List<String> RETRY_TOPICS = List.of(RETRY_1S, RETRY_5S, RETRY_25S);
+    public static final String RETRY_CONSUMER_GROUP = "trading-strategy-retriers";
+    public static final String DEAD_LETTER_REPLAY_GROUP = "trading-strategy-dlt-replayers";
+
+    public static long retryDelayMillis(String retryTopic) {
+        return Long.parseLong(retryTopic.substring(retryTopic.lastIndexOf('-') + 1));
+    }
+}
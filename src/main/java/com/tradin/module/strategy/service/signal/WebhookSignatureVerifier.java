@@ -0,0 +1,68 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.common.exception.TradinException;
+import com.tradin.common.secret.SecretKeyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static com.tradin.common.exception.ExceptionMessage.EXPIRED_WEBHOOK_TIMESTAMP_EXCEPTION;
+import static com.tradin.common.exception.ExceptionMessage.INVALID_WEBHOOK_SIGNATURE_EXCEPTION;
+import static com.tradin.common.exception.ExceptionMessage.SIGNATURE_GENERATION_FAIL_EXCEPTION;
+
+//웹훅 본문 서명 검증. 서명은 "요청 시각(ms).본문"에 대한 HMAC-SHA256 hex이고, 시각이 허용 범위를 벗어난 요청은 재전송으로 보고 거부함
+@Component
+public class WebhookSignatureVerifier {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte SEPARATOR = '.';
+
+    private final ThreadLocal<Mac> macs;
+    private final long maxClockSkewMillis;
+
+    public WebhookSignatureVerifier(SecretKeyManager secretKeyManager,
+                                    @Value("${trade.signal.webhook.max-clock-skew-millis:300000}") long maxClockSkewMillis) {
+        SecretKeySpec key = new SecretKeySpec(secretKeyManager.getWebhookSecret().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> newMac(key));
+        this.maxClockSkewMillis = maxClockSkewMillis;
+    }
+
+    public void verify(long timestamp, String signature, byte[] body) {
+        if (Math.abs(System.currentTimeMillis() - timestamp) > maxClockSkewMillis) {
+            throw new TradinException(EXPIRED_WEBHOOK_TIMESTAMP_EXCEPTION);
+        }
+
+        byte[] expected = sign(timestamp, body);
+        byte[] actual;
+        try {
+            actual = HexFormat.of().parseHex(signature);
+        } catch (IllegalArgumentException e) {
+            throw new TradinException(INVALID_WEBHOOK_SIGNATURE_EXCEPTION);
+        }
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new TradinException(INVALID_WEBHOOK_SIGNATURE_EXCEPTION);
+        }
+    }
+
+    public byte[] sign(long timestamp, byte[] body) {
+        Mac mac = macs.get();
+        mac.update(Long.toString(timestamp).getBytes(StandardCharsets.US_ASCII));
+        mac.update(SEPARATOR);
+        return mac.doFinal(body);
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new TradinException(SIGNATURE_GENERATION_FAIL_EXCEPTION);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.tradin.module.strategy.service.stats;
+
+import com.tradin.module.strategy.domain.Count;
+import com.tradin.module.strategy.domain.Position;
+import com.tradin.module.strategy.domain.Rate;
+import com.tradin.module.strategy.domain.Strategy;
+import com.tradin.module.strategy.domain.TradingType;
+import com.tradin.module.strategy.domain.repository.dao.StrategyInfoDao;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+//전략 통계 집계 값. 불변 객체라 시그널마다 새 값을 만듦
+//현재 포지션보다 늦지 않은 시그널(중복/순서가 바뀐 시그널)은 무시해서 같은 레코드를 다시 처리해도 결과가 같음
+//포지션이 없는 값은 다음 시그널을 기준 포지션으로만 쓰고 매매로 세지 않음
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class StrategyStats {
+    private static final StrategyStats EMPTY = new StrategyStats(null, null, 0, 0, 0, 0, 0, 0, 0);
+
+    private final TradingType tradingType;
+    private final LocalDateTime time;
+    private final int price;
+    private final int totalTradeCount;
+    private final int winCount;
+    private final int lossCount;
+    private final double totalProfitRate;
+    private final double totalLossRate;
+    private final double compoundProfitRate;
+
+    public static StrategyStats empty() {
+        return EMPTY;
+    }
+
+    public static StrategyStats of(TradingType tradingType, LocalDateTime time, int price, int totalTradeCount, int winCount, int lossCount,
+                                   double totalProfitRate, double totalLossRate, double compoundProfitRate) {
+        return new StrategyStats(tradingType, time, price, totalTradeCount, winCount, lossCount, totalProfitRate, totalLossRate, compoundProfitRate);
+    }
+
+    //DB의 현재 포지션은 StrategyService가 이미 이번 시그널로 바꿨을 수 있으므로, 기준 포지션은 매매 내역에서 이번 시그널 직전 포지션을 받음
+    //직전 포지션이 없으면(첫 시그널) 다음 시그널을 기준 포지션으로만 씀
+    public static StrategyStats of(Strategy strategy, Position reference) {
+        Count count = strategy.getCount();
+        Rate rate = strategy.getRate();
+        return of(reference == null ? null : reference.getTradingType(), reference == null ? null : reference.getTime(),
+                reference == null ? 0 : reference.getPrice(), count.getTotalTradeCount(), count.getWinCount(), count.getLossCount(),
+                rate.getTotalProfitRate(), rate.getTotalLossRate(), rate.getCompoundProfitRate());
+    }
+
+    public boolean isEmpty() {
+        return time == null;
+    }
+
+    public StrategyStats apply(Position position) {
+        if (isEmpty()) {
+            return of(position.getTradingType(), position.getTime(), position.getPrice(),
+                    totalTradeCount, winCount, lossCount, totalProfitRate, totalLossRate, compoundProfitRate);
+        }
+        if (!position.getTime().isAfter(time)) {
+            return this;
+        }
+
+        double profitRate = calculateProfitRate(position);
+        boolean win = profitRate > 0;
+        return of(position.getTradingType(), position.getTime(), position.getPrice(),
+                totalTradeCount + 1,
+                win ? winCount + 1 : winCount,
+                win ? lossCount : lossCount + 1,
+                win ? totalProfitRate + profitRate : totalProfitRate,
+                win ? totalLossRate : totalLossRate - profitRate,
+                compoundProfitRate * (1 + profitRate));
+    }
+
+    public double getProfitFactor() {
+        return totalProfitRate / totalLossRate;
+    }
+
+    public double getWinningRate() {
+        return (double) winCount / totalTradeCount * 100;
+    }
+
+    public double getSimpleProfitRate() {
+        return totalProfitRate - totalLossRate;
+    }
+
+    public double getAverageProfitRate() {
+        return getSimpleProfitRate() / totalTradeCount;
+    }
+
+    //DB에서 읽은 전략 정보에 집계 값을 덮어씀. 이름, 보유 기간처럼 집계하지 않는 값은 그대로 둠
+    public StrategyInfoDao overlay(StrategyInfoDao strategyInfo) {
+        return new StrategyInfoDao(strategyInfo.getId(), strategyInfo.getName(), getProfitFactor(), getWinningRate(), getSimpleProfitRate(),
+                compoundProfitRate, totalProfitRate, totalLossRate, getAverageProfitRate(), totalTradeCount, winCount, lossCount,
+                tradingType, time, price, strategyInfo.getAverageHoldingPeriod());
+    }
+
+    private double calculateProfitRate(Position position) {
+        if (tradingType == TradingType.LONG) {
+            return ((double) (position.getPrice() - price) / price) * 100;
+        }
+        return ((double) (price - position.getPrice()) / price) * 100;
+    }
+}
@@ -0,0 +1,65 @@
+package com.tradin.module.strategy.service.stats;
+
+import com.tradin.module.strategy.domain.TradingType;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+//상태 저장소/changelog에 쓰는 고정 길이 포맷. [0] version, [1] tradingType 순번(-1이면 빈 값), 이후 time(초, 나노초), price, 횟수 3개, 수익률 3개
+//저장소는 재시작 후에도 남으므로 TradingType 순서나 필드가 바뀌면 version을 올려야 함
+public class StrategyStatsSerde implements Serde<StrategyStats> {
+    private static final byte VERSION = 1;
+    private static final int LENGTH = 2 + Long.BYTES + Integer.BYTES * 5 + Double.BYTES * 3;
+    private static final TradingType[] TRADING_TYPES = TradingType.values();
+
+    @Override
+    public Serializer<StrategyStats> serializer() {
+        return (topic, stats) -> stats == null ? null : serialize(stats);
+    }
+
+    @Override
+    public Deserializer<StrategyStats> deserializer() {
+        return (topic, data) -> data == null ? null : deserialize(data);
+    }
+
+    private static byte[] serialize(StrategyStats stats) {
+        if (stats.isEmpty()) {
+            return ByteBuffer.allocate(LENGTH).put(VERSION).put((byte) -1).array();
+        }
+
+        return ByteBuffer.allocate(LENGTH)
+                .put(VERSION)
+                .put((byte) stats.getTradingType().ordinal())
+                .putLong(stats.getTime().toEpochSecond(ZoneOffset.UTC))
+                .putInt(stats.getTime().getNano())
+                .putInt(stats.getPrice())
+                .putInt(stats.getTotalTradeCount())
+                .putInt(stats.getWinCount())
+                .putInt(stats.getLossCount())
+                .putDouble(stats.getTotalProfitRate())
+                .putDouble(stats.getTotalLossRate())
+                .putDouble(stats.getCompoundProfitRate())
+                .array();
+    }
+
+    private static StrategyStats deserialize(byte[] data) {
+        if (data.length != LENGTH || data[0] != VERSION) {
+            throw new SerializationException("Unsupported strategy stats format");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data, 1, data.length - 1);
+        byte tradingType = buffer.get();
+        if (tradingType < 0) {
+            return StrategyStats.empty();
+        }
+
+        LocalDateTime time = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        return StrategyStats.of(TRADING_TYPES[tradingType], time, buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt(),
+                buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+    }
+}
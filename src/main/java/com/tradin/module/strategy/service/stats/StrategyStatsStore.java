@@ -0,0 +1,38 @@
+package com.tradin.module.strategy.service.stats;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+//전략 통계 상태 저장소 조회(interactive query). 이 인스턴스가 맡은 전략만 보이고,
+//다른 인스턴스가 맡았거나 리밸런싱 중인 전략은 비어 있으므로 호출하는 쪽에서 StrategyStatsWriter가 다시 쓴 DB 값을 씀
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StrategyStatsStore {
+    private final StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+
+    public Optional<StrategyStats> find(String strategyName) {
+        KafkaStreams kafkaStreams = streamsBuilderFactoryBean.getKafkaStreams();
+        if (kafkaStreams == null || kafkaStreams.state() != KafkaStreams.State.RUNNING) {
+            return Optional.empty();
+        }
+
+        try {
+            ReadOnlyKeyValueStore<String, StrategyStats> store = kafkaStreams.store(
+                    StoreQueryParameters.fromNameAndType(StrategyStatsTopology.STORE_NAME, QueryableStoreTypes.keyValueStore()));
+            return Optional.ofNullable(store.get(strategyName)).filter(stats -> !stats.isEmpty());
+        } catch (InvalidStateStoreException e) {
+            log.debug("Strategy stats store not queryable - strategy: {}, message: {}", strategyName, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
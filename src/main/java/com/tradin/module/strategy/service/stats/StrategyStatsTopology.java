@@ -0,0 +1,67 @@
+package com.tradin.module.strategy.service.stats;
+
+import com.tradin.module.history.domain.repository.HistoryRepository;
+import com.tradin.module.strategy.domain.Position;
+import com.tradin.module.strategy.domain.repository.StrategyRepository;
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import com.tradin.module.strategy.service.signal.SignalDeserializer;
+import com.tradin.module.strategy.service.signal.SignalSerializer;
+import com.tradin.module.strategy.service.signal.SignalTopics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+//시그널 토픽을 전략 이름으로 다시 나눠서 전략별 통계를 RocksDB 상태 저장소에 집계함. 파티션이 늘면 전략도 인스턴스별로 나눠서 집계됨
+//전략이 처음 들어올 때 한 번만 DB의 통계와 그 시그널 직전 포지션으로 시작 값을 잡고, 집계가 바뀔 때마다 DB에 다시 써서 다른 인스턴스도 최신 값을 보게 함
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StrategyStatsTopology {
+    public static final String STORE_NAME = "strategy-stats";
+
+    private final StrategyRepository strategyRepository;
+    private final HistoryRepository historyRepository;
+    private final StrategyStatsWriter strategyStatsWriter;
+
+    @Autowired
+    public void buildPipeline(StreamsBuilder streamsBuilder) {
+        build(streamsBuilder, (name, position) -> strategyRepository.findByName(name).map(strategy -> StrategyStats.of(strategy,
+                historyRepository.findLastEntryPositionBefore(strategy.getId(), position.getTime()).orElse(null))), strategyStatsWriter::write);
+    }
+
+    public static void build(StreamsBuilder streamsBuilder, BiFunction<String, Position, Optional<StrategyStats>> seeder,
+                             BiConsumer<String, StrategyStats> writer) {
+        Serde<WebHookDto> signalSerde = Serdes.serdeFrom(new SignalSerializer(), new SignalDeserializer());
+
+        streamsBuilder.stream(SignalTopics.SIGNAL_TOPICS, Consumed.with(Serdes.String(), signalSerde))
+                .filter((key, signal) -> signal != null)
+                .selectKey((key, signal) -> signal.getName())
+                .groupByKey(Grouped.with(Serdes.String(), signalSerde))
+                .aggregate(StrategyStats::empty,
+                        (name, signal, stats) -> (stats.isEmpty() ? seed(name, signal.getPosition(), seeder) : stats).apply(signal.getPosition()),
+                        Materialized.<String, StrategyStats, KeyValueStore<Bytes, byte[]>>as(STORE_NAME)
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(new StrategyStatsSerde()))
+                .toStream()
+                .foreach(writer::accept);
+    }
+
+    private static StrategyStats seed(String name, Position position, BiFunction<String, Position, Optional<StrategyStats>> seeder) {
+        StrategyStats seeded = seeder.apply(name, position).orElse(StrategyStats.empty());
+        log.info("Strategy stats seeded - strategy: {}, totalTradeCount: {}", name, seeded.getTotalTradeCount());
+        return seeded;
+    }
+}
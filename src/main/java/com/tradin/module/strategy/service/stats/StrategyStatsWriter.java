@@ -0,0 +1,34 @@
+package com.tradin.module.strategy.service.stats;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+//집계한 전략 통계를 strategy 테이블에 다시 씀. 상태 저장소는 그 전략을 맡은 인스턴스에서만 조회되므로 다른 인스턴스는 이 값을 봄
+//포지션은 StrategyService가 기록하므로 통계 컬럼만 바꿈
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StrategyStatsWriter {
+    private static final String UPDATE_STATS_SQL = "UPDATE strategy SET total_trade_count = ?, win_count = ?, loss_count = ?, "
+            + "winning_rate = ?, simple_profit_rate = ?, compound_profit_rate = ?, total_profit_rate = ?, total_loss_rate = ?, "
+            + "average_profit_rate = ?, profit_factor = ? WHERE name = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    //실패해도 다음 시그널 때 그때까지의 집계 값을 다시 쓰므로 스트림을 멈추지 않음
+    public void write(String strategyName, StrategyStats stats) {
+        if (stats.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.update(UPDATE_STATS_SQL, stats.getTotalTradeCount(), stats.getWinCount(), stats.getLossCount(),
+                    stats.getWinningRate(), stats.getSimpleProfitRate(), stats.getCompoundProfitRate(), stats.getTotalProfitRate(),
+                    stats.getTotalLossRate(), stats.getAverageProfitRate(), stats.getProfitFactor(), strategyName);
+        } catch (RuntimeException e) {
+            log.error("Strategy stats write failed - strategy: {}, totalTradeCount: {}", strategyName, stats.getTotalTradeCount(), e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.tradin.module.trade.domain;
+
+import com.tradin.module.strategy.domain.TradingType;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+//매매 파이프라인이 남기는 포지션 변경/매매 결과. 시그널 하나 분량을 TradeOutboxWriter가 JDBC 배치로 한 번에 기록함
+@Entity
+@Getter
+@Table(indexes = {@Index(name = "index_trade_outbox_signal_id", columnList = "signalId")})
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class TradeOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private TradeOutboxType type;
+
+    @Column(nullable = false)
+    private String signalId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    private TradingType positionType;
+
+    @Enumerated(EnumType.STRING)
+    private TradeOutcome outcome;
+
+    private String message;
+
+    private long elapsedMillis;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public static TradeOutbox positionChanged(String signalId, Long userId, TradingType positionType) {
+        return new TradeOutbox(null, TradeOutboxType.POSITION_CHANGED, signalId, userId, positionType, null, null, 0, LocalDateTime.now());
+    }
+
+    public static TradeOutbox tradeResult(String signalId, Long userId, TradeOutcome outcome, String message, long elapsedMillis) {
+        return new TradeOutbox(null, TradeOutboxType.TRADE_RESULT, signalId, userId, null, outcome, message, elapsedMillis, LocalDateTime.now());
+    }
+
+    public boolean isPositionChanged() {
+        return type == TradeOutboxType.POSITION_CHANGED;
+    }
+}
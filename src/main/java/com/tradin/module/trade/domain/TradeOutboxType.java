@@ -0,0 +1,12 @@
+package com.tradin.module.trade.domain;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public enum TradeOutboxType {
+    POSITION_CHANGED("포지션 변경"),
+    TRADE_RESULT("매매 결과");
+
+    private final String value;
+}
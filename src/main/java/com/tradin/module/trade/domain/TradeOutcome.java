@@ -0,0 +1,13 @@
+package com.tradin.module.trade.domain;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public enum TradeOutcome {
+    SUCCESS("성공"),
+    FAILED("실패"),
+    TIMEOUT("시간 초과");
+
+    private final String value;
+}
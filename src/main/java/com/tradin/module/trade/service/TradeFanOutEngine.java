@@ -0,0 +1,99 @@
+package com.tradin.module.trade.service;
+
+import com.tradin.module.trade.service.dto.TradeResultDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class TradeFanOutEngine {
+    private final int maxInFlight;
+    private final long deadlineMillis;
+
+    public TradeFanOutEngine(@Value("${trade.fan-out.max-in-flight:1000}") int maxInFlight,
+                             @Value("${trade.fan-out.deadline-millis:10000}") long deadlineMillis) {
+        this.maxInFlight = maxInFlight;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    //논블로킹 파이프라인은 쓰레드를 점유하지 않으므로 진행 중인 요청 수(maxInFlight)로만 제한
+    //시그널 단위 데드라인을 넘긴 유저는 TIMEOUT으로 기록
+    public <T> List<TradeResultDto> fanOutAsync(List<T> subscribers, Function<T, Long> idExtractor,
+                                                Function<T, CompletableFuture<?>> pipeline) {
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        Semaphore permits = new Semaphore(maxInFlight);
+        List<CompletableFuture<TradeResultDto>> futures = new ArrayList<>(subscribers.size());
+
+        for (T subscriber : subscribers) {
+            Long userId = idExtractor.apply(subscriber);
+
+            if (!tryAcquire(permits, deadline)) {
+                futures.add(CompletableFuture.completedFuture(TradeResultDto.timeout(userId, elapsedMillis(startedAt))));
+                continue;
+            }
+
+            futures.add(start(subscriber, userId, pipeline, permits, startedAt, deadline));
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    private <T> CompletableFuture<TradeResultDto> start(T subscriber, Long userId, Function<T, CompletableFuture<?>> pipeline,
+                                                       Semaphore permits, long startedAt, long deadline) {
+        CompletableFuture<?> execution;
+        try {
+            execution = pipeline.apply(subscriber);
+        } catch (RuntimeException e) {
+            execution = CompletableFuture.failedFuture(e);
+        }
+
+        //타임아웃으로 결과를 먼저 확정하더라도 permit은 실제 작업이 끝났을 때 반환
+        execution.whenComplete((ignored, throwable) -> permits.release());
+
+        return execution
+                .handle((ignored, throwable) -> toResult(userId, throwable, startedAt))
+                .completeOnTimeout(TradeResultDto.timeout(userId, deadlineMillis), remainingNanos(deadline), TimeUnit.NANOSECONDS);
+    }
+
+    private TradeResultDto toResult(Long userId, Throwable throwable, long startedAt) {
+        if (throwable == null) {
+            return TradeResultDto.success(userId, elapsedMillis(startedAt));
+        }
+
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        log.warn("AutoTrading Failed - userId: {}, message: {}", userId, cause.getMessage(), cause);
+        return TradeResultDto.failed(userId, cause.getMessage(), elapsedMillis(startedAt));
+    }
+
+    private boolean tryAcquire(Semaphore permits, long deadline) {
+        try {
+            return permits.tryAcquire(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long remainingNanos(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private static long elapsedMillis(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+}
@@ -0,0 +1,66 @@
+package com.tradin.module.trade.service;
+
+import com.tradin.module.trade.domain.TradeOutbox;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+//매매 파이프라인은 트랜잭션 없이 돌고, 시그널 하나의 포지션 변경/매매 결과를 끝난 뒤에 짧은 트랜잭션 하나에 JDBC 배치로 기록함
+//구독자 수가 늘어나도 시그널 하나에 쓰는 커넥션은 한 번 분량으로 고정됨
+//기록이 커밋된 뒤에야 시그널 처리가 끝난 것으로 보므로, 주문이 체결된 뒤 죽어도 시그널이 다시 처리되면서 포지션을 다시 기록함
+@Component
+public class TradeOutboxWriter {
+    private static final int MAX_MESSAGE_LENGTH = 255;
+    private static final String INSERT_OUTBOX_SQL = "INSERT INTO trade_outbox (type, signal_id, user_id, position_type, outcome, message, elapsed_millis, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_POSITION_SQL = "UPDATE users SET current_position_type = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public TradeOutboxWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             @Value("${trade.outbox.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    //실패하면 그대로 던짐. 호출한 쪽은 매매를 끝난 것으로 보지 않아야 함
+    public void write(List<TradeOutbox> outboxes) {
+        if (outboxes.isEmpty()) {
+            return;
+        }
+
+        List<TradeOutbox> positionChanges = outboxes.stream()
+                .filter(TradeOutbox::isPositionChanged)
+                .toList();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, outboxes, batchSize, (ps, outbox) -> {
+                ps.setString(1, outbox.getType().name());
+                ps.setString(2, outbox.getSignalId());
+                ps.setLong(3, outbox.getUserId());
+                ps.setString(4, outbox.getPositionType() == null ? null : outbox.getPositionType().name());
+                ps.setString(5, outbox.getOutcome() == null ? null : outbox.getOutcome().name());
+                ps.setString(6, truncate(outbox.getMessage()));
+                ps.setLong(7, outbox.getElapsedMillis());
+                ps.setTimestamp(8, Timestamp.valueOf(outbox.getCreatedAt()));
+            });
+            jdbcTemplate.batchUpdate(UPDATE_POSITION_SQL, positionChanges, batchSize, (ps, outbox) -> {
+                ps.setString(1, outbox.getPositionType().name());
+                ps.setLong(2, outbox.getUserId());
+            });
+        });
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_MESSAGE_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_MESSAGE_LENGTH);
+    }
+}
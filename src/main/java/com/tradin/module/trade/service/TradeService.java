@@ -1,132 +1,186 @@
 package com.tradin.module.trade.service;
 
-import com.tradin.common.utils.AESUtils;
+import com.tradin.common.secret.BinanceCredential;
+import com.tradin.common.secret.CredentialVault;
+import com.tradin.module.feign.journal.OrderOrigin;
 import com.tradin.module.feign.service.BinanceFeignService;
 import com.tradin.module.strategy.domain.TradingType;
-import com.tradin.module.users.domain.Users;
+import com.tradin.module.trade.domain.TradeOutbox;
+import com.tradin.module.trade.service.dto.AutoTradingResultDto;
+import com.tradin.module.trade.service.dto.TradeResultDto;
+import com.tradin.module.users.domain.repository.dao.AutoTradingSubscriberDao;
+import com.tradin.module.users.service.AutoTradingSubscriberIndex;
 import com.tradin.module.users.service.UsersService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
+//바이낸스 I/O 동안 DB 커넥션을 잡지 않도록 트랜잭션 없이 실행하고, 포지션 변경/매매 결과는 시그널마다 모아서 outbox에 한 번에 기록함
 @Service
-@Transactional
 @Slf4j
 @RequiredArgsConstructor
 public class TradeService {
     private final UsersService userService;
     private final BinanceFeignService binanceFeignService;
-    private final AESUtils aesUtils;
+    private final CredentialVault credentialVault;
+    private final TradeFanOutEngine tradeFanOutEngine;
+    private final TradeOutboxWriter tradeOutboxWriter;
+    private final AutoTradingSubscriberIndex autoTradingSubscriberIndex;
 
     @Async
-    public CompletableFuture<Void> autoTrading(String strategyName, TradingType strategyCurrentPosition) {
-        List<Users> autoTradingSubscribers = userService.findAutoTradingSubscriberByStrategyName(
+    public CompletableFuture<AutoTradingResultDto> autoTrading(String strategyName, TradingType strategyCurrentPosition, String signalId) {
+        List<AutoTradingSubscriberDao> autoTradingSubscribers = userService.findAutoTradingSubscriberByStrategyName(
                 strategyName);
+        PositionChanges positionChanges = new PositionChanges();
 
-        autoTradingSubscribers.forEach(user -> {
-            String apiKey = getDecryptedKey(user.getBinanceApiKey());
-            String secretKey = getDecryptedKey(user.getBinanceSecretKey());
+        List<TradeResultDto> results = tradeFanOutEngine.fanOutAsync(autoTradingSubscribers, AutoTradingSubscriberDao::getUserId, user -> {
+            BinanceCredential credential = getCredential(user);
+            OrderOrigin origin = OrderOrigin.of(signalId, user.getUserId());
 
-            trade(user, strategyCurrentPosition, apiKey, secretKey);
+            return trade(user, strategyCurrentPosition, credential, origin)
+                    .thenAccept(position -> changeCurrentPosition(positionChanges, user, position, signalId));
         });
 
-        return CompletableFuture.completedFuture(null);
+        //커밋되기 전에는 시그널을 끝난 것으로 보지 않음. 실패하면 시그널이 재시도되고, 이미 나간 주문은 저널이 걸러냄
+        List<TradeOutbox> changed = positionChanges.close();
+        List<TradeOutbox> outboxes = new ArrayList<>(changed);
+        results.forEach(result -> outboxes.add(TradeOutbox.tradeResult(signalId, result.getUserId(), result.getOutcome(),
+                result.getMessage(), result.getElapsedMillis())));
+        tradeOutboxWriter.write(outboxes);
+        autoTradingSubscriberIndex.updatePositions(strategyName, changed.stream()
+                .collect(Collectors.toMap(TradeOutbox::getUserId, TradeOutbox::getPositionType, (previous, latest) -> latest)));
+
+        return CompletableFuture.completedFuture(AutoTradingResultDto.of(strategyName, results));
     }
 
-    private String getDecryptedKey(String encryptedKey) {
-        return aesUtils.decrypt(encryptedKey);
+    private BinanceCredential getCredential(AutoTradingSubscriberDao user) {
+        return credentialVault.get(user.getUserId(), user.getBinanceApiKey(), user.getBinanceSecretKey());
     }
 
-    private void trade(Users user, TradingType strategyCurrentPosition, String apiKey, String secretKey) {
+    //바뀐 포지션을 돌려줌. 포지션이 그대로면 null
+    private CompletableFuture<TradingType> trade(AutoTradingSubscriberDao user, TradingType strategyCurrentPosition, BinanceCredential credential, OrderOrigin origin) {
 
         if (strategyCurrentPosition == TradingType.LONG) {
-            processLongPosition(apiKey, secretKey, "SELL", user);
+            return processLongPosition(credential, "SELL", user, origin);
         } else if (strategyCurrentPosition == TradingType.SHORT) {
-            processShortPosition(apiKey, secretKey, "BUY", user);
+            return processShortPosition(credential, "BUY", user, origin);
         }
 
+        return CompletableFuture.completedFuture(null);
     }
 
 
-    private void processLongPosition(String apikey, String secretKey, String side, Users user) {
+    private CompletableFuture<TradingType> processLongPosition(BinanceCredential credential, String side, AutoTradingSubscriberDao user, OrderOrigin origin) {
         if (isUserTradingTypeContainsShort(user)) {
-            int orderQuantity = calculateOrderQuantity(apikey, secretKey, user.getLeverage(), user.getQuantityRate());
-
-            if (isUserPositionExist(user.getCurrentPositionType())) {
-                switchAndChangeCurrentPosition(apikey, secretKey, side, orderQuantity, user, TradingType.SHORT);
-            } else {
-                openAndChangeCurrentPosition(apikey, secretKey, side, orderQuantity, user, TradingType.SHORT);
-            }
-        } else {
-            closeAndChangeCurrentPosition(apikey, secretKey, side, user, TradingType.NONE);
+            return calculateOrderQuantity(credential, user.getLeverage(), user.getQuantityRate()).thenCompose(orderQuantity -> {
+                if (isUserPositionExist(user.getCurrentPositionType())) {
+                    return switchAndChangeCurrentPosition(credential, side, orderQuantity, user, TradingType.SHORT, origin);
+                }
+                return openAndChangeCurrentPosition(credential, side, orderQuantity, user, TradingType.SHORT, origin);
+            });
         }
+        return closeAndChangeCurrentPosition(credential, side, user, TradingType.NONE, origin);
     }
 
-    private void processShortPosition(String apikey, String secretKey, String side, Users user) {
+    private CompletableFuture<TradingType> processShortPosition(BinanceCredential credential, String side, AutoTradingSubscriberDao user, OrderOrigin origin) {
         if (isUserTradingTypeContainsLong(user)) {
-            int orderQuantity = calculateOrderQuantity(apikey, secretKey, user.getLeverage(), user.getQuantityRate());
-
-            if (isUserPositionExist(user.getCurrentPositionType())) {
-                switchAndChangeCurrentPosition(apikey, secretKey, side, orderQuantity, user, TradingType.LONG);
-            } else {
-                openAndChangeCurrentPosition(apikey, secretKey, side, orderQuantity, user, TradingType.LONG);
-            }
-        } else {
-            closeAndChangeCurrentPosition(apikey, secretKey, side, user, TradingType.NONE);
+            return calculateOrderQuantity(credential, user.getLeverage(), user.getQuantityRate()).thenCompose(orderQuantity -> {
+                if (isUserPositionExist(user.getCurrentPositionType())) {
+                    return switchAndChangeCurrentPosition(credential, side, orderQuantity, user, TradingType.LONG, origin);
+                }
+                return openAndChangeCurrentPosition(credential, side, orderQuantity, user, TradingType.LONG, origin);
+            });
         }
+        return closeAndChangeCurrentPosition(credential, side, user, TradingType.NONE, origin);
     }
 
-    private void switchAndChangeCurrentPosition(String apikey, String secretKey, String side, int orderQuantity, Users user, TradingType type) {
-        switchPosition(apikey, secretKey, side, orderQuantity);
-        changeCurrentPosition(user, type);
+    private CompletableFuture<TradingType> switchAndChangeCurrentPosition(BinanceCredential credential, String side, int orderQuantity, AutoTradingSubscriberDao user, TradingType type, OrderOrigin origin) {
+        return switchPosition(credential, side, orderQuantity, origin)
+                .thenApply(ignored -> type);
     }
 
-    private void closeAndChangeCurrentPosition(String apikey, String secretKey, String side, Users user, TradingType type) {
-        closePosition(apikey, secretKey, side);
-        changeCurrentPosition(user, type);
+    private CompletableFuture<TradingType> closeAndChangeCurrentPosition(BinanceCredential credential, String side, AutoTradingSubscriberDao user, TradingType type, OrderOrigin origin) {
+        return closePosition(credential, side, origin)
+                .thenApply(ignored -> type);
     }
 
-    private void openAndChangeCurrentPosition(String apikey, String secretKey, String side, int orderQuantity, Users user, TradingType type) {
-        openPosition(apikey, secretKey, side, orderQuantity);
-        changeCurrentPosition(user, type);
+    private CompletableFuture<TradingType> openAndChangeCurrentPosition(BinanceCredential credential, String side, int orderQuantity, AutoTradingSubscriberDao user, TradingType type, OrderOrigin origin) {
+        return openPosition(credential, side, orderQuantity, origin)
+                .thenApply(ignored -> type);
     }
 
-    private void switchPosition(String apiKey, String secretKey, String side, int orderQuantity) {
-        binanceFeignService.openPosition(apiKey, secretKey, side, orderQuantity);
+    private CompletableFuture<Void> switchPosition(BinanceCredential credential, String side, int orderQuantity, OrderOrigin origin) {
+        return binanceFeignService.switchPositionAsync(credential, side, orderQuantity, origin);
     }
 
-    private void closePosition(String apiKey, String secretKey, String side) {
-        binanceFeignService.closePosition(apiKey, secretKey, side);
+    private CompletableFuture<Void> closePosition(BinanceCredential credential, String side, OrderOrigin origin) {
+        return binanceFeignService.closePositionAsync(credential, side, origin);
     }
 
-    private void openPosition(String apiKey, String secretKey, String side, int orderQuantity) {
-        binanceFeignService.openPosition(apiKey, secretKey, side, orderQuantity);
+    private CompletableFuture<Void> openPosition(BinanceCredential credential, String side, int orderQuantity, OrderOrigin origin) {
+        return binanceFeignService.openPositionAsync(credential, side, orderQuantity, origin);
     }
 
-    private static void changeCurrentPosition(Users user, TradingType tradingType) {
-        user.changeCurrentPosition(tradingType);
+    //데드라인 안에 끝난 매매는 모았다가 결과와 같이 쓰고, 결과를 이미 쓴 뒤에 끝난 매매는 끝날 때 따로 씀
+    //인덱스는 DB에 커밋된 뒤에 반영함
+    private void changeCurrentPosition(PositionChanges positionChanges, AutoTradingSubscriberDao user, TradingType tradingType, String signalId) {
+        if (tradingType == null) {
+            return;
+        }
+
+        TradeOutbox positionChanged = TradeOutbox.positionChanged(signalId, user.getUserId(), tradingType);
+        if (positionChanges.add(positionChanged)) {
+            return;
+        }
+
+        try {
+            tradeOutboxWriter.write(List.of(positionChanged));
+            autoTradingSubscriberIndex.update(user.getStrategyName(), user.getUserId(), indexed -> indexed.withCurrentPositionType(tradingType));
+        } catch (RuntimeException e) {
+            log.error("Late position change write failed - signalId: {}, userId: {}, position: {}", signalId, user.getUserId(), tradingType, e);
+        }
     }
 
-    private int calculateOrderQuantity(String apiKey, String secretKey, int leverage, int quantityRate) {
-        int futureAccountBalance = binanceFeignService.getFutureAccountBalance(apiKey, secretKey);
-        return futureAccountBalance * leverage * quantityRate / 100;
+    private CompletableFuture<Integer> calculateOrderQuantity(BinanceCredential credential, int leverage, int quantityRate) {
+        return binanceFeignService.getFutureAccountBalanceAsync(credential)
+                .thenApply(futureAccountBalance -> futureAccountBalance * leverage * quantityRate / 100);
     }
 
     private boolean isUserPositionExist(TradingType tradingType) {
         return tradingType != TradingType.NONE;
     }
 
-    private boolean isUserTradingTypeContainsLong(Users user) {
+    private boolean isUserTradingTypeContainsLong(AutoTradingSubscriberDao user) {
         return user.getTradingType() == TradingType.LONG || user.getTradingType() == TradingType.BOTH;
     }
 
-    private boolean isUserTradingTypeContainsShort(Users user) {
+    private boolean isUserTradingTypeContainsShort(AutoTradingSubscriberDao user) {
         return user.getTradingType() == TradingType.SHORT || user.getTradingType() == TradingType.BOTH;
     }
 
+    //시그널 하나의 포지션 변경. 결과를 쓰려고 닫은 뒤에는 더 받지 않음
+    private static class PositionChanges {
+        private final List<TradeOutbox> changes = new ArrayList<>();
+        private boolean closed;
+
+        private synchronized boolean add(TradeOutbox positionChanged) {
+            if (closed) {
+                return false;
+            }
+            changes.add(positionChanged);
+            return true;
+        }
+
+        private synchronized List<TradeOutbox> close() {
+            closed = true;
+            return List.copyOf(changes);
+        }
+    }
 }
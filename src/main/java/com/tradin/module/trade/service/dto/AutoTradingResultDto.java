@@ -0,0 +1,36 @@
+package com.tradin.module.trade.service.dto;
+
+import com.tradin.module.trade.domain.TradeOutcome;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class AutoTradingResultDto {
+    private final String strategyName;
+    private final List<TradeResultDto> results;
+
+    public static AutoTradingResultDto of(String strategyName, List<TradeResultDto> results) {
+        return new AutoTradingResultDto(strategyName, results);
+    }
+
+    public int getTotalCount() {
+        return results.size();
+    }
+
+    public long countOf(TradeOutcome outcome) {
+        return results.stream()
+                .filter(result -> result.getOutcome() == outcome)
+                .count();
+    }
+
+    public long getMaxElapsedMillis() {
+        return results.stream()
+                .mapToLong(TradeResultDto::getElapsedMillis)
+                .max()
+                .orElse(0);
+    }
+}
@@ -0,0 +1,31 @@
+package com.tradin.module.trade.service.dto;
+
+import com.tradin.module.trade.domain.TradeOutcome;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class TradeResultDto {
+    private final Long userId;
+    private final TradeOutcome outcome;
+    private final String message;
+    private final long elapsedMillis;
+
+    public static TradeResultDto success(Long userId, long elapsedMillis) {
+        return new TradeResultDto(userId, TradeOutcome.SUCCESS, null, elapsedMillis);
+    }
+
+    public static TradeResultDto failed(Long userId, String message, long elapsedMillis) {
+        return new TradeResultDto(userId, TradeOutcome.FAILED, message, elapsedMillis);
+    }
+
+    public static TradeResultDto timeout(Long userId, long elapsedMillis) {
+        return new TradeResultDto(userId, TradeOutcome.TIMEOUT, null, elapsedMillis);
+    }
+
+    public boolean isSuccess() {
+        return outcome == TradeOutcome.SUCCESS;
+    }
+}
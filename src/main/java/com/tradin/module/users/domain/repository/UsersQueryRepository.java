@@ -1,9 +1,12 @@
 package com.tradin.module.users.domain.repository;
 
 import com.tradin.module.users.domain.Users;
+import com.tradin.module.users.domain.repository.dao.AutoTradingSubscriberDao;
 
 import java.util.List;
 
 public interface UsersQueryRepository {
-    List<Users> findByAutoTradingSubscriber(String name);
+    List<AutoTradingSubscriberDao> findAutoTradingSubscriberDaoByStrategyName(String name);
+
+    List<Users> findAllAutoTradingSubscribers();
 }
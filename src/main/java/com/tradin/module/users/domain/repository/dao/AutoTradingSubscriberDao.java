@@ -1,20 +1,44 @@
 package com.tradin.module.users.domain.repository.dao;
 
 import com.querydsl.core.annotations.QueryProjection;
+import com.tradin.module.strategy.domain.TradingType;
+import com.tradin.module.users.domain.Users;
 import lombok.Getter;
 
+//자동매매에 필요한 컬럼만 담은 구독자 정보. 인덱스에서 공유되므로 변경 시 새 객체를 만듦
 @Getter
 public class AutoTradingSubscriberDao {
+    private final Long userId;
+    private final String strategyName;
     private final int leverage;
     private final int quantityRate;
+    private final TradingType tradingType;
+    private final TradingType currentPositionType;
     private final String binanceApiKey;
     private final String binanceSecretKey;
 
     @QueryProjection
-    public AutoTradingSubscriberDao(int leverage, int quantityRate, String binanceApiKey, String binanceSecretKey) {
+    public AutoTradingSubscriberDao(Long userId, String strategyName, int leverage, int quantityRate, TradingType tradingType, TradingType currentPositionType, String binanceApiKey, String binanceSecretKey) {
+        this.userId = userId;
+        this.strategyName = strategyName;
         this.leverage = leverage;
         this.quantityRate = quantityRate;
+        this.tradingType = tradingType;
+        this.currentPositionType = currentPositionType;
         this.binanceApiKey = binanceApiKey;
         this.binanceSecretKey = binanceSecretKey;
     }
+
+    public static AutoTradingSubscriberDao of(Users user, String strategyName) {
+        return new AutoTradingSubscriberDao(user.getId(), strategyName, user.getLeverage(), user.getQuantityRate(), user.getTradingType(),
+                user.getCurrentPositionType(), user.getBinanceApiKey(), user.getBinanceSecretKey());
+    }
+
+    public AutoTradingSubscriberDao withMetadata(int leverage, int quantityRate, TradingType tradingType) {
+        return new AutoTradingSubscriberDao(userId, strategyName, leverage, quantityRate, tradingType, currentPositionType, binanceApiKey, binanceSecretKey);
+    }
+
+    public AutoTradingSubscriberDao withCurrentPositionType(TradingType currentPositionType) {
+        return new AutoTradingSubscriberDao(userId, strategyName, leverage, quantityRate, tradingType, currentPositionType, binanceApiKey, binanceSecretKey);
+    }
 }
@@ -4,6 +4,8 @@ import com.querydsl.jpa.impl.JPAQueryFactory;
 import com.tradin.module.strategy.domain.QStrategy;
 import com.tradin.module.users.domain.Users;
 import com.tradin.module.users.domain.repository.UsersQueryRepository;
+import com.tradin.module.users.domain.repository.dao.AutoTradingSubscriberDao;
+import com.tradin.module.users.domain.repository.dao.QAutoTradingSubscriberDao;
 import lombok.RequiredArgsConstructor;
 
 import java.util.List;
@@ -15,10 +17,19 @@ public class UsersQueryRepositoryImpl implements UsersQueryRepository {
     private final JPAQueryFactory jpaQueryFactory;
 
     @Override
-    public List<Users> findByAutoTradingSubscriber(String name) {
-        return jpaQueryFactory.selectFrom(users)
+    public List<AutoTradingSubscriberDao> findAutoTradingSubscriberDaoByStrategyName(String name) {
+        return jpaQueryFactory.select(new QAutoTradingSubscriberDao(users.id, QStrategy.strategy.name, users.leverage, users.quantityRate,
+                        users.tradingType, users.currentPositionType, users.binanceApiKey, users.binanceSecretKey))
+                .from(users)
                 .innerJoin(users.strategy, QStrategy.strategy)
-                .where(QStrategy.strategy.name.eq(name))
+                .where(QStrategy.strategy.name.eq(name), users.binanceApiKey.isNotNull())
+                .fetch();
+    }
+
+    @Override
+    public List<Users> findAllAutoTradingSubscribers() {
+        return jpaQueryFactory.selectFrom(users)
+                .where(users.strategy.isNotNull(), users.binanceApiKey.isNotNull())
                 .fetch();
     }
 }
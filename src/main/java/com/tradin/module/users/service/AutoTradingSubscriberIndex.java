@@ -0,0 +1,175 @@
+package com.tradin.module.users.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tradin.module.strategy.domain.TradingType;
+import com.tradin.module.users.domain.repository.dao.AutoTradingSubscriberDao;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+//전략 이름별 자동매매 구독자 인덱스. 처음 조회될 때 DB에서 한 번 읽고, 이후에는 구독/해지/설정 변경/포지션 변경을 커밋 후에 반영함
+//다른 인스턴스에서 처리한 변경은 pub/sub으로 전략 이름을 받아서 지우고 다음 조회 때 DB에서 다시 읽음. 알림이 빠져도 TTL이 지나면 다시 읽음
+//읽는 도중에 들어온 변경은 읽은 값에 빠졌을 수 있으므로, 전략별 변경 횟수가 읽기 전후로 달라졌으면 다시 읽음
+@Slf4j
+@Component
+public class AutoTradingSubscriberIndex implements MessageListener {
+    public static final String INVALIDATE_CHANNEL = "subscriber-index-invalidate";
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+    private static final String SEPARATOR = ":";
+
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final Cache<String, Map<Long, AutoTradingSubscriberDao>> subscribersByStrategy;
+
+    public AutoTradingSubscriberIndex(RedisTemplate<String, byte[]> binaryRedisTemplate,
+                                      RedisMessageListenerContainer redisMessageListenerContainer,
+                                      @Value("${trade.subscriber-index.expire-after-write-minutes:5}") long expireAfterWriteMinutes) {
+        this.binaryRedisTemplate = binaryRedisTemplate;
+        this.subscribersByStrategy = Caffeine.newBuilder()
+                .expireAfter(expireAfterLoad(Duration.ofMinutes(expireAfterWriteMinutes)))
+                .build();
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATE_CHANNEL));
+    }
+
+    public List<AutoTradingSubscriberDao> get(String strategyName, Function<String, List<AutoTradingSubscriberDao>> loader) {
+        long[] loadedVersion = {-1};
+        Map<Long, AutoTradingSubscriberDao> subscribers = subscribersByStrategy.get(strategyName, name -> load(name, loader, loadedVersion));
+
+        //읽은 뒤 캐시에 들어가기 전에 반영하려던 변경은 건너뛰었을 수 있으므로 지워서 다음 조회 때 다시 읽게 함
+        if (loadedVersion[0] >= 0 && versionOf(strategyName) != loadedVersion[0]) {
+            subscribersByStrategy.invalidate(strategyName);
+        }
+
+        return List.copyOf(subscribers.values());
+    }
+
+    public void add(AutoTradingSubscriberDao subscriber) {
+        afterCommit(subscriber.getStrategyName(), subscribers -> subscribers.put(subscriber.getUserId(), subscriber));
+    }
+
+    public void remove(String strategyName, Long userId) {
+        afterCommit(strategyName, subscribers -> subscribers.remove(userId));
+    }
+
+    public void update(String strategyName, Long userId, UnaryOperator<AutoTradingSubscriberDao> updater) {
+        afterCommit(strategyName, subscribers -> subscribers.computeIfPresent(userId, (id, subscriber) -> updater.apply(subscriber)));
+    }
+
+    //시그널 하나로 바뀐 포지션을 한 번에 반영하고 알림도 한 번만 보냄
+    public void updatePositions(String strategyName, Map<Long, TradingType> positions) {
+        if (positions.isEmpty()) {
+            return;
+        }
+
+        afterCommit(strategyName, subscribers -> positions.forEach((userId, position) ->
+                subscribers.computeIfPresent(userId, (id, subscriber) -> subscriber.withCurrentPositionType(position))));
+    }
+
+    //다른 인스턴스에서 보낸 알림만 처리함. 내가 보낸 변경은 이미 반영했음
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] body = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 2);
+        if (body.length == 2 && !body[0].equals(instanceId)) {
+            bumpVersion(body[1]);
+            subscribersByStrategy.invalidate(body[1]);
+        }
+    }
+
+    private Map<Long, AutoTradingSubscriberDao> load(String strategyName, Function<String, List<AutoTradingSubscriberDao>> loader, long[] loadedVersion) {
+        for (int attempt = 1; ; attempt++) {
+            long version = versionOf(strategyName);
+            Map<Long, AutoTradingSubscriberDao> index = toIndex(loader.apply(strategyName));
+            if (versionOf(strategyName) == version || attempt == MAX_LOAD_ATTEMPTS) {
+                loadedVersion[0] = version;
+                return index;
+            }
+        }
+    }
+
+    private void apply(String strategyName, Consumer<Map<Long, AutoTradingSubscriberDao>> change) {
+        bumpVersion(strategyName);
+        subscribersByStrategy.asMap().computeIfPresent(strategyName, (name, subscribers) -> {
+            change.accept(subscribers);
+            return subscribers;
+        });
+        publish(strategyName);
+    }
+
+    //Redis 오류로 알림을 못 보내도 다른 인스턴스는 TTL이 지나면 다시 읽으므로 던지지 않음
+    private void publish(String strategyName) {
+        try {
+            binaryRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, (instanceId + SEPARATOR + strategyName).getBytes(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish subscriber index invalidation - strategy: {}", strategyName, e);
+        }
+    }
+
+    private void bumpVersion(String strategyName) {
+        versions.merge(strategyName, 1L, Long::sum);
+    }
+
+    private long versionOf(String strategyName) {
+        return versions.getOrDefault(strategyName, 0L);
+    }
+
+    private static Map<Long, AutoTradingSubscriberDao> toIndex(List<AutoTradingSubscriberDao> subscribers) {
+        Map<Long, AutoTradingSubscriberDao> index = new ConcurrentHashMap<>();
+        subscribers.forEach(subscriber -> index.put(subscriber.getUserId(), subscriber));
+        return index;
+    }
+
+    //인덱스 안의 구독자를 바꾸는 건 DB에서 다시 읽은 게 아니므로 만료 시간을 늘리지 않음
+    private static Expiry<String, Map<Long, AutoTradingSubscriberDao>> expireAfterLoad(Duration ttl) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, Map<Long, AutoTradingSubscriberDao> value, long currentTime) {
+                return ttl.toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, Map<Long, AutoTradingSubscriberDao> value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+
+            @Override
+            public long expireAfterRead(String key, Map<Long, AutoTradingSubscriberDao> value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    //롤백된 변경이 인덱스에 남지 않도록 트랜잭션 안에서는 커밋 후에 반영
+    private void afterCommit(String strategyName, Consumer<Map<Long, AutoTradingSubscriberDao>> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(strategyName, change);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(strategyName, change);
+            }
+        });
+    }
+}
@@ -1,6 +1,8 @@
 package com.tradin.module.users.service;
 
 import com.tradin.common.exception.TradinException;
+import com.tradin.common.secret.BinanceCredential;
+import com.tradin.common.secret.CredentialVault;
 import com.tradin.common.utils.PasswordEncoder;
 import com.tradin.common.utils.SecurityUtils;
 import com.tradin.module.auth.service.dto.UserDataDto;
@@ -8,11 +10,13 @@ import com.tradin.module.feign.service.BinanceFeignService;
 import com.tradin.module.users.domain.UserSocialType;
 import com.tradin.module.users.domain.Users;
 import com.tradin.module.users.domain.repository.UsersRepository;
+import com.tradin.module.users.domain.repository.dao.AutoTradingSubscriberDao;
 import com.tradin.module.users.service.dto.ChangeMetadataDto;
 import com.tradin.module.users.service.dto.PingDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -27,6 +31,8 @@ public class UsersService implements UserDetailsService {
     private final BinanceFeignService binanceFeignService;
     private final UsersRepository usersRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CredentialVault credentialVault;
+    private final AutoTradingSubscriberIndex autoTradingSubscriberIndex;
 
 
     public void saveUser(UserDataDto userDataDto, UserSocialType socialType) {
@@ -38,7 +44,7 @@ public class UsersService implements UserDetailsService {
 
     //TODO - FeignClient 실패 처리하기
     public String ping(PingDto request) {
-        binanceFeignService.getBtcusdtPositionQuantity(request.getBinanceApiKey(), request.getBinanceSecretKey());
+        binanceFeignService.fetchBtcusdtPositionQuantity(BinanceCredential.of(request.getBinanceApiKey(), request.getBinanceSecretKey()));
         return "pong";
     }
 
@@ -50,11 +56,17 @@ public class UsersService implements UserDetailsService {
         user.changeQuantityRate(request.getQuantityRate());
         user.changeTradingType(request.getTradingTypes());
 
+        if (user.getStrategy() != null) {
+            autoTradingSubscriberIndex.update(user.getStrategy().getName(), user.getId(),
+                    subscriber -> subscriber.withMetadata(changedLeverage, request.getQuantityRate(), request.getTradingTypes()));
+        }
+
         return "success";
     }
 
     private int getChangedLeverage(ChangeMetadataDto request, Users user) {
-        return binanceFeignService.changeLeverage(user.getBinanceApiKey(), user.getBinanceSecretKey(), request.getLeverage());
+        BinanceCredential credential = credentialVault.get(user.getId(), user.getBinanceApiKey(), user.getBinanceSecretKey());
+        return binanceFeignService.changeLeverage(credential, request.getLeverage());
     }
 
     public Users findById(Long id) {
@@ -62,8 +74,14 @@ public class UsersService implements UserDetailsService {
                 .orElseThrow(() -> new TradinException(NOT_FOUND_USER_EXCEPTION));
     }
 
-    public List<Users> findAutoTradingSubscriberByStrategyName(String name) {
-        return usersRepository.findByAutoTradingSubscriber(name);
+    //시그널마다 DB를 조회하지 않도록 인덱스에서 먼저 찾고, 없을 때만 DB에서 읽어서 채움. 인덱스에 있으면 커넥션을 잡지 않음
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<AutoTradingSubscriberDao> findAutoTradingSubscriberByStrategyName(String name) {
+        return autoTradingSubscriberIndex.get(name, usersRepository::findAutoTradingSubscriberDaoByStrategyName);
+    }
+
+    public List<Users> findAllAutoTradingSubscribers() {
+        return usersRepository.findAllAutoTradingSubscribers();
     }
 
     public Users getUserFromSecurityContext() {
@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS trade_outbox
+(
+    id             BIGSERIAL PRIMARY KEY,
+    type           VARCHAR(255) NOT NULL,
+    signal_id      VARCHAR(255) NOT NULL,
+    user_id        BIGINT       NOT NULL,
+    position_type  VARCHAR(255),
+    outcome        VARCHAR(255),
+    message        VARCHAR(255),
+    elapsed_millis BIGINT       NOT NULL,
+    created_at     TIMESTAMP    NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS index_trade_outbox_signal_id ON trade_outbox (signal_id);
@@ -0,0 +1,35 @@
+package com.tradin.common.config;
+
+import com.tradin.common.stub.BinanceFuturesStub;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+//테스트넷 대신 로컬 바이낸스 서버를 띄우고 FeignClient와 비동기 클라이언트가 그쪽을 보도록 설정
+public class BinanceStubConfiguration implements BeforeAllCallback {
+    private static BinanceFuturesStub stub;
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        startBinanceStub();
+    }
+
+    public static BinanceFuturesStub getStub() {
+        return stub;
+    }
+
+    private static synchronized void startBinanceStub() {
+        if (stub != null) {
+            return;
+        }
+
+        try {
+            stub = new BinanceFuturesStub().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.setProperty("binance.base-url", stub.getBaseUrl());
+    }
+}
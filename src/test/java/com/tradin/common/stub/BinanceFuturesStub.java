@@ -0,0 +1,322 @@
+package com.tradin.common.stub;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradin.module.feign.governor.BinanceEndpoint;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+//테스트넷 대신 쓰는 로컬 바이낸스 선물 서버. positionRisk/order/leverage/balance/batchOrders/listenKey를 흉내내고
+//응답 지연, 에러 비율, 가중치/주문 수 헤더를 설정할 수 있음. 포지션과 주문은 API key별로 메모리에 보관함
+public class BinanceFuturesStub implements AutoCloseable {
+    private static final String API_KEY_HEADER = "X-MBX-APIKEY";
+    private static final int API_KEY_LENGTH = 64;
+    private static final String SYMBOL = "BTCUSDT";
+
+    private final MockWebServer server = new MockWebServer();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final Queue<ReceivedOrder> receivedOrders = new ConcurrentLinkedQueue<>();
+    private final AtomicLong orderIds = new AtomicLong();
+    private final Window usedWeight = new Window(60_000);
+
+    private volatile long minLatencyMillis;
+    private volatile long maxLatencyMillis;
+    private volatile double errorRate;
+    private volatile double initialBalance = 1000;
+
+    public BinanceFuturesStub latency(long minLatencyMillis, long maxLatencyMillis) {
+        this.minLatencyMillis = minLatencyMillis;
+        this.maxLatencyMillis = maxLatencyMillis;
+        return this;
+    }
+
+    //요청 중 이 비율만큼은 503(-1001)으로 응답함. 주문이 처리됐는지 알 수 없는 상황을 흉내냄
+    public BinanceFuturesStub errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public BinanceFuturesStub initialBalance(double initialBalance) {
+        this.initialBalance = initialBalance;
+        return this;
+    }
+
+    public BinanceFuturesStub start() throws IOException {
+        server.setDispatcher(new StubDispatcher());
+        server.start();
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return server.url("").toString().replaceAll("/$", "");
+    }
+
+    public double getPositionAmount(String apiKey) {
+        return account(apiKey).positionAmount.doubleValue();
+    }
+
+    public void setPositionAmount(String apiKey, double positionAmount) {
+        account(apiKey).positionAmount = BigDecimal.valueOf(positionAmount);
+    }
+
+    public List<ReceivedOrder> getReceivedOrders() {
+        return List.copyOf(receivedOrders);
+    }
+
+    public int getRequestCount() {
+        return server.getRequestCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private Account account(String apiKey) {
+        return accounts.computeIfAbsent(apiKey, key -> new Account(BigDecimal.valueOf(initialBalance)));
+    }
+
+    private MockResponse dispatch(RecordedRequest request) throws IOException {
+        String path = request.getRequestUrl().encodedPath();
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        Map<String, String> params = params(request);
+
+        if (apiKey == null || apiKey.length() != API_KEY_LENGTH) {
+            return error(401, -2015, "Invalid API-key, IP, or permissions for action.");
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            return error(503, -1001, "Internal error; unable to process your request. Please try again.");
+        }
+
+        Account account = account(apiKey);
+        switch (path) {
+            case "/fapi/v2/positionRisk":
+                return ok(List.of(position(account)));
+            case "/fapi/v2/balance":
+                return ok(List.of(balance(account)));
+            case "/fapi/v1/leverage":
+                account.leverage = Integer.parseInt(params.get("leverage"));
+                return ok(Map.of("leverage", account.leverage, "maxNotionalValue", "1000000", "symbol", SYMBOL));
+            case "/fapi/v1/order":
+                if ("GET".equals(request.getMethod())) {
+                    return queryOrder(account, params.get("origClientOrderId"));
+                }
+                Map<String, Object> placed = placeOrder(apiKey, account, params);
+                return placed.containsKey("code") ? delayed(json(400, placed)) : ok(placed);
+            case "/fapi/v1/batchOrders":
+                List<Map<String, String>> orders = objectMapper.readValue(params.get("batchOrders"), new TypeReference<List<Map<String, String>>>() {
+                });
+                return ok(orders.stream()
+                        .map(order -> placeOrder(apiKey, account, order))
+                        .collect(Collectors.toList()));
+            case "/fapi/v1/listenKey":
+                return ok(Map.of("listenKey", "stub-" + apiKey.substring(0, 16)));
+            default:
+                return error(404, -1000, "Unknown path " + path);
+        }
+    }
+
+    private Map<String, Object> placeOrder(String apiKey, Account account, Map<String, String> params) {
+        String clientOrderId = params.getOrDefault("newClientOrderId", "stub-" + UUID.randomUUID());
+        receivedOrders.add(new ReceivedOrder(apiKey, clientOrderId, params.get("side"), System.nanoTime()));
+
+        BigDecimal quantity = new BigDecimal(params.get("quantity"));
+        BigDecimal signed = "BUY".equals(params.get("side")) ? quantity : quantity.negate();
+        Map<String, Object> order = new HashMap<>();
+        order.put("orderId", orderIds.incrementAndGet());
+        order.put("clientOrderId", clientOrderId);
+        order.put("symbol", SYMBOL);
+        order.put("side", params.get("side"));
+        order.put("type", params.getOrDefault("type", "MARKET"));
+        order.put("origQty", quantity.toPlainString());
+        order.put("executedQty", quantity.toPlainString());
+        order.put("reduceOnly", Boolean.parseBoolean(params.get("reduceOnly")));
+        order.put("status", "FILLED");
+        order.put("updateTime", System.currentTimeMillis());
+
+        synchronized (account) {
+            if (account.orders.containsKey(clientOrderId)) {
+                return error(-4116, "ClientOrderId is duplicated.");
+            }
+            if (Boolean.parseBoolean(params.get("reduceOnly")) && account.positionAmount.signum() * signed.signum() >= 0) {
+                return error(-2022, "ReduceOnly Order is rejected.");
+            }
+            account.positionAmount = account.positionAmount.add(signed);
+            account.orders.put(clientOrderId, order);
+        }
+        return order;
+    }
+
+    private MockResponse queryOrder(Account account, String clientOrderId) throws IOException {
+        Map<String, Object> order = clientOrderId == null ? null : account.orders.get(clientOrderId);
+        if (order == null) {
+            return error(400, -2013, "Order does not exist.");
+        }
+        return ok(order);
+    }
+
+    private Map<String, Object> position(Account account) {
+        return Map.of("symbol", SYMBOL, "positionAmt", account.positionAmount.toPlainString(), "entryPrice", "0.0",
+                "unRealizedProfit", "0.0", "marginType", "cross", "leverage", String.valueOf(account.leverage), "positionSide", "BOTH");
+    }
+
+    private Map<String, Object> balance(Account account) {
+        String balance = account.balance.toPlainString();
+        return Map.of("accountAlias", "stub", "asset", "USDT", "balance", balance, "crossWalletBalance", balance,
+                "crossUnPnl", "0.0", "availableBalance", balance, "maxWithdrawAmount", balance);
+    }
+
+    private MockResponse ok(Object body) throws IOException {
+        return delayed(json(200, body));
+    }
+
+    private MockResponse error(int status, int code, String msg) throws IOException {
+        return delayed(json(status, error(code, msg)));
+    }
+
+    private MockResponse json(int status, Object body) throws IOException {
+        return new MockResponse()
+                .setResponseCode(status)
+                .setHeader("Content-Type", "application/json")
+                .setBody(objectMapper.writeValueAsString(body));
+    }
+
+    private static Map<String, Object> error(int code, String msg) {
+        return Map.of("code", code, "msg", msg);
+    }
+
+    private MockResponse delayed(MockResponse response) {
+        if (maxLatencyMillis > 0) {
+            long latency = ThreadLocalRandom.current().nextLong(minLatencyMillis, maxLatencyMillis + 1);
+            response.setHeadersDelay(latency, TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    //가중치는 IP 단위, 주문 수는 API key 단위로 세서 실제 서버처럼 응답 헤더에 실어줌. governor가 서버 기준 사용량을 따라가는지 확인할 수 있음
+    private MockResponse withUsageHeaders(MockResponse response, BinanceEndpoint endpoint, Account account) {
+        return response
+                .setHeader("X-MBX-USED-WEIGHT-1M", usedWeight.add(endpoint.getWeight()))
+                .setHeader("X-MBX-ORDER-COUNT-10S", account.orderCount10s.add(endpoint.getOrderCount()))
+                .setHeader("X-MBX-ORDER-COUNT-1M", account.orderCount1m.add(endpoint.getOrderCount()));
+    }
+
+    private static Map<String, String> params(RecordedRequest request) {
+        Map<String, String> params = new HashMap<>();
+        String query = request.getRequestUrl().encodedQuery();
+        String body = request.getBody().readUtf8();
+        parse(query, params);
+        parse(body, params);
+        return params;
+    }
+
+    private static void parse(String encoded, Map<String, String> params) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private class StubDispatcher extends Dispatcher {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            BinanceEndpoint endpoint = BinanceEndpoint.of(request.getRequestUrl().toString());
+            String apiKey = request.getHeader(API_KEY_HEADER);
+            try {
+                MockResponse response = BinanceFuturesStub.this.dispatch(request);
+                return apiKey == null ? response : withUsageHeaders(response, endpoint, account(apiKey));
+            } catch (IOException | RuntimeException e) {
+                return new MockResponse().setResponseCode(500).setBody(String.valueOf(e.getMessage()));
+            }
+        }
+    }
+
+    private static class Account {
+        private final Map<String, Map<String, Object>> orders = new ConcurrentHashMap<>();
+        private final Window orderCount10s = new Window(10_000);
+        private final Window orderCount1m = new Window(60_000);
+        private final BigDecimal balance;
+        private volatile BigDecimal positionAmount = BigDecimal.ZERO;
+        private volatile int leverage = 1;
+
+        private Account(BigDecimal balance) {
+            this.balance = balance;
+        }
+    }
+
+    //고정 길이 구간마다 0부터 다시 세는 카운터
+    private static class Window {
+        private final long lengthMillis;
+        private long window;
+        private int count;
+
+        private Window(long lengthMillis) {
+            this.lengthMillis = lengthMillis;
+        }
+
+        private synchronized int add(int amount) {
+            long current = System.currentTimeMillis() / lengthMillis;
+            if (current != window) {
+                window = current;
+                count = 0;
+            }
+            count += amount;
+            return count;
+        }
+    }
+
+    public static class ReceivedOrder {
+        private final String apiKey;
+        private final String clientOrderId;
+        private final String side;
+        private final long receivedAtNanos;
+
+        private ReceivedOrder(String apiKey, String clientOrderId, String side, long receivedAtNanos) {
+            this.apiKey = apiKey;
+            this.clientOrderId = clientOrderId;
+            this.side = side;
+            this.receivedAtNanos = receivedAtNanos;
+        }
+
+        public String getApiKey() {
+            return apiKey;
+        }
+
+        public String getClientOrderId() {
+            return clientOrderId;
+        }
+
+        public String getSide() {
+            return side;
+        }
+
+        public long getReceivedAtNanos() {
+            return receivedAtNanos;
+        }
+    }
+}
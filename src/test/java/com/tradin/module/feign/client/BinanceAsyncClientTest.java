@@ -0,0 +1,75 @@
+package com.tradin.module.feign.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradin.common.exception.TradinException;
+import com.tradin.module.feign.client.dto.binance.BatchOrderResultDto;
+import com.tradin.module.feign.client.dto.binance.NewOrderDto;
+import com.tradin.module.feign.governor.BinanceRequestGovernor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinanceAsyncClientTest {
+    private MockWebServer server;
+    private BinanceAsyncClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        String baseUrl = server.url("").toString().replaceAll("/$", "");
+        BinanceRequestGovernor governor = new BinanceRequestGovernor(new SimpleMeterRegistry(), 2400, 0.7, 300, 1200, 10000);
+        client = new BinanceAsyncClient(new ObjectMapper(), governor, baseUrl, 1000, 3000, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.shutdown();
+        server.shutdown();
+    }
+
+    @Test
+    void 주문_요청은_서명된_쿼리와_API_KEY_헤더로_전송_테스트() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"orderId\":1,\"side\":\"BUY\",\"status\":\"NEW\"}"));
+
+        NewOrderDto result = client.order("apiKey", "quantity=1.0&side=BUY&signature=abc").get(3, TimeUnit.SECONDS);
+
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getMethod()).isEqualTo("POST");
+        assertThat(request.getPath()).isEqualTo("/fapi/v1/order?quantity=1.0&side=BUY&signature=abc");
+        assertThat(request.getHeader("X-MBX-APIKEY")).isEqualTo("apiKey");
+        assertThat(result.getOrderId()).isEqualTo(1L);
+    }
+
+    @Test
+    void batchOrders_주문별_성공_실패_파싱_테스트() throws Exception {
+        server.enqueue(new MockResponse().setBody("[{\"code\":-2022,\"msg\":\"ReduceOnly Order is rejected.\"},{\"orderId\":2,\"side\":\"SELL\"}]"));
+
+        List<BatchOrderResultDto> results = client.batchOrders("apiKey", "batchOrders=%5B%5D&timestamp=1&signature=abc").get(3, TimeUnit.SECONDS);
+
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getBody().readUtf8()).isEqualTo("batchOrders=%5B%5D&timestamp=1&signature=abc");
+        assertThat(results.get(0).isSuccess()).isFalse();
+        assertThat(results.get(1).isSuccess()).isTrue();
+    }
+
+    @Test
+    void 에러_응답은_TradinException으로_완료_테스트() {
+        server.enqueue(new MockResponse().setResponseCode(400).setBody("{\"code\":-1022,\"msg\":\"Signature for this request is not valid.\"}"));
+
+        assertThatThrownBy(() -> client.order("apiKey", "signature=wrong").get(3, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TradinException.class);
+    }
+}
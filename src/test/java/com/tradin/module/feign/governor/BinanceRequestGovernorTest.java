@@ -0,0 +1,48 @@
+package com.tradin.module.feign.governor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinanceRequestGovernorTest {
+    private static final long MINUTE_START = 1_700_000_040_000L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BinanceRequestGovernor governor = new BinanceRequestGovernor(meterRegistry, 100, 0.5, 3, 10, 10000);
+
+    @Test
+    void 조회_요청은_가중치_한도의_일부까지만_허용_테스트() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(governor.tryAcquire(BinanceEndpoint.POSITION_RISK, "key", MINUTE_START)).isZero();
+        }
+
+        assertThat(governor.tryAcquire(BinanceEndpoint.POSITION_RISK, "key", MINUTE_START + 1000)).isEqualTo(59_000);
+        assertThat(governor.tryAcquire(BinanceEndpoint.ORDER, "key", MINUTE_START + 1000)).isZero();
+    }
+
+    @Test
+    void API_KEY별_10초_주문_한도_테스트() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(governor.tryAcquire(BinanceEndpoint.ORDER, "key", MINUTE_START)).isZero();
+        }
+
+        assertThat(governor.tryAcquire(BinanceEndpoint.ORDER, "key", MINUTE_START + 2000)).isEqualTo(8_000);
+        assertThat(governor.tryAcquire(BinanceEndpoint.ORDER, "otherKey", MINUTE_START + 2000)).isZero();
+        assertThat(governor.tryAcquire(BinanceEndpoint.ORDER, "key", MINUTE_START + 10_000)).isZero();
+    }
+
+    @Test
+    void 응답_헤더의_사용량과_Retry_After_반영_테스트() {
+        long now = System.currentTimeMillis();
+        Map<String, String> headers = Map.of(BinanceRequestGovernor.USED_WEIGHT_HEADER, "100", "Retry-After", "30");
+
+        governor.record("key", 429, name -> Optional.ofNullable(headers.get(name)));
+
+        assertThat(governor.tryAcquire(BinanceEndpoint.ORDER, "key", now)).isGreaterThan(29_000);
+        assertThat(meterRegistry.get("binance.governor.rate.limited").counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,48 @@
+package com.tradin.module.feign.journal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderClaimRegistryTest {
+    private static final String CLIENT_ORDER_ID = "td-order";
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+    private final OrderClaimRegistry registry = new OrderClaimRegistry(redisTemplate, 24);
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void 처음_선점하면_true이고_다른_인스턴스가_선점했으면_false_테스트() {
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(true);
+        assertThat(registry.claim(CLIENT_ORDER_ID)).isTrue();
+
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("order:claim:" + CLIENT_ORDER_ID)).thenReturn("other-instance");
+        assertThat(registry.claim(CLIENT_ORDER_ID)).isFalse();
+    }
+
+    @Test
+    void Redis가_안_되면_바이낸스에_조회하도록_false_테스트() {
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class)))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        assertThat(registry.claim(CLIENT_ORDER_ID)).isFalse();
+    }
+}
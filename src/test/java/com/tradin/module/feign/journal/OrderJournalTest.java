@@ -0,0 +1,83 @@
+package com.tradin.module.feign.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderJournalTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void 재시작하면_주문별_마지막_상태를_복원_테스트() throws Exception {
+        Path path = directory.resolve("orders.log");
+        OrderOrigin origin = OrderOrigin.of("BTC:LONG:2023-01-01T00:00", 1L);
+        String clientOrderId = origin.clientOrderId(OrderLeg.OPEN);
+        OrderJournalEntry intent = OrderJournalEntry.intent(clientOrderId, origin, OrderLeg.OPEN, "BUY", "0.01");
+
+        OrderJournal journal = new OrderJournal(path.toString(), 24);
+        journal.append(intent).get(3, TimeUnit.SECONDS);
+        journal.append(intent.acked(100L)).get(3, TimeUnit.SECONDS);
+        journal.close();
+
+        OrderJournal reloaded = new OrderJournal(path.toString(), 24);
+        assertThat(reloaded.find(clientOrderId)).hasValueSatisfying(entry -> {
+            assertThat(entry.isAcked()).isTrue();
+            assertThat(entry.getOrderId()).isEqualTo(100L);
+        });
+        reloaded.close();
+    }
+
+    @Test
+    void 잘린_마지막_줄은_버리고_복원_테스트() throws Exception {
+        Path path = directory.resolve("orders.log");
+        OrderOrigin origin = OrderOrigin.of("BTC:SHORT:2023-01-01T00:00", 1L);
+        String clientOrderId = origin.clientOrderId(OrderLeg.CLOSE);
+        OrderJournalEntry intent = OrderJournalEntry.intent(clientOrderId, origin, OrderLeg.CLOSE, "SELL", "0.01");
+        Files.writeString(path, intent.toLine() + "tdbroken\tINTENT\tBTC", StandardCharsets.UTF_8, StandardOpenOption.CREATE);
+
+        OrderJournal journal = new OrderJournal(path.toString(), 24);
+
+        assertThat(journal.find(clientOrderId)).hasValueSatisfying(entry -> assertThat(entry.isInFlight()).isTrue());
+        assertThat(journal.find("tdbroken")).isEmpty();
+        journal.close();
+    }
+
+    @Test
+    void 보관_기간이_지난_항목은_실행_중에도_제거_테스트() throws Exception {
+        Path path = directory.resolve("orders.log");
+        OrderOrigin origin = OrderOrigin.of("BTC:LONG:2023-01-01T00:00", 1L);
+        String clientOrderId = origin.clientOrderId(OrderLeg.OPEN);
+        OrderJournalEntry intent = OrderJournalEntry.intent(clientOrderId, origin, OrderLeg.OPEN, "BUY", "0.01");
+
+        OrderJournal journal = new OrderJournal(path.toString(), 1);
+        journal.append(intent).get(3, TimeUnit.SECONDS);
+
+        journal.evictExpired(intent.getRecordedAt() + TimeUnit.MINUTES.toMillis(30));
+        assertThat(journal.find(clientOrderId)).isPresent();
+
+        journal.evictExpired(intent.getRecordedAt() + TimeUnit.HOURS.toMillis(2));
+        assertThat(journal.find(clientOrderId)).isEmpty();
+        journal.close();
+    }
+
+    @Test
+    void 닫힌_뒤에_들어온_기록은_기다리지_않고_실패_테스트() throws Exception {
+        OrderOrigin origin = OrderOrigin.of("BTC:LONG:2023-01-01T00:00", 1L);
+        String clientOrderId = origin.clientOrderId(OrderLeg.OPEN);
+        OrderJournal journal = new OrderJournal(directory.resolve("orders.log").toString(), 24);
+        journal.close();
+
+        CompletableFuture<Void> written = journal.append(OrderJournalEntry.intent(clientOrderId, origin, OrderLeg.OPEN, "BUY", "0.01"));
+
+        assertThat(written).isCompletedExceptionally();
+    }
+}
@@ -0,0 +1,167 @@
+package com.tradin.module.feign.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//바이낸스 유저 데이터 스트림 대신 로컬 MockWebServer 웹소켓으로 테스트
+class UserDataStreamClientTest {
+    private static final String API_KEY = "apiKey";
+    private static final long BALANCE_MAX_AGE_SECONDS = 300;
+    private static final String ACCOUNT_UPDATE = "{\"e\":\"ACCOUNT_UPDATE\",\"E\":1564745798939,\"T\":1564745798938,\"a\":{\"m\":\"ORDER\","
+            + "\"B\":[{\"a\":\"USDT\",\"wb\":\"1200.50000000\",\"cw\":\"1000.25000000\",\"bc\":\"0\"}],"
+            + "\"P\":[{\"s\":\"BTCUSDT\",\"pa\":\"-0.250\",\"ep\":\"30000.00000\",\"cr\":\"0\",\"up\":\"0\",\"mt\":\"cross\",\"iw\":\"0\",\"ps\":\"BOTH\"}]}}";
+
+    private MockWebServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private AccountStateCache accountStateCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+        accountStateCache = new AccountStateCache(meterRegistry, BALANCE_MAX_AGE_SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    void ACCOUNT_UPDATE_이벤트로_포지션과_사용_가능_잔고를_옮김_테스트() throws Exception {
+        accountStateCache.track(API_KEY);
+        accountStateCache.seedBtcusdtPosition(API_KEY, BtcusdtPosition.of(0, 0, 0, false), 10);
+        accountStateCache.seedAvailableBalance(API_KEY, 1000, 1000.75, 0);
+        server.enqueue(new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                webSocket.send(ACCOUNT_UPDATE);
+            }
+        }));
+
+        UserDataStreamClient client = connect(stream -> {
+        });
+
+        awaitUntil(() -> accountStateCache.getBtcusdtPositionAmount(API_KEY).orElse(0) != 0);
+        //수수료로 cw 0.5 감소, 교차 마진 증거금 0.25 x 30000 / 10 = 750
+        assertThat(accountStateCache.getAvailableBalance(API_KEY)).hasValue(249.5);
+        assertThat(accountStateCache.getBtcusdtPositionAmount(API_KEY)).hasValue(-0.25);
+        assertThat(meterRegistry.get("account.available.balance").tag("source", "stream").counter().count()).isEqualTo(1);
+
+        client.close();
+        assertThat(accountStateCache.isTracked(API_KEY)).isFalse();
+    }
+
+    @Test
+    void 스트림_종료시_캐시에서_제거되어_REST_fallback_테스트() throws Exception {
+        server.enqueue(new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                webSocket.send(ACCOUNT_UPDATE);
+                webSocket.close(1000, "bye");
+            }
+        }));
+        CountDownLatch disconnected = new CountDownLatch(1);
+
+        connect(stream -> disconnected.countDown());
+
+        assertThat(disconnected.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(accountStateCache.isTracked(API_KEY)).isFalse();
+        assertThat(accountStateCache.getAvailableBalance(API_KEY)).isEmpty();
+    }
+
+    @Test
+    void REST_스냅샷은_스트림_값을_덮어쓰지_않음_테스트() {
+        accountStateCache.track(API_KEY);
+        accountStateCache.applyAccountUpdate(API_KEY, null, BtcusdtPosition.of(-0.25, 30000, 0, true));
+
+        accountStateCache.seedAvailableBalance(API_KEY, 500, 500, 0);
+        accountStateCache.seedAvailableBalance(API_KEY, 700, 700, 0);
+        accountStateCache.seedBtcusdtPosition(API_KEY, BtcusdtPosition.of(0.1, 31000, 0, true), 5);
+
+        assertThat(accountStateCache.getAvailableBalance(API_KEY)).hasValue(500);
+        assertThat(accountStateCache.getBtcusdtPositionAmount(API_KEY)).hasValue(-0.25);
+    }
+
+    @Test
+    void 레버리지를_모르는_교차_마진_포지션이_바뀌면_잔고를_비워_REST로_다시_읽음_테스트() {
+        accountStateCache.track(API_KEY);
+        accountStateCache.applyAccountUpdate(API_KEY, null, BtcusdtPosition.of(0, 0, 0, false));
+        accountStateCache.seedAvailableBalance(API_KEY, 1000, 1000, 0);
+        accountStateCache.applyAccountUpdate(API_KEY, 1000.0, BtcusdtPosition.of(0.1, 30000, 0, false));
+
+        assertThat(accountStateCache.getAvailableBalance(API_KEY)).isEmpty();
+        assertThat(meterRegistry.get("account.available.balance").tag("source", "rest").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void 청산하면_미실현_손익이_실현되어_이중으로_더하지_않음_테스트() {
+        accountStateCache.track(API_KEY);
+        accountStateCache.seedBtcusdtPosition(API_KEY, BtcusdtPosition.of(0.1, 30000, 0, false), 10);
+        //REST availableBalance = cw 1000 + 미실현 손익 50 - 증거금 300
+        accountStateCache.seedAvailableBalance(API_KEY, 750, 1000, 50);
+
+        accountStateCache.applyAccountUpdate(API_KEY, 1049.0, BtcusdtPosition.of(0, 0, 0, false));
+
+        assertThat(accountStateCache.getAvailableBalance(API_KEY)).hasValue(1049);
+    }
+
+    @Test
+    void 레버리지를_바꾸면_교차_마진_증거금만큼_잔고를_옮김_테스트() {
+        accountStateCache.track(API_KEY);
+        accountStateCache.seedBtcusdtPosition(API_KEY, BtcusdtPosition.of(-0.25, 30000, 0, false), 10);
+        accountStateCache.seedAvailableBalance(API_KEY, 250, 1000, 0);
+
+        accountStateCache.updateLeverage(API_KEY, 20);
+
+        assertThat(accountStateCache.getAvailableBalance(API_KEY)).hasValue(625);
+    }
+
+    @Test
+    void 교차_마진_포지션이_열린_채로_오래된_잔고는_REST로_다시_읽음_테스트() throws Exception {
+        AccountStateCache cache = new AccountStateCache(meterRegistry, 0);
+        cache.track(API_KEY);
+        cache.seedBtcusdtPosition(API_KEY, BtcusdtPosition.of(0.1, 30000, 0, false), 10);
+        cache.seedAvailableBalance(API_KEY, 700, 1000, 0);
+        Thread.sleep(10);
+
+        assertThat(cache.getAvailableBalance(API_KEY)).isEmpty();
+
+        cache.applyAccountUpdate(API_KEY, null, BtcusdtPosition.of(0.1, 30000, 0, true));
+        Thread.sleep(10);
+
+        //격리 마진은 미실현 손익이 사용 가능 잔고에 들어가지 않으므로 오래돼도 씀
+        assertThat(cache.getAvailableBalance(API_KEY)).hasValue(1000);
+    }
+
+    private UserDataStreamClient connect(Consumer<UserDataStreamClient> onDisconnected) throws Exception {
+        URI uri = URI.create("ws://" + server.getHostName() + ":" + server.getPort() + "/ws/listenKey");
+        return UserDataStreamClient.connect(HttpClient.newHttpClient(), uri, API_KEY, accountStateCache, new ObjectMapper(), onDisconnected)
+                .get(5, TimeUnit.SECONDS);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
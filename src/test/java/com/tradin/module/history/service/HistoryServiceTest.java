@@ -0,0 +1,106 @@
+package com.tradin.module.history.service;
+
+import com.tradin.module.history.controller.dto.response.BackTestResponseDto;
+import com.tradin.module.history.domain.repository.HistoryRepository;
+import com.tradin.module.history.domain.repository.dao.HistoryDao;
+import com.tradin.module.history.service.cache.HistoryCacheCodec;
+import com.tradin.module.history.service.cache.HistoryCacheStore;
+import com.tradin.module.history.service.cache.HistoryClosedEvent;
+import com.tradin.module.history.service.dto.BackTestDto;
+import com.tradin.module.strategy.domain.Position;
+import com.tradin.module.strategy.domain.TradingType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HistoryServiceTest {
+    private static final LocalDateTime START = LocalDateTime.of(2022, 12, 31, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2023, 12, 31, 0, 0);
+
+    private final HistoryRepository historyRepository = mock(HistoryRepository.class);
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, byte[]> valueOperations = mock(ValueOperations.class);
+    private final HistoryCacheStore historyCacheStore = new HistoryCacheStore(binaryRedisTemplate,
+            mock(RedisMessageListenerContainer.class), 10, 10, 24);
+    private final HistoryService historyService = new HistoryService(historyRepository, historyCacheStore, mock(ApplicationEventPublisher.class));
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(binaryRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any())).thenReturn(0L);
+        when(historyRepository.findHistoryDaoByStrategyId(1L)).thenReturn(List.of(
+                history(1L, TradingType.LONG, 1, 0.1),
+                history(2L, TradingType.SHORT, 3, -0.05),
+                history(3L, TradingType.LONG, 5, 0.2),
+                new HistoryDao(4L, Position.of(TradingType.LONG, day(7), 30000), null, 0)));
+    }
+
+    @Test
+    void 캐시에서_읽은_매매_내역으로_조건에_맞는_매매만_계산_테스트() {
+        BackTestResponseDto both = historyService.backTest(BackTestDto.of(1L, "BTC", START, END, TradingType.BOTH, true));
+        BackTestResponseDto longOnly = historyService.backTest(BackTestDto.of(1L, "BTC", START, END, TradingType.LONG, true));
+
+        verify(historyRepository, times(1)).findHistoryDaoByStrategyId(1L);
+        verify(valueOperations, times(1)).get("historyCache:1");
+        assertThat(both.getStrategyInfoDto().getTotalTradeCount()).isEqualTo(3);
+        assertThat(both.getStrategyInfoDto().getCompoundProfitRate()).isCloseTo(1.1 * 0.95 * 1.2, within(1e-9));
+        assertThat(both.getStrategyInfoDto().getProfitFactor()).isCloseTo(6, within(1e-9));
+        assertThat(longOnly.getHistoryDaos()).extracting(HistoryDao::getId).containsExactly(3L, 1L);
+        assertThat(longOnly.getHistoryDaos().get(0).getCompoundProfitRate()).isCloseTo(1.32, within(1e-9));
+        assertThat(longOnly.getHistoryDaos().get(0).getExitPosition().getTime()).isEqualTo(day(6));
+        assertThat(longOnly.getStrategyInfoDto().getWinRate()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void 청산된_매매는_다시_읽지_않고_캐시_뒤에_붙고_알림이_빠지면_다시_읽음_테스트() {
+        historyService.backTest(BackTestDto.of(1L, "BTC", START, END, TradingType.BOTH, false));
+        when(binaryRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any())).thenReturn(1L);
+
+        historyCacheStore.onHistoryClosed(HistoryClosedEvent.of(1L, history(4L, TradingType.LONG, 7, -0.5)));
+        BackTestResponseDto appended = historyService.backTest(BackTestDto.of(1L, "BTC", START, END, TradingType.LONG, false));
+
+        verify(historyRepository, times(1)).findHistoryDaoByStrategyId(1L);
+        assertThat(appended.getHistoryDaos()).isEmpty();
+        assertThat(appended.getStrategyInfoDto().getTotalTradeCount()).isEqualTo(3);
+        assertThat(appended.getRiskInfoDto().getLongestLosingStreak()).isEqualTo(1);
+
+        when(valueOperations.get("historyCache:sequence:1")).thenReturn("1".getBytes(StandardCharsets.UTF_8));
+        byte[] skipped = HistoryCacheCodec.encodeDelta(1L, 3L, HistoryCacheCodec.encodeRecord(history(5L, TradingType.SHORT, 9, 0.3)));
+        historyCacheStore.onMessage(new DefaultMessage(HistoryCacheStore.APPEND_CHANNEL.getBytes(StandardCharsets.UTF_8), skipped), null);
+        historyService.backTest(BackTestDto.of(1L, "BTC", START, END, TradingType.LONG, false));
+
+        verify(historyRepository, times(2)).findHistoryDaoByStrategyId(1L);
+    }
+
+    private static HistoryDao history(Long id, TradingType tradingType, int entryDay, double profitRate) {
+        TradingType exitTradingType = tradingType == TradingType.LONG ? TradingType.SHORT : TradingType.LONG;
+        return new HistoryDao(id, Position.of(tradingType, day(entryDay), 30000),
+                Position.of(exitTradingType, day(entryDay + 1), 31000), profitRate);
+    }
+
+    private static LocalDateTime day(int dayOfMonth) {
+        return LocalDateTime.of(2023, 1, dayOfMonth, 9, 30, 15);
+    }
+}
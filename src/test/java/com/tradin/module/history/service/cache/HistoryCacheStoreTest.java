@@ -0,0 +1,59 @@
+package com.tradin.module.history.service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HistoryCacheStoreTest {
+    private static final String CACHE_KEY = "historyCache:1";
+    private static final String SEQUENCE_KEY = "historyCache:sequence:1";
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, byte[]> valueOperations = mock(ValueOperations.class);
+    private HistoryCacheStore store;
+
+    @BeforeEach
+    void setUp() {
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(CACHE_KEY)).thenReturn(HistoryCacheCodec.encode(HistoryCache.of(List.of())));
+        store = new HistoryCacheStore(binaryRedisTemplate, mock(RedisMessageListenerContainer.class), 10, 10, 24);
+    }
+
+    @Test
+    void 불러오는_동안_시퀀스가_움직였으면_다시_불러옴_테스트() {
+        when(valueOperations.get(SEQUENCE_KEY)).thenReturn(bytes(0), bytes(1));
+
+        HistoryRangeIndex index = store.get(1L, List::of);
+
+        assertThat(index.getSequence()).isEqualTo(1);
+        verify(valueOperations, times(2)).get(CACHE_KEY);
+    }
+
+    @Test
+    void 불러온_뒤_시퀀스가_그대로면_L1을_그대로_씀_테스트() {
+        when(valueOperations.get(SEQUENCE_KEY)).thenReturn(bytes(3));
+
+        store.get(1L, List::of);
+        HistoryRangeIndex index = store.get(1L, List::of);
+
+        assertThat(index.getSequence()).isEqualTo(3);
+        verify(valueOperations, times(1)).get(CACHE_KEY);
+    }
+
+    private static byte[] bytes(long sequence) {
+        return String.valueOf(sequence).getBytes(StandardCharsets.UTF_8);
+    }
+}
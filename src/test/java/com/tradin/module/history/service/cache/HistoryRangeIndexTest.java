@@ -0,0 +1,140 @@
+package com.tradin.module.history.service.cache;
+
+import com.tradin.module.history.domain.repository.dao.HistoryDao;
+import com.tradin.module.strategy.domain.Position;
+import com.tradin.module.strategy.domain.TradingType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HistoryRangeIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2021, 1, 1, 0, 0);
+
+    @Test
+    void 누적합으로_구한_요약이_전체를_훑은_결과와_같음_테스트() {
+        Random random = new Random(42);
+        List<HistoryDao> histories = histories(random);
+        HistoryRangeIndex index = HistoryRangeIndex.of(HistoryCache.of(histories), 0);
+
+        for (int i = 0; i < 200; i++) {
+            long startTime = HistoryCache.toEpochMillis(START.plusHours(random.nextInt(24 * 400)));
+            long endTime = startTime + random.nextInt(24 * 200) * 3_600_000L;
+            TradingType tradingType = TradingType.values()[random.nextInt(TradingType.values().length)];
+
+            HistoryRangeIndex.Summary summary = index.summarize(startTime, endTime, tradingType);
+            List<HistoryDao> matched = index.histories(startTime, endTime, tradingType);
+            double compoundProfitRate = 1;
+            double simpleProfitRate = 0;
+            for (int j = matched.size() - 1; j >= 0; j--) {
+                compoundProfitRate *= 1 + matched.get(j).getProfitRate();
+                simpleProfitRate += matched.get(j).getProfitRate();
+            }
+
+            assertThat(summary.getTradeCount()).isEqualTo(bruteForceCount(histories, startTime, endTime, tradingType)).isEqualTo(matched.size());
+            assertThat(summary.getSimpleProfitRate()).isCloseTo(simpleProfitRate, within(1e-9));
+            assertThat(summary.getCompoundProfitRate()).isCloseTo(compoundProfitRate, within(Math.abs(compoundProfitRate) * 1e-9));
+            if (!matched.isEmpty()) {
+                assertThat(matched.get(0).getCompoundProfitRate()).isEqualTo(compoundProfitRate);
+            }
+        }
+    }
+
+    @Test
+    void 세그먼트_트리로_구한_낙폭과_연속_손실이_전체를_훑은_결과와_같음_테스트() {
+        Random random = new Random(7);
+        List<HistoryDao> histories = histories(random);
+        HistoryRangeIndex index = HistoryRangeIndex.of(HistoryCache.of(histories), 0);
+
+        for (int i = 0; i < 200; i++) {
+            long startTime = HistoryCache.toEpochMillis(START.plusHours(random.nextInt(24 * 400)));
+            long endTime = startTime + random.nextInt(24 * 200) * 3_600_000L;
+            TradingType tradingType = TradingType.values()[random.nextInt(TradingType.values().length)];
+
+            HistoryRangeIndex.Summary summary = index.summarize(startTime, endTime, tradingType);
+            List<HistoryDao> matched = index.histories(startTime, endTime, tradingType);
+            double equity = 1;
+            double peak = 1;
+            double trough = 1;
+            double maxDrawdownRate = 0;
+            double maxRunUpRate = 0;
+            int losingStreak = 0;
+            int longestLosingStreak = 0;
+            for (int j = matched.size() - 1; j >= 0; j--) {
+                double profitRate = matched.get(j).getProfitRate();
+                equity *= Math.max(1 + profitRate / 100, 1e-9);
+                peak = Math.max(peak, equity);
+                trough = Math.min(trough, equity);
+                maxDrawdownRate = Math.max(maxDrawdownRate, (1 - equity / peak) * 100);
+                maxRunUpRate = Math.max(maxRunUpRate, (equity / trough - 1) * 100);
+                losingStreak = profitRate < 0 ? losingStreak + 1 : 0;
+                longestLosingStreak = Math.max(longestLosingStreak, losingStreak);
+            }
+
+            assertThat(summary.getMaxDrawdownRate()).isCloseTo(maxDrawdownRate, within(1e-6));
+            assertThat(summary.getMaxRunUpRate()).isCloseTo(maxRunUpRate, within(Math.max(1, maxRunUpRate) * 1e-9));
+            assertThat(summary.getLongestLosingStreak()).isEqualTo(longestLosingStreak);
+        }
+    }
+
+    @Test
+    void 청산된_매매를_하나씩_붙인_인덱스가_처음부터_만든_인덱스와_같음_테스트() {
+        Random random = new Random(11);
+        List<HistoryDao> histories = histories(random);
+        HistoryRangeIndex full = HistoryRangeIndex.of(HistoryCache.of(histories), 0);
+        HistoryRangeIndex appended = HistoryRangeIndex.of(HistoryCache.of(histories.subList(0, 3)), 0);
+
+        for (int i = 3; i < histories.size() - 1; i++) {
+            assertThat(appended.append(i - 2, histories.get(i))).isTrue();
+        }
+        assertThat(appended.append(histories.size() - 3, histories.get(10))).isTrue();
+        assertThat(appended.append(histories.size(), histories.get(histories.size() - 2))).isFalse();
+
+        for (int i = 0; i < 100; i++) {
+            long startTime = HistoryCache.toEpochMillis(START.plusHours(random.nextInt(24 * 400)));
+            long endTime = startTime + random.nextInt(24 * 200) * 3_600_000L;
+            TradingType tradingType = TradingType.values()[random.nextInt(TradingType.values().length)];
+
+            HistoryRangeIndex.Summary expected = full.summarize(startTime, endTime, tradingType);
+            HistoryRangeIndex.Summary actual = appended.summarize(startTime, endTime, tradingType);
+
+            assertThat(actual.getTradeCount()).isEqualTo(expected.getTradeCount());
+            assertThat(actual.getCompoundProfitRate()).isCloseTo(expected.getCompoundProfitRate(), within(Math.abs(expected.getCompoundProfitRate()) * 1e-9));
+            assertThat(actual.getMaxDrawdownRate()).isCloseTo(expected.getMaxDrawdownRate(), within(1e-9));
+            assertThat(actual.getLongestLosingStreak()).isEqualTo(expected.getLongestLosingStreak());
+        }
+    }
+
+    private static List<HistoryDao> histories(Random random) {
+        List<HistoryDao> histories = new ArrayList<>();
+        LocalDateTime time = START;
+        for (long id = 1; id <= 500; id++) {
+            LocalDateTime exitTime = time.plusHours(1 + random.nextInt(48));
+            TradingType tradingType = random.nextBoolean() ? TradingType.LONG : TradingType.SHORT;
+            //수익률은 % 단위라 1 + 수익률이 음수나 0인 매매도 섞음
+            double profitRate = id % 50 == 0 ? -1 : random.nextGaussian() * 3;
+            histories.add(new HistoryDao(id, Position.of(tradingType, time, 30000), Position.of(TradingType.NONE, exitTime, 30000), profitRate));
+            time = exitTime.plusHours(random.nextInt(3));
+        }
+        histories.add(new HistoryDao(501L, Position.of(TradingType.LONG, time, 30000), null, 0));
+        return histories;
+    }
+
+    private static int bruteForceCount(List<HistoryDao> histories, long startTime, long endTime, TradingType tradingType) {
+        int count = 0;
+        for (HistoryDao history : histories) {
+            if (history.getExitPosition() != null &&
+                    HistoryCache.toEpochMillis(history.getEntryPosition().getTime()) > startTime &&
+                    HistoryCache.toEpochMillis(history.getExitPosition().getTime()) < endTime &&
+                    (tradingType == TradingType.BOTH || history.getEntryPosition().getTradingType() == tradingType)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,126 @@
+package com.tradin.module.strategy.service.signal;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class SignalBackPressureTest {
+    private static final String TOPIC = "signal";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    private final KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    private final ThreadPoolTaskExecutor asyncExecutor = new ThreadPoolTaskExecutor();
+    private final SignalDispatcher signalDispatcher = mock(SignalDispatcher.class);
+    private final ConsumerSeekCallback seekCallback = mock(ConsumerSeekCallback.class);
+    private SignalBackPressure backPressure;
+
+    @BeforeEach
+    void setUp() {
+        asyncExecutor.setQueueCapacity(10);
+        asyncExecutor.initialize();
+        when(registry.getListenerContainer(SignalTopics.LISTENER_ID)).thenReturn(container);
+        backPressure = new SignalBackPressure(registry, asyncExecutor, signalDispatcher, 10, 2);
+        backPressure.registerSeekCallback(seekCallback);
+        backPressure.onPartitionsAssigned(Map.of(PARTITION, 0L), seekCallback);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncExecutor.shutdown();
+    }
+
+    @Test
+    void 뒤_배치가_먼저_끝나도_받은_순서대로_ack_테스트() {
+        Acknowledgment first = mock(Acknowledgment.class);
+        Acknowledgment second = mock(Acknowledgment.class);
+        CompletableFuture<Void> firstHandled = new CompletableFuture<>();
+        CompletableFuture<Void> secondHandled = new CompletableFuture<>();
+
+        backPressure.submit(records(0, 1), () -> firstHandled, first);
+        backPressure.submit(records(1, 1), () -> secondHandled, second);
+
+        secondHandled.complete(null);
+        verify(second, never()).acknowledge();
+
+        firstHandled.complete(null);
+        InOrder order = inOrder(first, second);
+        order.verify(first).acknowledge();
+        order.verify(second).acknowledge();
+        verifyNoInteractions(seekCallback);
+    }
+
+    @Test
+    void 재시도_토픽에도_넣지_못한_배치는_커밋하지_않고_뒤_배치까지_되돌려_다시_받음_테스트() {
+        Acknowledgment first = mock(Acknowledgment.class);
+        Acknowledgment second = mock(Acknowledgment.class);
+        Acknowledgment third = mock(Acknowledgment.class);
+        CompletableFuture<Void> secondHandled = new CompletableFuture<>();
+        CompletableFuture<Void> thirdHandled = new CompletableFuture<>();
+
+        backPressure.submit(records(0, 2), () -> CompletableFuture.completedFuture(null), first);
+        backPressure.submit(records(2, 2), () -> secondHandled, second);
+        backPressure.submit(records(4, 2), () -> thirdHandled, third);
+
+        thirdHandled.complete(null);
+        secondHandled.completeExceptionally(new IllegalStateException("retry topic unavailable"));
+
+        verify(first).acknowledge();
+        verify(second, never()).acknowledge();
+        verify(third, never()).acknowledge();
+        verify(seekCallback).seek(TOPIC, 0, 2L);
+        assertThat(backPressure.getInFlight()).isZero();
+    }
+
+    @Test
+    void 처리_중인_시그널이_많으면_멈췄다가_줄어들면_재개_테스트() {
+        CompletableFuture<Void> handled = new CompletableFuture<>();
+
+        backPressure.submit(records(0, 10), () -> handled, mock(Acknowledgment.class));
+        assertThat(backPressure.isPaused()).isTrue();
+        verify(container).pause();
+
+        handled.complete(null);
+        assertThat(backPressure.isPaused()).isFalse();
+        verify(container).resume();
+    }
+
+    @Test
+    void 대기_작업이_한도에_닿은_레인이_있으면_멈췄다가_비면_재개_테스트() {
+        when(signalDispatcher.hasSaturatedLane()).thenReturn(true);
+        backPressure.adjust();
+        assertThat(backPressure.isPaused()).isTrue();
+
+        when(signalDispatcher.hasSaturatedLane()).thenReturn(false);
+        backPressure.adjust();
+        assertThat(backPressure.isPaused()).isFalse();
+    }
+
+    private static List<ConsumerRecord<String, String>> records(long fromOffset, int count) {
+        return LongStream.range(fromOffset, fromOffset + count)
+                .mapToObj(offset -> new ConsumerRecord<>(TOPIC, 0, offset, "key", "value"))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,49 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.module.strategy.domain.Position;
+import com.tradin.module.strategy.domain.TradingType;
+import com.tradin.module.strategy.service.dto.StrategySignalsDto;
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignalCoalescerTest {
+    private static final LocalDateTime TIME = LocalDateTime.of(2023, 5, 1, 0, 0);
+
+    @Test
+    void 전략별로_묶고_도착_순서를_유지_테스트() {
+        List<StrategySignalsDto> coalesced = SignalCoalescer.coalesce(List.of(
+                signal("BTC", TradingType.LONG, 0),
+                signal("ETH", TradingType.SHORT, 1),
+                signal("BTC", TradingType.SHORT, 2),
+                signal("BTC", TradingType.LONG, 3)));
+
+        assertThat(coalesced).extracting(StrategySignalsDto::getStrategyName).containsExactly("BTC", "ETH");
+
+        StrategySignalsDto btc = coalesced.get(0);
+        assertThat(btc.getPositions()).extracting(Position::getTradingType)
+                .containsExactly(TradingType.LONG, TradingType.SHORT, TradingType.LONG);
+        assertThat(btc.getTargetPosition()).isEqualTo(TradingType.LONG);
+        assertThat(btc.getSupersededCount()).isEqualTo(2);
+        assertThat(btc.getLatest().getPosition().getTime()).isEqualTo(TIME.plusMinutes(3));
+    }
+
+    @Test
+    void 현재_포지션보다_새_시그널만_남김_테스트() {
+        StrategySignalsDto btc = SignalCoalescer.coalesce(List.of(
+                signal("BTC", TradingType.LONG, 0),
+                signal("BTC", TradingType.SHORT, 2))).get(0);
+
+        assertThat(btc.newerThan(TIME.plusMinutes(1))).hasValueSatisfying(newer ->
+                assertThat(newer.getPositions()).extracting(Position::getTradingType).containsExactly(TradingType.SHORT));
+        assertThat(btc.newerThan(TIME.plusMinutes(2))).isEmpty();
+    }
+
+    private static WebHookDto signal(String name, TradingType tradingType, int minutes) {
+        return WebHookDto.of(name, Position.of(tradingType, TIME.plusMinutes(minutes), 30000));
+    }
+}
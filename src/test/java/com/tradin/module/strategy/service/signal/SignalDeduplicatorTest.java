@@ -0,0 +1,68 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.module.strategy.domain.Position;
+import com.tradin.module.strategy.domain.TradingType;
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SignalDeduplicatorTest {
+    private static final WebHookDto SIGNAL = WebHookDto.of("BTC", Position.of(TradingType.LONG, LocalDateTime.of(2023, 5, 1, 9, 30), 30000));
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(true);
+    }
+
+    @Test
+    void 같은_알림은_재시작_후에도_중복으로_거르고_같은_레코드의_재전달은_통과_테스트() {
+        SignalDeduplicator deduplicator = deduplicator();
+        assertThat(deduplicator.isDuplicate(SIGNAL, "future-short-term-v1-0@10")).isFalse();
+        assertThat(deduplicator.isDuplicate(SIGNAL, "future-short-term-v1-0@11")).isTrue();
+        assertThat(deduplicator.isDuplicate(WebHookDto.of("BTC", Position.of(TradingType.LONG, LocalDateTime.of(2023, 5, 1, 9, 30), 30001)),
+                "future-short-term-v1-0@12")).isFalse();
+        deduplicator.close();
+
+        SignalDeduplicator restarted = deduplicator();
+
+        assertThat(restarted.isDuplicate(SIGNAL, "future-short-term-v1-0@13")).isTrue();
+        assertThat(restarted.isDuplicate(SIGNAL, "future-short-term-v1-0@10")).isFalse();
+    }
+
+    @Test
+    void HTTP로_받아서_직접_처리한_시그널은_컨슈머가_같은_레코드를_받아도_중복으로_거름_테스트() {
+        SignalDeduplicator deduplicator = deduplicator();
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition("future-short-term-v1", 0), 10, 0, 0, 0, 0);
+
+        assertThat(deduplicator.isDuplicate(SIGNAL, SignalDeduplicator.directOrigin(metadata))).isFalse();
+        assertThat(deduplicator.isDuplicate(SIGNAL, "future-short-term-v1-0@10")).isTrue();
+    }
+
+    private SignalDeduplicator deduplicator() {
+        return new SignalDeduplicator(redisTemplate, directory.resolve("signal-dedup.snapshot").toString(), 100, 24);
+    }
+}
@@ -0,0 +1,42 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.module.strategy.domain.Position;
+import com.tradin.module.strategy.domain.TradingType;
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SignalDeserializerTest {
+    private static final LocalDateTime TIME = LocalDateTime.of(2023, 5, 1, 9, 30, 15, 123_000_000);
+
+    private final SignalDeserializer deserializer = new SignalDeserializer();
+
+    @Test
+    void 바이너리와_JSON_시그널을_같은_DTO로_읽음_테스트() {
+        byte[] binary = SignalCodec.encode(WebHookDto.of("비트코인 단타", Position.of(TradingType.SHORT, TIME, 30000)));
+        byte[] json = "{\"name\":\"비트코인 단타\",\"position\":{\"tradingType\":\"SHORT\",\"time\":\"2023-05-01T09:30:15.123\",\"price\":30000}}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        WebHookDto fromBinary = deserializer.deserialize(SignalTopics.FUTURE_SHORT_TERM_V1, binary);
+        WebHookDto fromJson = deserializer.deserialize(SignalTopics.FUTURE_SHORT_TERM_V1, json);
+
+        assertThat(fromBinary.getSignalId()).isEqualTo(fromJson.getSignalId());
+        assertThat(fromBinary.getPosition().getPrice()).isEqualTo(fromJson.getPosition().getPrice()).isEqualTo(30000);
+        assertThat(binary.length).isLessThan(json.length);
+    }
+
+    @Test
+    void 모르는_버전은_거부_테스트() {
+        byte[] binary = SignalCodec.encode(WebHookDto.of("BTC", Position.of(TradingType.LONG, TIME, 30000)));
+        binary[1] = 2;
+
+        assertThatThrownBy(() -> deserializer.deserialize(SignalTopics.FUTURE_SHORT_TERM_V1, binary))
+                .isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,73 @@
+package com.tradin.module.strategy.service.signal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignalDispatcherTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final SignalDispatcher dispatcher = new SignalDispatcher(executor, new SignalMetrics(new SimpleMeterRegistry()), 2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void 같은_전략은_앞_작업이_끝난_뒤에_순서대로_실행_테스트() throws Exception {
+        List<Integer> completed = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> slow = new CompletableFuture<>();
+
+        dispatcher.dispatch("BTC", () -> slow.thenRun(() -> completed.add(1)));
+        CompletableFuture<Void> second = dispatcher.dispatch("BTC", () -> CompletableFuture.runAsync(() -> completed.add(2)));
+
+        assertThat(dispatcher.getPendingCount("BTC")).isEqualTo(2);
+        slow.complete(null);
+        second.get(3, TimeUnit.SECONDS);
+
+        assertThat(completed).containsExactly(1, 2);
+    }
+
+    @Test
+    void 느린_전략이_다른_전략을_막지_않음_테스트() throws Exception {
+        CompletableFuture<Void> slow = new CompletableFuture<>();
+        dispatcher.dispatch("BTC", () -> slow);
+
+        dispatcher.dispatch("ETH", () -> CompletableFuture.completedFuture(null)).get(3, TimeUnit.SECONDS);
+
+        assertThat(slow).isNotDone();
+        slow.complete(null);
+    }
+
+    @Test
+    void 앞_작업이_실패해도_다음_작업은_실행_테스트() throws Exception {
+        dispatcher.dispatch("BTC", () -> {
+            throw new IllegalStateException("failed");
+        });
+
+        dispatcher.dispatch("BTC", () -> CompletableFuture.completedFuture(null)).get(3, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void 레인이_꽉_차도_호출한_쓰레드를_막지_않고_포화로_표시_테스트() throws Exception {
+        CompletableFuture<Void> slow = new CompletableFuture<>();
+        dispatcher.dispatch("BTC", () -> slow);
+        dispatcher.dispatch("BTC", () -> CompletableFuture.completedFuture(null));
+        CompletableFuture<Void> third = dispatcher.dispatch("BTC", () -> CompletableFuture.completedFuture(null));
+
+        assertThat(dispatcher.getPendingCount("BTC")).isEqualTo(3);
+        assertThat(dispatcher.hasSaturatedLane()).isTrue();
+
+        slow.complete(null);
+        third.get(3, TimeUnit.SECONDS);
+    }
+}
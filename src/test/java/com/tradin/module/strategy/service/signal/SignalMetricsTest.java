@@ -0,0 +1,37 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.module.strategy.domain.Position;
+import com.tradin.module.strategy.domain.TradingType;
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignalMetricsTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SignalMetrics signalMetrics = new SignalMetrics(meterRegistry);
+
+    @Test
+    void 코얼레싱_이후_시간도_리스너에서_받은_토픽_태그로_기록_테스트() {
+        WebHookDto signal = WebHookDto.of("BTC", Position.of(TradingType.LONG, LocalDateTime.of(2023, 5, 1, 9, 30), 30000));
+        long timestamp = System.currentTimeMillis() - 250;
+        ConsumerRecord<String, WebHookDto> record = new ConsumerRecord<>(SignalTopics.FUTURE_SHORT_TERM_V1, 0, 0, timestamp,
+                TimestampType.CREATE_TIME, 0, 0, "BTC", signal, new RecordHeaders(), Optional.empty());
+
+        signalMetrics.recordDelivery(record);
+        signalMetrics.recordProcessing("BTC", TimeUnit.MILLISECONDS.toNanos(40), true);
+
+        assertThat(meterRegistry.get("signal.delivery.delay").tag("topic", SignalTopics.FUTURE_SHORT_TERM_V1).tag("strategy", "BTC")
+                .timer().totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(250);
+        assertThat(meterRegistry.get("signal.processing").tag("topic", SignalTopics.FUTURE_SHORT_TERM_V1).tag("outcome", "success")
+                .timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,45 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.module.strategy.domain.Position;
+import com.tradin.module.strategy.domain.TradingType;
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SignalRetryPublisherTest {
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, WebHookDto> kafkaTemplate = mock(KafkaTemplate.class);
+    private final SignalRetryPublisher publisher = new SignalRetryPublisher(kafkaTemplate);
+
+    @Test
+    void 재시도_횟수에_따라_다음_재시도_토픽이나_DLT로_보냄_테스트() {
+        SettableListenableFuture<SendResult<String, WebHookDto>> sent = new SettableListenableFuture<>();
+        sent.set(null);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(sent);
+        List<WebHookDto> signals = List.of(WebHookDto.of("BTC", Position.of(TradingType.LONG, LocalDateTime.of(2023, 5, 1, 0, 0), 30000)));
+
+        publisher.publish(signals, 0, new IllegalStateException("first")).join();
+        publisher.publish(signals, 3, new IllegalStateException("last")).join();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, WebHookDto>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(records.capture());
+        assertThat(records.getAllValues()).extracting(ProducerRecord::topic).containsExactly(SignalTopics.RETRY_1S, SignalTopics.DEAD_LETTER);
+        assertThat(records.getAllValues()).extracting(record -> SignalRetryPublisher.getAttempt(record.headers())).containsExactly(1, 4);
+        assertThat(SignalTopics.retryDelayMillis(SignalTopics.RETRY_25S)).isEqualTo(25000);
+    }
+}
@@ -0,0 +1,40 @@
+package com.tradin.module.strategy.service.signal;
+
+import com.tradin.common.exception.TradinException;
+import com.tradin.common.secret.SecretKeyManager;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebhookSignatureVerifierTest {
+    private static final byte[] BODY = "{\"name\":\"BTC\",\"position\":{\"tradingType\":\"LONG\",\"time\":\"2023-05-01T09:30:00\",\"price\":30000}}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final WebhookSignatureVerifier verifier = new WebhookSignatureVerifier(
+            new SecretKeyManager("clientId", "redirectUri", "issuer", "username", "password", "webhook-secret"), 300_000);
+
+    @Test
+    void 서명이_맞고_시각이_허용_범위_안이면_통과_테스트() {
+        long timestamp = System.currentTimeMillis();
+        String signature = HexFormat.of().formatHex(verifier.sign(timestamp, BODY));
+
+        assertThatCode(() -> verifier.verify(timestamp, signature, BODY)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void 본문이_바뀌거나_오래된_요청은_거부_테스트() {
+        long timestamp = System.currentTimeMillis();
+        String signature = HexFormat.of().formatHex(verifier.sign(timestamp, BODY));
+        byte[] tampered = new String(BODY, StandardCharsets.UTF_8).replace("30000", "30001").getBytes(StandardCharsets.UTF_8);
+        long expired = timestamp - 600_000;
+        String expiredSignature = HexFormat.of().formatHex(verifier.sign(expired, BODY));
+
+        assertThatThrownBy(() -> verifier.verify(timestamp, signature, tampered)).isInstanceOf(TradinException.class);
+        assertThatThrownBy(() -> verifier.verify(expired, expiredSignature, BODY)).isInstanceOf(TradinException.class);
+        assertThatThrownBy(() -> verifier.verify(timestamp, "not-hex", BODY)).isInstanceOf(TradinException.class);
+    }
+}
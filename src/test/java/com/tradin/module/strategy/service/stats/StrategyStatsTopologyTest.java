@@ -0,0 +1,101 @@
+package com.tradin.module.strategy.service.stats;
+
+import com.tradin.module.strategy.domain.Position;
+import com.tradin.module.strategy.domain.TradingType;
+import com.tradin.module.strategy.service.dto.WebHookDto;
+import com.tradin.module.strategy.service.signal.SignalCodec;
+import com.tradin.module.strategy.service.signal.SignalTopics;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class StrategyStatsTopologyTest {
+    private static final LocalDateTime TIME = LocalDateTime.of(2023, 5, 1, 9, 0);
+
+    @TempDir
+    Path stateDir;
+
+    @Test
+    void DB_통계에서_시작해서_시그널마다_집계하고_중복_시그널은_무시_테스트() {
+        Map<String, StrategyStats> written = new HashMap<>();
+        StreamsBuilder streamsBuilder = new StreamsBuilder();
+        StrategyStatsTopology.build(streamsBuilder,
+                (name, position) -> Optional.of(StrategyStats.of(null, null, 0, 10, 6, 4, 30, 10, 1)), written::put);
+
+        try (TopologyTestDriver driver = new TopologyTestDriver(streamsBuilder.build(), properties())) {
+            TestInputTopic<String, byte[]> topic = driver.createInputTopic(SignalTopics.FUTURE_SHORT_TERM_V1,
+                    new StringSerializer(), new ByteArraySerializer());
+
+            //직전 포지션이 없으면 첫 시그널은 기준 포지션만 잡음
+            topic.pipeInput(signal(TradingType.LONG, 0, 100));
+            topic.pipeInput(signal(TradingType.SHORT, 1, 110));
+            topic.pipeInput(signal(TradingType.SHORT, 1, 110));
+            topic.pipeInput(signal(TradingType.LONG, 2, 121));
+
+            KeyValueStore<String, StrategyStats> store = driver.getKeyValueStore(StrategyStatsTopology.STORE_NAME);
+            StrategyStats stats = store.get("BTC");
+            assertThat(stats.getTotalTradeCount()).isEqualTo(12);
+            assertThat(stats.getWinCount()).isEqualTo(7);
+            assertThat(stats.getLossCount()).isEqualTo(5);
+            assertThat(stats.getTotalProfitRate()).isCloseTo(40, within(1e-9));
+            assertThat(stats.getTotalLossRate()).isCloseTo(20, within(1e-9));
+            assertThat(stats.getTradingType()).isEqualTo(TradingType.LONG);
+            assertThat(stats.getPrice()).isEqualTo(121);
+            assertThat(written.get("BTC").getTotalTradeCount()).isEqualTo(12);
+        }
+    }
+
+    @Test
+    void 매매_내역의_직전_포지션에서_시작해서_첫_시그널도_매매로_집계_테스트() {
+        List<LocalDateTime> seededAt = new ArrayList<>();
+        StreamsBuilder streamsBuilder = new StreamsBuilder();
+        StrategyStatsTopology.build(streamsBuilder, (name, position) -> {
+            seededAt.add(position.getTime());
+            return Optional.of(StrategyStats.of(TradingType.LONG, TIME, 100, 10, 6, 4, 30, 10, 1));
+        }, (name, stats) -> {
+        });
+
+        try (TopologyTestDriver driver = new TopologyTestDriver(streamsBuilder.build(), properties())) {
+            TestInputTopic<String, byte[]> topic = driver.createInputTopic(SignalTopics.FUTURE_SHORT_TERM_V1,
+                    new StringSerializer(), new ByteArraySerializer());
+
+            topic.pipeInput(signal(TradingType.SHORT, 1, 110));
+
+            StrategyStats stats = driver.<String, StrategyStats>getKeyValueStore(StrategyStatsTopology.STORE_NAME).get("BTC");
+            assertThat(seededAt).containsExactly(TIME.plusHours(1));
+            assertThat(stats.getTotalTradeCount()).isEqualTo(11);
+            assertThat(stats.getWinCount()).isEqualTo(7);
+            assertThat(stats.getTotalProfitRate()).isCloseTo(40, within(1e-9));
+        }
+    }
+
+    private Properties properties() {
+        Properties properties = new Properties();
+        properties.put(StreamsConfig.APPLICATION_ID_CONFIG, "strategy-stats-test");
+        properties.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        properties.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        return properties;
+    }
+
+    private static byte[] signal(TradingType tradingType, int hours, int price) {
+        return SignalCodec.encode(WebHookDto.of("BTC", Position.of(tradingType, TIME.plusHours(hours), price)));
+    }
+}
@@ -0,0 +1,84 @@
+package com.tradin.module.trade.service;
+
+import com.tradin.module.trade.domain.TradeOutcome;
+import com.tradin.module.trade.service.dto.TradeResultDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TradeFanOutEngineTest {
+    private static final int MAX_IN_FLIGHT = 3;
+    private static final long DEADLINE_MILLIS = 500;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final TradeFanOutEngine engine = new TradeFanOutEngine(MAX_IN_FLIGHT, DEADLINE_MILLIS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void 논블로킹_파이프라인은_maxInFlight만큼만_동시에_진행_테스트() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        List<TradeResultDto> results = engine.fanOutAsync(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), Function.identity(), userId -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.runAsync(() -> {
+                sleep(30);
+                inFlight.decrementAndGet();
+            }, executor);
+        });
+
+        assertThat(maxInFlight).hasValueLessThanOrEqualTo(MAX_IN_FLIGHT);
+        assertThat(results).extracting(TradeResultDto::getUserId).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+        assertThat(results).extracting(TradeResultDto::getOutcome).containsOnly(TradeOutcome.SUCCESS);
+    }
+
+    @Test
+    void 데드라인을_넘긴_유저만_TIMEOUT으로_기록_테스트() {
+        CompletableFuture<Void> stuck = new CompletableFuture<>();
+
+        List<TradeResultDto> results = engine.fanOutAsync(List.of(1L, 2L), Function.identity(),
+                userId -> userId == 1L ? stuck : CompletableFuture.completedFuture(null));
+
+        assertThat(results).extracting(TradeResultDto::getOutcome).containsExactly(TradeOutcome.TIMEOUT, TradeOutcome.SUCCESS);
+        assertThat(results.get(0).getElapsedMillis()).isEqualTo(DEADLINE_MILLIS);
+        stuck.complete(null);
+    }
+
+    @Test
+    void 한_유저의_실패가_다른_유저의_매매를_막지_않음_테스트() {
+        List<TradeResultDto> results = engine.fanOutAsync(List.of(1L, 2L, 3L), Function.identity(), userId -> {
+            if (userId == 1L) {
+                throw new IllegalStateException("insufficient balance");
+            }
+            if (userId == 2L) {
+                return CompletableFuture.failedFuture(new IllegalStateException("order rejected"));
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+
+        assertThat(results).extracting(TradeResultDto::getOutcome)
+                .containsExactly(TradeOutcome.FAILED, TradeOutcome.FAILED, TradeOutcome.SUCCESS);
+        assertThat(results).extracting(TradeResultDto::getMessage)
+                .containsExactly("insufficient balance", "order rejected", null);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.tradin.module.trade.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradin.common.secret.BinanceCredential;
+import com.tradin.common.secret.CredentialVault;
+import com.tradin.common.stub.BinanceFuturesStub;
+import com.tradin.module.feign.client.BinanceAsyncClient;
+import com.tradin.module.feign.client.BinanceClient;
+import com.tradin.module.feign.governor.BinanceRequestGovernor;
+import com.tradin.module.feign.journal.OrderClaimRegistry;
+import com.tradin.module.feign.journal.OrderJournal;
+import com.tradin.module.feign.service.BinanceFeignService;
+import com.tradin.module.feign.stream.AccountStateCache;
+import com.tradin.module.strategy.domain.TradingType;
+import com.tradin.module.trade.domain.TradeOutcome;
+import com.tradin.module.trade.service.dto.AutoTradingResultDto;
+import com.tradin.module.users.domain.repository.dao.AutoTradingSubscriberDao;
+import com.tradin.module.users.service.AutoTradingSubscriberIndex;
+import com.tradin.module.users.service.UsersService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+//로컬 바이낸스 서버에 구독자 N명을 두고 시그널을 보내서, 시그널 수신부터 구독자별 첫 주문이 서버에 도착할 때까지의 지연시간을 측정
+//기본 test 태스크에서는 제외되고 ./gradlew loadTest -Dload.subscribers=1000 처럼 실행함
+@Tag("load")
+class TradeFanOutLoadTest {
+    private static final String STRATEGY_NAME = "LOAD";
+    private static final int SUBSCRIBERS = Integer.getInteger("load.subscribers", 500);
+    private static final int SIGNALS = Integer.getInteger("load.signals", 6);
+    private static final int MIN_LATENCY_MILLIS = Integer.getInteger("load.min-latency-millis", 20);
+    private static final int MAX_LATENCY_MILLIS = Integer.getInteger("load.max-latency-millis", 80);
+    private static final double ERROR_RATE = Double.parseDouble(System.getProperty("load.error-rate", "0.01"));
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("load.max-in-flight", 1000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void 시그널부터_주문_도착까지_지연시간_측정() throws Exception {
+        try (BinanceFuturesStub stub = new BinanceFuturesStub().latency(MIN_LATENCY_MILLIS, MAX_LATENCY_MILLIS).errorRate(ERROR_RATE).start()) {
+            ObjectMapper objectMapper = new ObjectMapper();
+            //서버 한도가 아니라 fan-out 자체를 재기 위해 governor 한도는 넉넉하게 둠
+            BinanceRequestGovernor governor = new BinanceRequestGovernor(new SimpleMeterRegistry(), Integer.MAX_VALUE, 1.0,
+                    Integer.MAX_VALUE, Integer.MAX_VALUE, 10000);
+            BinanceAsyncClient asyncClient = new BinanceAsyncClient(objectMapper, governor, stub.getBaseUrl(), 1000, 5000, 4);
+            OrderJournal orderJournal = new OrderJournal(directory.resolve("orders.log").toString(), 24);
+            OrderClaimRegistry orderClaimRegistry = mock(OrderClaimRegistry.class);
+            when(orderClaimRegistry.claim(anyString())).thenReturn(true);
+            BinanceFeignService binanceFeignService = new BinanceFeignService(mock(BinanceClient.class), asyncClient, new AccountStateCache(new SimpleMeterRegistry(), 300),
+                    orderJournal, orderClaimRegistry, objectMapper, 3, 50);
+
+            AutoTradingSubscriberIndex index = new AutoTradingSubscriberIndex(mock(RedisTemplate.class), mock(RedisMessageListenerContainer.class), 5);
+            List<AutoTradingSubscriberDao> subscribers = subscribers();
+            UsersService usersService = mock(UsersService.class);
+            when(usersService.findAutoTradingSubscriberByStrategyName(STRATEGY_NAME))
+                    .thenAnswer(invocation -> index.get(STRATEGY_NAME, name -> subscribers));
+            CredentialVault credentialVault = mock(CredentialVault.class);
+            when(credentialVault.get(anyLong(), anyString(), anyString()))
+                    .thenAnswer(invocation -> BinanceCredential.of(invocation.getArgument(1), invocation.getArgument(2)));
+
+            TradeService tradeService = new TradeService(usersService, binanceFeignService, credentialVault,
+                    new TradeFanOutEngine(MAX_IN_FLIGHT, 30000), mock(TradeOutboxWriter.class), index);
+
+            List<Long> latencies = new ArrayList<>();
+            for (int i = 0; i < SIGNALS; i++) {
+                TradingType position = i % 2 == 0 ? TradingType.LONG : TradingType.SHORT;
+                int receivedBefore = stub.getReceivedOrders().size();
+                long signalAt = System.nanoTime();
+
+                AutoTradingResultDto result = tradeService.autoTrading(STRATEGY_NAME, position, STRATEGY_NAME + ":" + position + ":" + i)
+                        .get(60, TimeUnit.SECONDS);
+
+                List<BinanceFuturesStub.ReceivedOrder> received = stub.getReceivedOrders();
+                latencies.addAll(firstOrderLatencies(received.subList(receivedBefore, received.size()), signalAt));
+                System.out.printf("signal %d (%s) - success: %d, failed: %d, timeout: %d, elapsed: %dms%n", i, position,
+                        result.countOf(TradeOutcome.SUCCESS), result.countOf(TradeOutcome.FAILED), result.countOf(TradeOutcome.TIMEOUT),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - signalAt));
+            }
+
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("subscribers: %d, signals: %d, requests: %d, signal-to-order p50: %dms, p99: %dms, max: %dms%n",
+                    SUBSCRIBERS, SIGNALS, stub.getRequestCount(), percentile(sorted, 0.5), percentile(sorted, 0.99), percentile(sorted, 1.0));
+
+            assertThat(sorted).isNotEmpty();
+            asyncClient.shutdown();
+            orderJournal.close();
+        }
+    }
+
+    private static List<AutoTradingSubscriberDao> subscribers() {
+        return IntStream.rangeClosed(1, SUBSCRIBERS)
+                .mapToObj(id -> new AutoTradingSubscriberDao((long) id, STRATEGY_NAME, 1, 100, TradingType.BOTH, TradingType.NONE,
+                        String.format("%064d", id), "secret" + id))
+                .collect(Collectors.toList());
+    }
+
+    //구독자별로 시그널 이후 처음 도착한 주문까지의 시간
+    private static List<Long> firstOrderLatencies(List<BinanceFuturesStub.ReceivedOrder> received, long signalAt) {
+        Map<String, Long> firstReceivedAt = received.stream()
+                .collect(Collectors.toMap(BinanceFuturesStub.ReceivedOrder::getApiKey, BinanceFuturesStub.ReceivedOrder::getReceivedAtNanos, Math::min));
+
+        return firstReceivedAt.values().stream()
+                .map(receivedAt -> TimeUnit.NANOSECONDS.toMillis(receivedAt - signalAt))
+                .collect(Collectors.toList());
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
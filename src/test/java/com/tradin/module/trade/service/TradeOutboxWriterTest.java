@@ -0,0 +1,80 @@
+package com.tradin.module.trade.service;
+
+import com.tradin.module.strategy.domain.TradingType;
+import com.tradin.module.trade.domain.TradeOutbox;
+import com.tradin.module.trade.domain.TradeOutcome;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TradeOutboxWriterTest {
+    private static final int BATCH_SIZE = 2;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final TradeOutboxWriter writer = new TradeOutboxWriter(jdbcTemplate, new TransactionTemplate(transactionManager), BATCH_SIZE);
+
+    @Test
+    void 포지션_변경과_매매_결과를_한_트랜잭션에_쓰고_커밋_테스트() {
+        TradeOutbox positionChanged = TradeOutbox.positionChanged("signal", 1L, TradingType.LONG);
+        TradeOutbox tradeResult = TradeOutbox.tradeResult("signal", 1L, TradeOutcome.SUCCESS, null, 10);
+
+        writer.write(List.of(positionChanged, tradeResult));
+
+        ArgumentCaptor<Collection<TradeOutbox>> inserted = captor();
+        ArgumentCaptor<Collection<TradeOutbox>> updated = captor();
+        InOrder inOrder = inOrder(transactionManager, jdbcTemplate);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO trade_outbox"), inserted.capture(), eq(BATCH_SIZE), any(ParameterizedPreparedStatementSetter.class));
+        inOrder.verify(jdbcTemplate).batchUpdate(startsWith("UPDATE users"), updated.capture(), eq(BATCH_SIZE), any(ParameterizedPreparedStatementSetter.class));
+        inOrder.verify(transactionManager).commit(any());
+        assertThat(inserted.getValue()).containsExactly(positionChanged, tradeResult);
+        assertThat(updated.getValue()).containsExactly(positionChanged);
+    }
+
+    @Test
+    void 기록에_실패하면_롤백하고_호출한_쪽에_던짐_테스트() {
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE users"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        assertThatThrownBy(() -> writer.write(List.of(TradeOutbox.positionChanged("signal", 1L, TradingType.SHORT))))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void 쓸_것이_없으면_트랜잭션을_열지_않음_테스트() {
+        writer.write(List.of());
+
+        verifyNoInteractions(transactionManager, jdbcTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Collection<TradeOutbox>> captor() {
+        return ArgumentCaptor.forClass(Collection.class);
+    }
+}
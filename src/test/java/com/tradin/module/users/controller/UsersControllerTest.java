@@ -1,6 +1,7 @@
 package com.tradin.module.users.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradin.common.config.BinanceStubConfiguration;
 import com.tradin.common.config.TestContainerConfiguration;
 import com.tradin.module.users.controller.dto.request.PingRequestDto;
 import org.junit.jupiter.api.Test;
@@ -22,7 +23,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
-@ExtendWith(TestContainerConfiguration.class)
+@ExtendWith({TestContainerConfiguration.class, BinanceStubConfiguration.class})
 class UsersControllerTest {
 
     @Autowired
@@ -0,0 +1,89 @@
+package com.tradin.module.users.service;
+
+import com.tradin.module.strategy.domain.TradingType;
+import com.tradin.module.users.domain.repository.dao.AutoTradingSubscriberDao;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class AutoTradingSubscriberIndexTest {
+    private final AutoTradingSubscriberIndex index = new AutoTradingSubscriberIndex(mock(RedisTemplate.class), mock(RedisMessageListenerContainer.class), 5);
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    @Test
+    void 처음_조회할_때만_DB에서_읽음_테스트() {
+        index.get("BTC", this::load);
+        List<AutoTradingSubscriberDao> subscribers = index.get("BTC", this::load);
+
+        assertThat(subscribers).extracting(AutoTradingSubscriberDao::getUserId).containsExactly(1L);
+        assertThat(loadCount).hasValue(1);
+    }
+
+    @Test
+    void 구독_해지_포지션_변경을_인덱스에_반영_테스트() {
+        index.get("BTC", this::load);
+
+        index.add(subscriber(2L, "BTC"));
+        index.remove("BTC", 1L);
+        index.update("BTC", 2L, subscriber -> subscriber.withCurrentPositionType(TradingType.LONG));
+
+        assertThat(index.get("BTC", this::load)).singleElement().satisfies(subscriber -> {
+            assertThat(subscriber.getUserId()).isEqualTo(2L);
+            assertThat(subscriber.getCurrentPositionType()).isEqualTo(TradingType.LONG);
+        });
+        assertThat(loadCount).hasValue(1);
+    }
+
+    @Test
+    void 읽지_않은_전략에_대한_변경은_무시하고_다음_조회때_DB에서_읽음_테스트() {
+        index.add(subscriber(2L, "ETH"));
+
+        assertThat(index.get("ETH", this::load)).extracting(AutoTradingSubscriberDao::getUserId).containsExactly(1L);
+    }
+
+    @Test
+    void 다른_인스턴스의_변경_알림을_받으면_다음_조회때_DB에서_다시_읽음_테스트() {
+        index.get("BTC", this::load);
+
+        index.onMessage(new DefaultMessage(AutoTradingSubscriberIndex.INVALIDATE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-instance:BTC".getBytes(StandardCharsets.UTF_8)), null);
+        index.get("BTC", this::load);
+
+        assertThat(loadCount).hasValue(2);
+    }
+
+    @Test
+    void 읽는_도중에_들어온_변경은_다시_읽어서_반영_테스트() {
+        List<AutoTradingSubscriberDao> table = new ArrayList<>(List.of(subscriber(1L, "BTC")));
+
+        List<AutoTradingSubscriberDao> subscribers = index.get("BTC", name -> {
+            List<AutoTradingSubscriberDao> snapshot = List.copyOf(table);
+            if (loadCount.incrementAndGet() == 1) {
+                table.add(subscriber(2L, "BTC"));
+                index.add(subscriber(2L, "BTC"));
+            }
+            return snapshot;
+        });
+
+        assertThat(subscribers).extracting(AutoTradingSubscriberDao::getUserId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(loadCount).hasValue(2);
+    }
+
+    private List<AutoTradingSubscriberDao> load(String strategyName) {
+        loadCount.incrementAndGet();
+        return List.of(subscriber(1L, strategyName));
+    }
+
+    private static AutoTradingSubscriberDao subscriber(Long userId, String strategyName) {
+        return new AutoTradingSubscriberDao(userId, strategyName, 1, 100, TradingType.BOTH, TradingType.NONE, "apiKey" + userId, "secretKey" + userId);
+    }
+}